@@ -30,6 +30,195 @@ public class PixConfig {
 
     @ConfigProperty(name = "pix.banco-brasil.pixVencimento-url")
     String pixBBVencimentoUrl;
+
+    @ConfigProperty(name = "pix.banco-brasil.loteCobv-url")
+    String pixBBLoteCobvUrl;
+
+    @ConfigProperty(name = "pix.banco-brasil.webhook-url")
+    String pixBBWebhookUrl;
+
+    @ConfigProperty(name = "pix.http.versao", defaultValue = "HTTP_2")
+    String httpVersao;
+
+    @ConfigProperty(name = "pix.http.connect-timeout-segundos", defaultValue = "10")
+    int httpConnectTimeoutSegundos;
+
+    @ConfigProperty(name = "pix.http.request-timeout-segundos", defaultValue = "30")
+    int httpRequestTimeoutSegundos;
+
+    @ConfigProperty(name = "pix.http.pool-conexoes", defaultValue = "50")
+    int httpPoolConexoes;
+
+    @ConfigProperty(name = "pix.http.keep-alive-segundos", defaultValue = "300")
+    int httpKeepAliveSegundos;
+
+    @ConfigProperty(name = "pix.http.max-conexoes-por-host", defaultValue = "32")
+    int httpMaxConexoesPorHost;
+
+    @ConfigProperty(name = "pix.http.threads", defaultValue = "16")
+    int httpThreads;
+
+    @ConfigProperty(name = "pix.circuito.janela", defaultValue = "20")
+    int circuitoJanela;
+
+    @ConfigProperty(name = "pix.circuito.minimo-chamadas", defaultValue = "10")
+    int circuitoMinimoChamadas;
+
+    @ConfigProperty(name = "pix.circuito.taxa-falha-percentual", defaultValue = "50")
+    int circuitoTaxaFalhaPercentual;
+
+    @ConfigProperty(name = "pix.circuito.aberto-segundos", defaultValue = "30")
+    int circuitoAbertoSegundos;
+
+    @ConfigProperty(name = "pix.circuito.chamadas-teste", defaultValue = "3")
+    int circuitoChamadasTeste;
+
+    @ConfigProperty(name = "pix.circuito.max-concorrentes", defaultValue = "16")
+    int circuitoMaxConcorrentes;
+
+    @ConfigProperty(name = "pix.circuito.espera-vaga-ms", defaultValue = "200")
+    long circuitoEsperaVagaMs;
+
+    @ConfigProperty(name = "pix.limite.habilitado", defaultValue = "true")
+    boolean limiteHabilitado;
+
+    @ConfigProperty(name = "pix.limite.taxa-inicial", defaultValue = "20")
+    double limiteTaxaInicial;
+
+    @ConfigProperty(name = "pix.limite.taxa-minima", defaultValue = "1")
+    double limiteTaxaMinima;
+
+    @ConfigProperty(name = "pix.limite.taxa-maxima", defaultValue = "200")
+    double limiteTaxaMaxima;
+
+    @ConfigProperty(name = "pix.limite.rajada", defaultValue = "20")
+    int limiteRajada;
+
+    @ConfigProperty(name = "pix.limite.fator-reducao", defaultValue = "0.5")
+    double limiteFatorReducao;
+
+    @ConfigProperty(name = "pix.limite.incremento", defaultValue = "1")
+    double limiteIncremento;
+
+    @ConfigProperty(name = "pix.limite.espera-maxima-ms", defaultValue = "5000")
+    long limiteEsperaMaximaMs;
+
+    @ConfigProperty(name = "pix.limite.tentativas-429", defaultValue = "2")
+    int limiteTentativas429;
+
+    @ConfigProperty(name = "pix.retentativa.max-tentativas", defaultValue = "3")
+    int retentativaMaxTentativas;
+
+    @ConfigProperty(name = "pix.retentativa.backoff-inicial-ms", defaultValue = "250")
+    long retentativaBackoffInicialMs;
+
+    @ConfigProperty(name = "pix.retentativa.backoff-maximo-ms", defaultValue = "4000")
+    long retentativaBackoffMaximoMs;
+
+    @ConfigProperty(name = "pix.retentativa.orcamento-percentual", defaultValue = "10")
+    int retentativaOrcamentoPercentual;
+
+    @ConfigProperty(name = "pix.retentativa.orcamento-maximo", defaultValue = "10")
+    int retentativaOrcamentoMaximo;
+
+    @ConfigProperty(name = "pix.idempotencia.ttl-horas", defaultValue = "24")
+    int idempotenciaTtlHoras;
+
+    @ConfigProperty(name = "pix.idempotencia.cache-max-entradas", defaultValue = "10000")
+    int idempotenciaCacheMaxEntradas;
+
+    @ConfigProperty(name = "pix.idempotencia.espera-ms", defaultValue = "10000")
+    long idempotenciaEsperaMs;
+
+    @ConfigProperty(name = "pix.idempotencia.reserva-expira-segundos", defaultValue = "120")
+    int idempotenciaReservaExpiraSegundos;
+
+    @ConfigProperty(name = "pix.token.renovacao.antecedencia-segundos", defaultValue = "600")
+    int tokenRenovacaoAntecedenciaSegundos;
+
+    @ConfigProperty(name = "pix.token.renovacao.jitter-segundos", defaultValue = "60")
+    int tokenRenovacaoJitterSegundos;
+
+    @ConfigProperty(name = "pix.token.renovacao.max-tentativas", defaultValue = "5")
+    int tokenRenovacaoMaxTentativas;
+
+    @ConfigProperty(name = "pix.token.renovacao.backoff-inicial-ms", defaultValue = "1000")
+    long tokenRenovacaoBackoffInicialMs;
+
+    @ConfigProperty(name = "pix.health.timeout-ms", defaultValue = "3000")
+    int healthTimeoutMs;
+
+    @ConfigProperty(name = "pix.registro.recuperacao.idade-minima-segundos", defaultValue = "120")
+    int registroRecuperacaoIdadeMinimaSegundos;
+
+    @ConfigProperty(name = "pix.registro.recuperacao.lote", defaultValue = "100")
+    int registroRecuperacaoLote;
+
+    @ConfigProperty(name = "pix.outbox.concorrencia", defaultValue = "8")
+    int outboxConcorrencia;
+
+    @ConfigProperty(name = "pix.outbox.lote", defaultValue = "50")
+    int outboxLote;
+
+    @ConfigProperty(name = "pix.outbox.max-tentativas", defaultValue = "10")
+    int outboxMaxTentativas;
+
+    @ConfigProperty(name = "pix.outbox.backoff-inicial-segundos", defaultValue = "2")
+    int outboxBackoffInicialSegundos;
+
+    @ConfigProperty(name = "pix.outbox.backoff-maximo-segundos", defaultValue = "300")
+    int outboxBackoffMaximoSegundos;
+
+    @ConfigProperty(name = "pix.outbox.max-pendentes", defaultValue = "10000")
+    long outboxMaxPendentes;
+
+    @ConfigProperty(name = "pix.lote.max-itens", defaultValue = "5000")
+    int loteMaxItens;
+
+    @ConfigProperty(name = "pix.lote.itens-por-transacao", defaultValue = "500")
+    int loteItensPorTransacao;
+
+    @ConfigProperty(name = "pix.lotecobv.habilitado", defaultValue = "false")
+    boolean loteCobvHabilitado;
+
+    @ConfigProperty(name = "pix.lotecobv.tamanho", defaultValue = "1000")
+    int loteCobvTamanho;
+
+    @ConfigProperty(name = "pix.conciliacao.habilitado", defaultValue = "true")
+    boolean conciliacaoHabilitada;
+
+    @ConfigProperty(name = "pix.conciliacao.janela-cob-horas", defaultValue = "24")
+    int conciliacaoJanelaCobHoras;
+
+    @ConfigProperty(name = "pix.conciliacao.janela-cobv-dias", defaultValue = "30")
+    int conciliacaoJanelaCobvDias;
+
+    @ConfigProperty(name = "pix.conciliacao.itens-por-pagina", defaultValue = "1000")
+    int conciliacaoItensPorPagina;
+
+    @ConfigProperty(name = "pix.webhook.itens-por-transacao", defaultValue = "500")
+    int webhookItensPorTransacao;
+
+    @ConfigProperty(name = "pix.sse.max-conexoes", defaultValue = "10000")
+    int sseMaxConexoes;
+
+    @ConfigProperty(name = "pix.qrcode.cache.max-bytes", defaultValue = "16777216")
+    long qrCodeCacheMaxBytes;
+
+    @ConfigProperty(name = "pix.qrcode.max-age-segundos", defaultValue = "86400")
+    int qrCodeMaxAgeSegundos;
+
+    @ConfigProperty(name = "pix.status.coalescencia.janela-ms", defaultValue = "1000")
+    long statusCoalescenciaJanelaMs;
+
+    @ConfigProperty(name = "pix.status.coalescencia.max-entradas", defaultValue = "10000")
+    int statusCoalescenciaMaxEntradas;
+
+    @ConfigProperty(name = "pix.recebedor.nome")
+    String recebedorNome;
+
+    @ConfigProperty(name = "pix.recebedor.cidade")
+    String recebedorCidade;
     
     /**
      * Verifica se o ambiente é de produção
@@ -94,7 +283,584 @@ public class PixConfig {
     public String getPixBBVencimentoUrl() {
         return pixBBVencimentoUrl;
     }
+
+    /**
+     * Obtém a URL base da API de lotes de cobranças com vencimento (lotecobv)
+     * 
+     * @return URL da API de lotes
+     */
+    public String getPixBBLoteCobvUrl() {
+        return pixBBLoteCobvUrl;
+    }
+
+    /**
+     * Obtém a URL base da API de cadastro de webhooks Pix
+     * 
+     * @return URL da API de webhook
+     */
+    public String getPixBBWebhookUrl() {
+        return pixBBWebhookUrl;
+    }
     
+    /**
+     * Obtém a versão HTTP preferida para as chamadas ao banco (HTTP_2 ou HTTP_1_1)
+     * 
+     * @return Versão HTTP configurada
+     */
+    public String getHttpVersao() {
+        return httpVersao;
+    }
+
+    /**
+     * Obtém o tempo máximo para estabelecer uma conexão com o banco
+     * 
+     * @return Timeout de conexão em segundos
+     */
+    public int getHttpConnectTimeoutSegundos() {
+        return httpConnectTimeoutSegundos;
+    }
+
+    /**
+     * Obtém o tempo máximo de espera pela resposta de uma requisição
+     * 
+     * @return Timeout de requisição em segundos
+     */
+    public int getHttpRequestTimeoutSegundos() {
+        return httpRequestTimeoutSegundos;
+    }
+
+    /**
+     * Obtém o número máximo de conexões ociosas mantidas no pool
+     * 
+     * @return Tamanho do pool de conexões
+     */
+    public int getHttpPoolConexoes() {
+        return httpPoolConexoes;
+    }
+
+    /**
+     * Obtém o tempo que uma conexão ociosa permanece aberta no pool
+     * 
+     * @return Keep-alive em segundos
+     */
+    public int getHttpKeepAliveSegundos() {
+        return httpKeepAliveSegundos;
+    }
+
+    /**
+     * Obtém o número máximo de requisições simultâneas por host do banco
+     * 
+     * @return Limite de requisições simultâneas por host
+     */
+    public int getHttpMaxConexoesPorHost() {
+        return httpMaxConexoesPorHost;
+    }
+
+    /**
+     * Obtém o número de threads do executor do cliente HTTP
+     * 
+     * @return Número de threads
+     */
+    public int getHttpThreads() {
+        return httpThreads;
+    }
+
+    /**
+     * Obtém quantas chamadas recentes o circuito de cada endpoint avalia
+     * 
+     * @return Tamanho da janela de chamadas
+     */
+    public int getCircuitoJanela() {
+        return circuitoJanela;
+    }
+
+    /**
+     * Obtém o número mínimo de chamadas na janela antes de o circuito poder abrir
+     * 
+     * @return Quantidade mínima de chamadas
+     */
+    public int getCircuitoMinimoChamadas() {
+        return circuitoMinimoChamadas;
+    }
+
+    /**
+     * Obtém o percentual de falhas na janela que abre o circuito
+     * 
+     * @return Percentual de falhas
+     */
+    public int getCircuitoTaxaFalhaPercentual() {
+        return circuitoTaxaFalhaPercentual;
+    }
+
+    /**
+     * Obtém por quanto tempo o circuito aberto recusa chamadas antes de testar o banco
+     * 
+     * @return Tempo em segundos
+     */
+    public int getCircuitoAbertoSegundos() {
+        return circuitoAbertoSegundos;
+    }
+
+    /**
+     * Obtém quantas chamadas de teste bem-sucedidas fecham o circuito meio aberto
+     * 
+     * @return Quantidade de chamadas de teste
+     */
+    public int getCircuitoChamadasTeste() {
+        return circuitoChamadasTeste;
+    }
+
+    /**
+     * Obtém o limite de chamadas simultâneas por endpoint do banco
+     * 
+     * @return Chamadas simultâneas
+     */
+    public int getCircuitoMaxConcorrentes() {
+        return circuitoMaxConcorrentes;
+    }
+
+    /**
+     * Obtém quanto tempo uma chamada aguarda vaga antes de ser recusada
+     * 
+     * @return Espera em milissegundos
+     */
+    public long getCircuitoEsperaVagaMs() {
+        return circuitoEsperaVagaMs;
+    }
+
+    /**
+     * Verifica se o limitador de taxa das chamadas ao banco está habilitado
+     * 
+     * @return true se habilitado
+     */
+    public boolean isLimiteHabilitado() {
+        return limiteHabilitado;
+    }
+
+    /**
+     * Obtém a taxa inicial do limitador de cada endpoint
+     * 
+     * @return Requisições por segundo
+     */
+    public double getLimiteTaxaInicial() {
+        return limiteTaxaInicial;
+    }
+
+    /**
+     * Obtém a menor taxa a que o limitador pode chegar após respostas 429
+     * 
+     * @return Requisições por segundo
+     */
+    public double getLimiteTaxaMinima() {
+        return limiteTaxaMinima;
+    }
+
+    /**
+     * Obtém a maior taxa a que o limitador pode chegar
+     * 
+     * @return Requisições por segundo
+     */
+    public double getLimiteTaxaMaxima() {
+        return limiteTaxaMaxima;
+    }
+
+    /**
+     * Obtém quantas requisições podem sair de uma vez após um período ocioso
+     * 
+     * @return Tamanho da rajada
+     */
+    public int getLimiteRajada() {
+        return limiteRajada;
+    }
+
+    /**
+     * Obtém o fator aplicado à taxa a cada resposta 429
+     * 
+     * @return Fator entre 0 e 1
+     */
+    public double getLimiteFatorReducao() {
+        return limiteFatorReducao;
+    }
+
+    /**
+     * Obtém o aumento da taxa por segundo de tráfego sem 429
+     * 
+     * @return Requisições por segundo
+     */
+    public double getLimiteIncremento() {
+        return limiteIncremento;
+    }
+
+    /**
+     * Obtém quanto tempo uma chamada pode aguardar na fila do limitador antes
+     * de ser recusada
+     * 
+     * @return Espera em milissegundos
+     */
+    public long getLimiteEsperaMaximaMs() {
+        return limiteEsperaMaximaMs;
+    }
+
+    /**
+     * Obtém quantas vezes uma requisição recusada com 429 é repetida
+     * 
+     * @return Número de repetições
+     */
+    public int getLimiteTentativas429() {
+        return limiteTentativas429;
+    }
+
+    /**
+     * Obtém o número máximo de tentativas do registro síncrono de uma cobrança
+     * 
+     * @return Número de tentativas, incluindo a primeira
+     */
+    public int getRetentativaMaxTentativas() {
+        return retentativaMaxTentativas;
+    }
+
+    /**
+     * Obtém o teto da primeira espera entre tentativas de registro
+     * 
+     * @return Espera em milissegundos
+     */
+    public long getRetentativaBackoffInicialMs() {
+        return retentativaBackoffInicialMs;
+    }
+
+    /**
+     * Obtém o teto máximo da espera entre tentativas de registro
+     * 
+     * @return Espera em milissegundos
+     */
+    public long getRetentativaBackoffMaximoMs() {
+        return retentativaBackoffMaximoMs;
+    }
+
+    /**
+     * Obtém quantas repetições são permitidas a cada 100 registros
+     * 
+     * @return Percentual de repetições
+     */
+    public int getRetentativaOrcamentoPercentual() {
+        return retentativaOrcamentoPercentual;
+    }
+
+    /**
+     * Obtém quantas repetições podem ser acumuladas no orçamento
+     * 
+     * @return Repetições acumuladas no máximo
+     */
+    public int getRetentativaOrcamentoMaximo() {
+        return retentativaOrcamentoMaximo;
+    }
+
+    /**
+     * Obtém por quanto tempo a resposta de um Idempotency-Key é guardada
+     * 
+     * @return Validade em horas
+     */
+    public int getIdempotenciaTtlHoras() {
+        return idempotenciaTtlHoras;
+    }
+
+    /**
+     * Obtém quantas respostas de Idempotency-Key ficam também em memória
+     * 
+     * @return Número máximo de entradas do cache
+     */
+    public int getIdempotenciaCacheMaxEntradas() {
+        return idempotenciaCacheMaxEntradas;
+    }
+
+    /**
+     * Obtém quanto tempo uma repetição aguarda a requisição original terminar
+     * antes de responder 409
+     * 
+     * @return Espera em milissegundos
+     */
+    public long getIdempotenciaEsperaMs() {
+        return idempotenciaEsperaMs;
+    }
+
+    /**
+     * Obtém após quanto tempo sem renovação uma reserva de Idempotency-Key não
+     * concluída é considerada abandonada
+     * 
+     * @return Tempo em segundos
+     */
+    public int getIdempotenciaReservaExpiraSegundos() {
+        return idempotenciaReservaExpiraSegundos;
+    }
+
+    /**
+     * Obtém com quanto tempo de antecedência o token deve ser renovado antes de expirar
+     * 
+     * @return Antecedência em segundos
+     */
+    public int getTokenRenovacaoAntecedenciaSegundos() {
+        return tokenRenovacaoAntecedenciaSegundos;
+    }
+
+    /**
+     * Obtém a variação aleatória máxima somada à antecedência de renovação
+     * 
+     * @return Jitter em segundos
+     */
+    public int getTokenRenovacaoJitterSegundos() {
+        return tokenRenovacaoJitterSegundos;
+    }
+
+    /**
+     * Obtém o número máximo de tentativas de renovação por execução
+     * 
+     * @return Número máximo de tentativas
+     */
+    public int getTokenRenovacaoMaxTentativas() {
+        return tokenRenovacaoMaxTentativas;
+    }
+
+    /**
+     * Obtém o intervalo inicial entre tentativas de renovação (dobra a cada falha)
+     * 
+     * @return Intervalo inicial em milissegundos
+     */
+    public long getTokenRenovacaoBackoffInicialMs() {
+        return tokenRenovacaoBackoffInicialMs;
+    }
+
+    /**
+     * Obtém o tempo máximo de espera na verificação de conectividade com o banco
+     * 
+     * @return Timeout em milissegundos
+     */
+    public int getHealthTimeoutMs() {
+        return healthTimeoutMs;
+    }
+
+    /**
+     * Obtém há quanto tempo uma cobrança deve estar PENDENTE para ser recuperada
+     * 
+     * @return Idade mínima em segundos
+     */
+    public int getRegistroRecuperacaoIdadeMinimaSegundos() {
+        return registroRecuperacaoIdadeMinimaSegundos;
+    }
+
+    /**
+     * Obtém o número máximo de cobranças pendentes recuperadas por execução
+     * 
+     * @return Tamanho do lote
+     */
+    public int getRegistroRecuperacaoLote() {
+        return registroRecuperacaoLote;
+    }
+
+    /**
+     * Obtém o número máximo de envios simultâneos da outbox ao banco
+     * 
+     * @return Número de envios simultâneos
+     */
+    public int getOutboxConcorrencia() {
+        return outboxConcorrencia;
+    }
+
+    /**
+     * Obtém o número máximo de entradas da outbox reservadas por ciclo
+     * 
+     * @return Tamanho do lote
+     */
+    public int getOutboxLote() {
+        return outboxLote;
+    }
+
+    /**
+     * Obtém o número máximo de tentativas de envio de uma entrada da outbox
+     * 
+     * @return Número máximo de tentativas
+     */
+    public int getOutboxMaxTentativas() {
+        return outboxMaxTentativas;
+    }
+
+    /**
+     * Obtém o intervalo inicial entre tentativas de envio (dobra a cada falha)
+     * 
+     * @return Intervalo inicial em segundos
+     */
+    public int getOutboxBackoffInicialSegundos() {
+        return outboxBackoffInicialSegundos;
+    }
+
+    /**
+     * Obtém o intervalo máximo entre tentativas de envio
+     * 
+     * @return Intervalo máximo em segundos
+     */
+    public int getOutboxBackoffMaximoSegundos() {
+        return outboxBackoffMaximoSegundos;
+    }
+
+    /**
+     * Obtém o número de entradas pendentes a partir do qual novas cobranças
+     * assíncronas são recusadas
+     * 
+     * @return Limite de entradas pendentes
+     */
+    public long getOutboxMaxPendentes() {
+        return outboxMaxPendentes;
+    }
+
+    /**
+     * Obtém o número máximo de cobranças aceitas em uma requisição de lote
+     * 
+     * @return Número máximo de itens
+     */
+    public int getLoteMaxItens() {
+        return loteMaxItens;
+    }
+
+    /**
+     * Obtém o número de cobranças de um lote gravadas por transação
+     * 
+     * @return Itens por transação
+     */
+    public int getLoteItensPorTransacao() {
+        return loteItensPorTransacao;
+    }
+
+    /**
+     * Indica se as cobranças com vencimento da outbox são enviadas em lote
+     * (lotecobv) em vez de uma requisição por cobrança
+     * 
+     * @return true se o envio em lote estiver habilitado
+     */
+    public boolean isLoteCobvHabilitado() {
+        return loteCobvHabilitado;
+    }
+
+    /**
+     * Obtém o número máximo de cobranças por lote lotecobv
+     * 
+     * @return Tamanho máximo do lote
+     */
+    public int getLoteCobvTamanho() {
+        return loteCobvTamanho;
+    }
+
+    /**
+     * Indica se a conciliação periódica com o banco está habilitada
+     * 
+     * @return true se a conciliação estiver habilitada
+     */
+    public boolean isConciliacaoHabilitada() {
+        return conciliacaoHabilitada;
+    }
+
+    /**
+     * Obtém quantas horas para trás a conciliação procura cobranças imediatas
+     * ativas
+     * 
+     * @return Janela de conciliação das cobranças imediatas em horas
+     */
+    public int getConciliacaoJanelaCobHoras() {
+        return conciliacaoJanelaCobHoras;
+    }
+
+    /**
+     * Obtém quantos dias para trás a conciliação procura cobranças com vencimento
+     * ativas
+     * 
+     * @return Janela de conciliação das cobranças com vencimento em dias
+     */
+    public int getConciliacaoJanelaCobvDias() {
+        return conciliacaoJanelaCobvDias;
+    }
+
+    /**
+     * Obtém o número de cobranças solicitadas por página na conciliação
+     * 
+     * @return Itens por página
+     */
+    public int getConciliacaoItensPorPagina() {
+        return conciliacaoItensPorPagina;
+    }
+
+    /**
+     * Obtém quantos pagamentos recebidos pelo webhook são gravados por transação
+     * 
+     * @return Pagamentos por transação
+     */
+    public int getWebhookItensPorTransacao() {
+        return webhookItensPorTransacao;
+    }
+
+    /**
+     * Obtém o número máximo de conexões SSE de acompanhamento de status por
+     * instância
+     * 
+     * @return Máximo de conexões SSE
+     */
+    public int getSseMaxConexoes() {
+        return sseMaxConexoes;
+    }
+
+    /**
+     * Obtém o total de bytes de imagens de QR Code mantidas em cache
+     * 
+     * @return Tamanho máximo do cache em bytes
+     */
+    public long getQrCodeCacheMaxBytes() {
+        return qrCodeCacheMaxBytes;
+    }
+
+    /**
+     * Obtém por quanto tempo o navegador pode reutilizar uma imagem de QR Code
+     * sem revalidá-la, limitado ao tempo que falta para a cobrança expirar
+     * 
+     * @return max-age máximo do Cache-Control em segundos
+     */
+    public int getQrCodeMaxAgeSegundos() {
+        return qrCodeMaxAgeSegundos;
+    }
+
+    /**
+     * Obtém por quanto tempo o status consultado no banco é reaproveitado por
+     * outras consultas do mesmo txid
+     * 
+     * @return Janela de reaproveitamento em milissegundos (0 desativa)
+     */
+    public long getStatusCoalescenciaJanelaMs() {
+        return statusCoalescenciaJanelaMs;
+    }
+
+    /**
+     * Obtém o número máximo de status recentes mantidos para reaproveitamento
+     * 
+     * @return Máximo de entradas
+     */
+    public int getStatusCoalescenciaMaxEntradas() {
+        return statusCoalescenciaMaxEntradas;
+    }
+
+    /**
+     * Obtém o nome do recebedor usado nos BR Codes montados localmente
+     * 
+     * @return Nome do recebedor
+     */
+    public String getRecebedorNome() {
+        return recebedorNome;
+    }
+
+    /**
+     * Obtém a cidade do recebedor usada nos BR Codes montados localmente
+     * 
+     * @return Cidade do recebedor
+     */
+    public String getRecebedorCidade() {
+        return recebedorCidade;
+    }
+
     /**
      * Obtém o ambiente configurado
      * 
@@ -0,0 +1,57 @@
+package org.acme.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.acme.model.Pix;
+
+/**
+ * Cursor de paginação por chave (keyset) sobre a ordenação criacao DESC, id DESC
+ *
+ * Trafega na API como um token opaco: "criacao|id" em Base64 URL-safe.
+ */
+public record CursorPaginacao(LocalDateTime criacao, Long id) {
+
+    /**
+     * Cria o cursor que aponta para depois da cobrança informada
+     *
+     * @param pix Última cobrança da página
+     * @return Cursor para a próxima página
+     */
+    public static CursorPaginacao de(Pix pix) {
+        return new CursorPaginacao(pix.getCriacao(), pix.getId());
+    }
+
+    /**
+     * Converte o token recebido na API em cursor
+     *
+     * @param token Token opaco ou null
+     * @return Cursor correspondente, ou null para a primeira página
+     * @throws IllegalArgumentException Se o token for inválido
+     */
+    public static CursorPaginacao decodificar(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.lastIndexOf('|');
+            return new CursorPaginacao(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+
+    /**
+     * Converte o cursor no token opaco devolvido na API
+     *
+     * @return Token do cursor
+     */
+    public String codificar() {
+        String valor = criacao + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
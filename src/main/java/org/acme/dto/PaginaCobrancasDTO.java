@@ -0,0 +1,14 @@
+package org.acme.dto;
+
+import java.util.List;
+
+import org.acme.model.Pix;
+
+/**
+ * Página de cobranças obtida por paginação por chave (keyset)
+ *
+ * @param cobrancas     Cobranças da página, ordenadas por criação (mais recentes primeiro)
+ * @param proximoCursor Cursor da próxima página, ou null se esta for a última
+ */
+public record PaginaCobrancasDTO(List<Pix> cobrancas, CursorPaginacao proximoCursor) {
+}
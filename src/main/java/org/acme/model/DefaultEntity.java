@@ -4,12 +4,17 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.SequenceGenerator;
 
 @MappedSuperclass
 public class DefaultEntity {
 
+    // SEQUENCE (com alocação em blocos) permite que o Hibernate agrupe os INSERTs em lotes JDBC. Uma única
+    // sequência para todas as entidades, com blocos do tamanho do lote JDBC
+    // (quarkus.hibernate-orm.jdbc.statement-batch-size): uma chamada à sequência a cada 100 INSERTs
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "default_entity_seq")
+    @SequenceGenerator(name = "default_entity_seq", sequenceName = "default_entity_seq", allocationSize = 100)
     private Long id;
 
     public Long getId() {
@@ -9,21 +9,38 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorColumn;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 /**
  * Classe base que representa uma cobrança Pix
  * Contém os atributos e comportamentos comuns a todos os tipos de cobranças Pix
  */
 @Entity
+@Table(name = "pix", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_pix_txid", columnNames = "txid")
+}, indexes = {
+        // Índices sobre colunas de PixComVencimento ficam aqui por ser uma tabela única. Colunas sem
+        // @Column(name) levam o nome do atributo (dataVencimento, situacaoRegistro...)
+        @Index(name = "idx_pix_status_vencimento", columnList = "status, dataVencimento"),
+        @Index(name = "idx_pix_vencimento", columnList = "dataVencimento"),
+        @Index(name = "idx_pix_status_expira", columnList = "status, expira_em"),
+        @Index(name = "idx_pix_tipo_criacao", columnList = "tipo_pix, criacao, id"),
+        @Index(name = "idx_pix_situacao_registro_criacao", columnList = "situacaoRegistro, criacao"),
+        @Index(name = "idx_pix_cpf", columnList = "cpf"),
+        @Index(name = "idx_pix_cnpj", columnList = "cnpj"),
+        @Index(name = "idx_pix_end_to_end_id", columnList = "endToEndId")
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "tipo_pix")
 public abstract class Pix extends DefaultEntity {
 
     // Identificação da cobrança
-    @Column(name = "txid")
+    @Column(name = "txid", nullable = false, length = 35)
     private String txid; // ID da transação, 26-35 caracteres
     private int revisao; // Revisão da cobrança
 
@@ -58,6 +75,7 @@ public abstract class Pix extends DefaultEntity {
 
     // Status da cobrança
     private String status; // ATIVA, CONCLUIDA, REMOVIDA_PELO_USUARIO_RECEBEDOR, REMOVIDA_PELO_PSP
+    private String situacaoRegistro; // PENDENTE, REGISTRADA, FALHA (registro da cobrança no banco)
 
     // Dados para Pix Saque ou Pix Troco
     private boolean isRetirada; // true se for Pix Saque ou Pix Troco
@@ -190,6 +208,13 @@ public abstract class Pix extends DefaultEntity {
      */
     public abstract boolean isCobvTipo();
 
+    /**
+     * Obtém até quando a cobrança pode ser paga
+     * 
+     * @return Data/hora limite para pagamento, ou null se não houver
+     */
+    public abstract LocalDateTime getPagavelAte();
+
     /**
      * Registra o pagamento de uma cobrança
      * 
@@ -223,6 +248,15 @@ public abstract class Pix extends DefaultEntity {
         return "CONCLUIDA".equals(this.status);
     }
 
+    /**
+     * Verifica se a cobrança ainda aguarda confirmação do registro no banco
+     * 
+     * @return true se o registro estiver pendente, false caso contrário
+     */
+    public boolean isRegistroPendente() {
+        return "PENDENTE".equals(this.situacaoRegistro);
+    }
+
     /**
      * Cancela a cobrança, marcando-a como removida pelo usuário recebedor
      */
@@ -772,6 +806,24 @@ public abstract class Pix extends DefaultEntity {
         this.infoAdicionais = infoAdicionais;
     }
 
+    /**
+     * Obtém a situação do registro da cobrança no banco
+     * 
+     * @return Situação do registro (PENDENTE, REGISTRADA ou FALHA)
+     */
+    public String getSituacaoRegistro() {
+        return situacaoRegistro;
+    }
+
+    /**
+     * Define a situação do registro da cobrança no banco
+     * 
+     * @param situacaoRegistro Situação do registro a ser definida
+     */
+    public void setSituacaoRegistro(String situacaoRegistro) {
+        this.situacaoRegistro = situacaoRegistro;
+    }
+
     /**
      * Obtém o QR Code em formato texto para Copia e Cola
      * 
@@ -2,6 +2,7 @@ package org.acme.model;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
@@ -84,6 +85,16 @@ public class PixComVencimento extends Pix {
     public boolean isCobvTipo() {
         return true; // É cobrança com vencimento
     }
+
+    @Override
+    public LocalDateTime getPagavelAte() {
+        if (dataVencimento == null) {
+            return null;
+        }
+        // Pode ser paga até o fim do último dia de validade após o vencimento
+        int validade = validadeAposVencimento != null ? validadeAposVencimento : 0;
+        return dataVencimento.plusDays(validade + 1L).atStartOfDay();
+    }
     
     /**
      * Configura os dados de multa para a cobrança
@@ -0,0 +1,119 @@
+package org.acme.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Resultado de uma criação de cobrança identificada pelo cabeçalho
+ * Idempotency-Key
+ * A chave é a própria identidade da linha, de modo que a reserva pode ser feita
+ * com um único INSERT ... ON CONFLICT
+ */
+@Entity
+@Table(name = "pix_idempotencia", indexes = {
+        @Index(name = "idx_pix_idempotencia_expira_em", columnList = "expira_em")
+})
+public class PixIdempotencia {
+
+    @Id
+    @Column(name = "chave", length = 255)
+    private String chave;
+
+    @Column(name = "hash_requisicao", nullable = false, length = 64)
+    private String hashRequisicao; // SHA-256 da requisição original
+
+    @Column(name = "situacao", nullable = false, length = 12)
+    private String situacao; // PROCESSANDO, CONCLUIDA
+
+    @Column(name = "status_http")
+    private Integer statusHttp;
+
+    @Column(name = "resposta", columnDefinition = "text")
+    private String resposta;
+
+    @Column(name = "localizacao", length = 255)
+    private String localizacao;
+
+    @Column(name = "criacao", nullable = false)
+    private LocalDateTime criacao;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    /**
+     * Construtor padrão
+     */
+    public PixIdempotencia() {
+    }
+
+    // Getters e Setters
+
+    public String getChave() {
+        return chave;
+    }
+
+    public void setChave(String chave) {
+        this.chave = chave;
+    }
+
+    public String getHashRequisicao() {
+        return hashRequisicao;
+    }
+
+    public void setHashRequisicao(String hashRequisicao) {
+        this.hashRequisicao = hashRequisicao;
+    }
+
+    public String getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(String situacao) {
+        this.situacao = situacao;
+    }
+
+    public Integer getStatusHttp() {
+        return statusHttp;
+    }
+
+    public void setStatusHttp(Integer statusHttp) {
+        this.statusHttp = statusHttp;
+    }
+
+    public String getResposta() {
+        return resposta;
+    }
+
+    public void setResposta(String resposta) {
+        this.resposta = resposta;
+    }
+
+    public String getLocalizacao() {
+        return localizacao;
+    }
+
+    public void setLocalizacao(String localizacao) {
+        this.localizacao = localizacao;
+    }
+
+    public LocalDateTime getCriacao() {
+        return criacao;
+    }
+
+    public void setCriacao(LocalDateTime criacao) {
+        this.criacao = criacao;
+    }
+
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(LocalDateTime expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+}
@@ -1,9 +1,13 @@
 package org.acme.model;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 
 /**
  * Classe que representa uma cobrança Pix imediata (cob)
@@ -14,6 +18,9 @@ public class PixImediato extends Pix {
     
     // Dados específicos da cobrança imediata
     private Integer expiracao; // Tempo de vida da cobrança em segundos
+
+    @Column(name = "expira_em")
+    private LocalDateTime expiraEm; // criacao + expiracao, gravado para permitir filtro indexado
     
     /**
      * Construtor padrão
@@ -81,6 +88,28 @@ public class PixImediato extends Pix {
     public boolean isCobvTipo() {
         return false; // Não é cobrança com vencimento
     }
+
+    @Override
+    public LocalDateTime getPagavelAte() {
+        if (expiraEm != null) {
+            return expiraEm;
+        }
+        return getCriacao() != null && expiracao != null ? getCriacao().plusSeconds(expiracao) : null;
+    }
+
+    /**
+     * Recalcula a data/hora de expiração antes de gravar, já que a criação e a
+     * expiração podem ser alteradas pelos dados retornados pelo banco
+     */
+    @PrePersist
+    @PreUpdate
+    void calcularExpiraEm() {
+        if (getCriacao() != null && expiracao != null) {
+            this.expiraEm = getCriacao().plusSeconds(expiracao);
+        } else {
+            this.expiraEm = null;
+        }
+    }
     
     // Getters e Setters específicos
     
@@ -91,4 +120,8 @@ public class PixImediato extends Pix {
     public void setExpiracao(Integer expiracao) {
         this.expiracao = expiracao;
     }
+
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
 }
\ No newline at end of file
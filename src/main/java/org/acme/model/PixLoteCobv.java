@@ -0,0 +1,102 @@
+package org.acme.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Lote de cobranças com vencimento enviado à API lotecobv do Banco do Brasil
+ * O ID da entidade é o ID do lote usado em /lotecobv/{id}
+ */
+@Entity
+@Table(name = "pix_lote_cobv", indexes = {
+        @Index(name = "idx_pix_lote_cobv_situacao", columnList = "situacao")
+})
+public class PixLoteCobv extends DefaultEntity {
+
+    private String descricao;
+
+    @Column(name = "situacao", nullable = false, length = 12)
+    private String situacao; // ENVIADO, CONCLUIDO, FALHA
+
+    private int quantidade;
+
+    private LocalDateTime criacao;
+
+    @Column(name = "consultado_em")
+    private LocalDateTime consultadoEm;
+
+    @Column(name = "ultimo_erro", length = 1000)
+    private String ultimoErro;
+
+    /**
+     * Construtor padrão
+     */
+    public PixLoteCobv() {
+    }
+
+    /**
+     * Cria um lote com a quantidade de cobranças informada
+     *
+     * @param quantidade Número de cobranças do lote
+     */
+    public PixLoteCobv(int quantidade) {
+        this.quantidade = quantidade;
+        this.situacao = "ENVIADO";
+        this.criacao = LocalDateTime.now();
+        this.descricao = "Lote de " + quantidade + " cobranças com vencimento";
+    }
+
+    // Getters e Setters
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(String situacao) {
+        this.situacao = situacao;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public LocalDateTime getCriacao() {
+        return criacao;
+    }
+
+    public void setCriacao(LocalDateTime criacao) {
+        this.criacao = criacao;
+    }
+
+    public LocalDateTime getConsultadoEm() {
+        return consultadoEm;
+    }
+
+    public void setConsultadoEm(LocalDateTime consultadoEm) {
+        this.consultadoEm = consultadoEm;
+    }
+
+    public String getUltimoErro() {
+        return ultimoErro;
+    }
+
+    public void setUltimoErro(String ultimoErro) {
+        this.ultimoErro = ultimoErro;
+    }
+}
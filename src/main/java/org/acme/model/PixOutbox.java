@@ -0,0 +1,140 @@
+package org.acme.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Entrada da fila (outbox) de cobranças a registrar no Banco do Brasil
+ * Gravada na mesma transação da cobrança e consumida pelo OutboxProcessor
+ */
+@Entity
+@Table(name = "pix_outbox", indexes = {
+        @Index(name = "idx_pix_outbox_situacao_proxima", columnList = "situacao, proxima_tentativa"),
+        @Index(name = "idx_pix_outbox_txid", columnList = "txid"),
+        @Index(name = "idx_pix_outbox_lote_cobv", columnList = "id_lote_cobv")
+})
+public class PixOutbox extends DefaultEntity {
+
+    @Column(name = "txid", nullable = false, length = 35)
+    private String txid;
+
+    @Column(name = "tipo_cob", nullable = false, length = 4)
+    private String tipoCob; // cob ou cobv
+
+    @Column(name = "situacao", nullable = false, length = 12)
+    private String situacao; // PENDENTE, PROCESSANDO, EM_LOTE, CONCLUIDA, FALHA
+
+    private int tentativas;
+
+    @Column(name = "proxima_tentativa", nullable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "reservado_em")
+    private LocalDateTime reservadoEm;
+
+    private LocalDateTime criacao;
+
+    @Column(name = "ultimo_erro", length = 1000)
+    private String ultimoErro;
+
+    @Column(name = "id_lote_cobv")
+    private Long idLoteCobv; // Lote lotecobv em que a cobrança foi enviada
+
+    /**
+     * Construtor padrão
+     */
+    public PixOutbox() {
+    }
+
+    /**
+     * Cria uma entrada pendente para a cobrança informada
+     *
+     * @param pix Cobrança a ser registrada no banco
+     */
+    public PixOutbox(Pix pix) {
+        this.txid = pix.getTxid();
+        this.tipoCob = pix.isCobvTipo() ? "cobv" : "cob";
+        this.situacao = "PENDENTE";
+        this.tentativas = 0;
+        this.criacao = LocalDateTime.now();
+        this.proximaTentativa = this.criacao;
+    }
+
+    // Getters e Setters
+
+    public String getTxid() {
+        return txid;
+    }
+
+    public void setTxid(String txid) {
+        this.txid = txid;
+    }
+
+    public String getTipoCob() {
+        return tipoCob;
+    }
+
+    public void setTipoCob(String tipoCob) {
+        this.tipoCob = tipoCob;
+    }
+
+    public String getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(String situacao) {
+        this.situacao = situacao;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(int tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public LocalDateTime getProximaTentativa() {
+        return proximaTentativa;
+    }
+
+    public void setProximaTentativa(LocalDateTime proximaTentativa) {
+        this.proximaTentativa = proximaTentativa;
+    }
+
+    public LocalDateTime getReservadoEm() {
+        return reservadoEm;
+    }
+
+    public void setReservadoEm(LocalDateTime reservadoEm) {
+        this.reservadoEm = reservadoEm;
+    }
+
+    public LocalDateTime getCriacao() {
+        return criacao;
+    }
+
+    public void setCriacao(LocalDateTime criacao) {
+        this.criacao = criacao;
+    }
+
+    public String getUltimoErro() {
+        return ultimoErro;
+    }
+
+    public void setUltimoErro(String ultimoErro) {
+        this.ultimoErro = ultimoErro;
+    }
+
+    public Long getIdLoteCobv() {
+        return idLoteCobv;
+    }
+
+    public void setIdLoteCobv(Long idLoteCobv) {
+        this.idLoteCobv = idLoteCobv;
+    }
+}
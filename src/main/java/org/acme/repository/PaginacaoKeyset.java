@@ -0,0 +1,52 @@
+package org.acme.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.acme.dto.CursorPaginacao;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+
+/**
+ * Consultas paginadas por chave (criacao, id), em vez de OFFSET, para que o
+ * custo de cada página não cresça com a profundidade
+ */
+final class PaginacaoKeyset {
+
+    private PaginacaoKeyset() {
+    }
+
+    /**
+     * Executa a consulta a partir do cursor, ordenada por criacao DESC, id DESC.
+     * Busca um registro além do limite para que o chamador saiba se há próxima página.
+     *
+     * @param repositorio Repositório da entidade
+     * @param filtro      Filtro HQL com parâmetros posicionais ?1..?n, ou null
+     * @param cursor      Cursor da página anterior, ou null para a primeira página
+     * @param limite      Tamanho da página
+     * @param parametros  Valores dos parâmetros do filtro
+     * @return Até limite + 1 registros
+     */
+    static <T> List<T> buscar(PanacheRepository<T> repositorio, String filtro, CursorPaginacao cursor,
+            int limite, Object... parametros) {
+        List<Object> valores = new ArrayList<>(Arrays.asList(parametros));
+        StringBuilder query = new StringBuilder(filtro != null ? filtro : "");
+
+        if (cursor != null) {
+            if (query.length() > 0) {
+                query.append(" AND ");
+            }
+            query.append("(criacao, id) < (?").append(valores.size() + 1)
+                    .append(", ?").append(valores.size() + 2).append(")");
+            valores.add(cursor.criacao());
+            valores.add(cursor.id());
+        }
+
+        query.append(query.length() > 0 ? " " : "").append("ORDER BY criacao DESC, id DESC");
+
+        return repositorio.find(query.toString(), valores.toArray())
+                .page(0, limite + 1)
+                .list();
+    }
+}
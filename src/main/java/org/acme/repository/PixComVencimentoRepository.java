@@ -1,8 +1,11 @@
 package org.acme.repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.acme.dto.CursorPaginacao;
 import org.acme.model.PixComVencimento;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
@@ -11,6 +14,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class PixComVencimentoRepository implements PanacheRepository<PixComVencimento> {
 
+    // Linhas buscadas por ida ao banco ao percorrer resultados grandes
+    private static final int TAMANHO_LOTE_STREAM = 500;
+
     /**
      * Busca uma cobrança Pix com vencimento pelo TxID
      * 
@@ -21,6 +27,16 @@ public class PixComVencimentoRepository implements PanacheRepository<PixComVenci
         return find("txid", txid).firstResult();
     }
 
+    /**
+     * Busca as cobranças com vencimento dos TxIDs informados em uma única consulta
+     * 
+     * @param txids IDs das transações
+     * @return Cobranças encontradas
+     */
+    public List<PixComVencimento> listarPorTxIds(List<String> txids) {
+        return list("txid IN ?1", txids);
+    }
+
     /**
      * Lista cobranças com vencimento por data
      * 
@@ -98,6 +114,79 @@ public class PixComVencimentoRepository implements PanacheRepository<PixComVenci
                 .list();
     }
 
+    /**
+     * Lista uma página de cobranças com vencimento, mais recentes primeiro
+     * 
+     * @param cursor Cursor da página anterior, ou null para a primeira página
+     * @param limite Tamanho da página
+     * @return Até limite + 1 cobranças (o excedente indica que há próxima página)
+     */
+    public List<PixComVencimento> listarRecentes(CursorPaginacao cursor, int limite) {
+        return PaginacaoKeyset.buscar(this, null, cursor, limite);
+    }
+
+    /**
+     * Lista uma página de cobranças com vencimento entre as datas especificadas,
+     * mais recentes primeiro
+     * 
+     * @param dataInicio Data inicial para filtro
+     * @param dataFim    Data final para filtro
+     * @param cursor     Cursor da página anterior, ou null para a primeira página
+     * @param limite     Tamanho da página
+     * @return Até limite + 1 cobranças (o excedente indica que há próxima página)
+     */
+    public List<PixComVencimento> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim, CursorPaginacao cursor,
+            int limite) {
+        return PaginacaoKeyset.buscar(this, "dataVencimento >= ?1 AND dataVencimento <= ?2", cursor, limite,
+                dataInicio, dataFim);
+    }
+
+    /**
+     * Lista uma página de cobranças vencidas e não pagas, mais recentes primeiro
+     * 
+     * @param dataReferencia Data de referência (geralmente data atual)
+     * @param cursor         Cursor da página anterior, ou null para a primeira página
+     * @param limite         Tamanho da página
+     * @return Até limite + 1 cobranças (o excedente indica que há próxima página)
+     */
+    public List<PixComVencimento> listarVencidasNaoPagas(LocalDate dataReferencia, CursorPaginacao cursor,
+            int limite) {
+        return PaginacaoKeyset.buscar(this, "dataVencimento < ?1 AND status = 'ATIVA'", cursor, limite,
+                dataReferencia);
+    }
+
+    /**
+     * Percorre as cobranças com vencimento entre as datas especificadas, sem
+     * carregar o resultado inteiro em memória. Deve ser consumido dentro de uma
+     * transação e fechado ao final.
+     * 
+     * @param dataInicio Data inicial para filtro
+     * @param dataFim    Data final para filtro
+     * @return Stream ordenado por criacao DESC, id DESC
+     */
+    public Stream<PixComVencimento> streamPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return find("dataVencimento >= ?1 AND dataVencimento <= ?2 ORDER BY criacao DESC, id DESC",
+                dataInicio, dataFim)
+                .withHint("org.hibernate.fetchSize", TAMANHO_LOTE_STREAM)
+                .withHint("org.hibernate.readOnly", true)
+                .stream();
+    }
+
+    /**
+     * Percorre as cobranças vencidas e não pagas, sem carregar o resultado
+     * inteiro em memória. Deve ser consumido dentro de uma transação e fechado ao
+     * final.
+     * 
+     * @param dataReferencia Data de referência (geralmente data atual)
+     * @return Stream ordenado por criacao DESC, id DESC
+     */
+    public Stream<PixComVencimento> streamVencidasNaoPagas(LocalDate dataReferencia) {
+        return find("dataVencimento < ?1 AND status = 'ATIVA' ORDER BY criacao DESC, id DESC", dataReferencia)
+                .withHint("org.hibernate.fetchSize", TAMANHO_LOTE_STREAM)
+                .withHint("org.hibernate.readOnly", true)
+                .stream();
+    }
+
     /**
      * Obtém o último ID registrado
      * 
@@ -218,4 +307,32 @@ public class PixComVencimentoRepository implements PanacheRepository<PixComVenci
     public long contarPorStatusEPeriodo(LocalDate dataInicio, LocalDate dataFim, String status) {
         return count("dataVencimento BETWEEN ?1 AND ?2 AND status = ?3", dataInicio, dataFim, status);
     }
+
+    /**
+     * Obtém a data de criação da cobrança ativa mais antiga a partir de um limite,
+     * usada para restringir a janela consultada na conciliação com o banco
+     * 
+     * @param desde Data/hora mínima de criação
+     * @return Criação da cobrança ativa mais antiga ou null se não houver
+     */
+    public LocalDateTime buscarCriacaoAtivaMaisAntiga(LocalDateTime desde) {
+        PixComVencimento pix = find("status = 'ATIVA' AND criacao >= ?1 ORDER BY criacao", desde).firstResult();
+        return pix != null ? pix.getCriacao() : null;
+    }
+
+    /**
+     * Lista cobranças cujo registro no banco ficou pendente há mais tempo que o limite
+     * 
+     * @param criadasAntesDe Considera apenas cobranças criadas antes desta data/hora
+     * @param limite         Número máximo de registros
+     * @return Lista de cobranças com registro pendente
+     */
+    public List<PixComVencimento> listarRegistroPendente(LocalDateTime criadasAntesDe, int limite) {
+        // Cobranças com entrada ativa na outbox são tratadas pelo OutboxProcessor
+        return find("situacaoRegistro = 'PENDENTE' AND criacao < ?1 AND txid NOT IN "
+                + "(SELECT o.txid FROM PixOutbox o WHERE o.situacao IN ('PENDENTE', 'PROCESSANDO', 'EM_LOTE')) "
+                + "ORDER BY criacao", criadasAntesDe)
+                .page(0, limite)
+                .list();
+    }
 }
@@ -0,0 +1,91 @@
+package org.acme.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.model.PixIdempotencia;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class PixIdempotenciaRepository implements PanacheRepositoryBase<PixIdempotencia, String> {
+
+    /**
+     * Reserva a chave para esta requisição em um único comando. Uma chave já
+     * existente só é retomada se tiver expirado ou se a reserva anterior tiver
+     * sido abandonada (processo caiu antes de concluir).
+     *
+     * @param chave             Valor do Idempotency-Key
+     * @param hashRequisicao    Hash da requisição
+     * @param agora             Data/hora atual
+     * @param expiraEm          Validade do resultado
+     * @param reservaExpiradaEm Reservas PROCESSANDO criadas antes desta data são retomadas
+     * @return true se a chave foi reservada para esta requisição
+     */
+    public boolean reservar(String chave, String hashRequisicao, LocalDateTime agora, LocalDateTime expiraEm,
+            LocalDateTime reservaExpiradaEm) {
+        int linhas = getEntityManager().createNativeQuery(
+                "INSERT INTO pix_idempotencia (chave, hash_requisicao, situacao, criacao, expira_em) "
+                        + "VALUES (?1, ?2, 'PROCESSANDO', ?3, ?4) "
+                        + "ON CONFLICT (chave) DO UPDATE SET hash_requisicao = EXCLUDED.hash_requisicao, "
+                        + "situacao = 'PROCESSANDO', status_http = NULL, resposta = NULL, localizacao = NULL, "
+                        + "criacao = EXCLUDED.criacao, expira_em = EXCLUDED.expira_em "
+                        + "WHERE pix_idempotencia.expira_em < ?3 "
+                        + "OR (pix_idempotencia.situacao = 'PROCESSANDO' AND pix_idempotencia.criacao < ?5)")
+                .setParameter(1, chave)
+                .setParameter(2, hashRequisicao)
+                .setParameter(3, agora)
+                .setParameter(4, expiraEm)
+                .setParameter(5, reservaExpiradaEm)
+                .executeUpdate();
+        return linhas == 1;
+    }
+
+    /**
+     * Grava o resultado da requisição que detém a reserva
+     *
+     * @param chave       Valor do Idempotency-Key
+     * @param statusHttp  Código HTTP da resposta
+     * @param resposta    Corpo da resposta
+     * @param localizacao Cabeçalho Location ou null
+     * @return Quantidade de linhas atualizadas
+     */
+    public int concluir(String chave, int statusHttp, String resposta, String localizacao) {
+        return update("situacao = 'CONCLUIDA', statusHttp = ?2, resposta = ?3, localizacao = ?4 "
+                + "WHERE chave = ?1 AND situacao = 'PROCESSANDO'", chave, statusHttp, resposta, localizacao);
+    }
+
+    /**
+     * Renova as reservas ainda em andamento, adiando o momento em que seriam
+     * consideradas abandonadas
+     *
+     * @param chaves Valores de Idempotency-Key reservados por esta instância
+     * @param agora  Data/hora atual
+     * @return Quantidade de linhas atualizadas
+     */
+    public int renovarReservas(List<String> chaves, LocalDateTime agora) {
+        return update("criacao = ?2 WHERE chave IN ?1 AND situacao = 'PROCESSANDO'", chaves, agora);
+    }
+
+    /**
+     * Libera uma reserva cuja requisição falhou de forma transitória, para que
+     * a próxima repetição seja processada
+     *
+     * @param chave Valor do Idempotency-Key
+     * @return Quantidade de linhas removidas
+     */
+    public long liberar(String chave) {
+        return delete("chave = ?1 AND situacao = 'PROCESSANDO'", chave);
+    }
+
+    /**
+     * Remove os resultados expirados
+     *
+     * @param agora Data/hora atual
+     * @return Quantidade de linhas removidas
+     */
+    public long removerExpiradas(LocalDateTime agora) {
+        return delete("expiraEm < ?1", agora);
+    }
+}
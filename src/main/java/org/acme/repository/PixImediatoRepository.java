@@ -3,8 +3,9 @@ package org.acme.repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.acme.dto.CursorPaginacao;
 import org.acme.model.PixImediato;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
@@ -13,6 +14,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class PixImediatoRepository implements PanacheRepository<PixImediato> {
 
+    // Linhas buscadas por ida ao banco ao percorrer resultados grandes
+    private static final int TAMANHO_LOTE_STREAM = 500;
+
     /**
      * Busca um PixImediato pelo TxID
      * 
@@ -39,29 +43,86 @@ public class PixImediatoRepository implements PanacheRepository<PixImediato> {
     }
 
     /**
-     * Lista cobranças imediatas que expiram entre as datas especificadas
+     * Lista cobranças imediatas ativas que expiram entre as datas especificadas
      * 
      * @param dataInicio Data inicial para filtro de expiração
-     * @param dataFim    Data final para filtro de expiração
+     * @param dataFim    Data final para filtro de expiração (inclusiva)
      * @return Lista de cobranças que expiram entre as datas especificadas
      */
+    public List<PixImediato> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return list("status = 'ATIVA' AND expiraEm >= ?1 AND expiraEm < ?2",
+                dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay());
+    }
+
     /**
-     * Lista cobranças imediatas que expiram entre as datas especificadas
+     * Lista uma página de cobranças imediatas, mais recentes primeiro
+     * 
+     * @param cursor Cursor da página anterior, ou null para a primeira página
+     * @param limite Tamanho da página
+     * @return Até limite + 1 cobranças (o excedente indica que há próxima página)
      */
-    public List<PixImediato> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        // Busca todas as cobranças ativas
-        List<PixImediato> todasCobrancas = list("status = 'ATIVA'");
+    public List<PixImediato> listarRecentes(CursorPaginacao cursor, int limite) {
+        return PaginacaoKeyset.buscar(this, null, cursor, limite);
+    }
+
+    /**
+     * Lista uma página de cobranças imediatas ativas que expiram entre as datas
+     * especificadas, mais recentes primeiro
+     * 
+     * @param dataInicio Data inicial para filtro de expiração
+     * @param dataFim    Data final para filtro de expiração (inclusiva)
+     * @param cursor     Cursor da página anterior, ou null para a primeira página
+     * @param limite     Tamanho da página
+     * @return Até limite + 1 cobranças (o excedente indica que há próxima página)
+     */
+    public List<PixImediato> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim, CursorPaginacao cursor,
+            int limite) {
+        return PaginacaoKeyset.buscar(this, "status = 'ATIVA' AND expiraEm >= ?1 AND expiraEm < ?2", cursor, limite,
+                dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay());
+    }
 
-        return todasCobrancas.stream()
-                .filter(pix -> {
-                    // Calcula quando a cobrança expira
-                    LocalDateTime dataExpiracao = pix.getCriacao().plusSeconds(pix.getExpiracao());
-                    LocalDate dataExpiracaoDate = dataExpiracao.toLocalDate();
+    /**
+     * Percorre as cobranças imediatas ativas que expiram entre as datas
+     * especificadas, sem carregar o resultado inteiro em memória. Deve ser
+     * consumido dentro de uma transação e fechado ao final.
+     * 
+     * @param dataInicio Data inicial para filtro de expiração
+     * @param dataFim    Data final para filtro de expiração (inclusiva)
+     * @return Stream ordenado por criacao DESC, id DESC
+     */
+    public Stream<PixImediato> streamPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return find("status = 'ATIVA' AND expiraEm >= ?1 AND expiraEm < ?2 ORDER BY criacao DESC, id DESC",
+                dataInicio.atStartOfDay(), dataFim.plusDays(1).atStartOfDay())
+                .withHint("org.hibernate.fetchSize", TAMANHO_LOTE_STREAM)
+                .withHint("org.hibernate.readOnly", true)
+                .stream();
+    }
 
-                    // Verifica se a data de expiração está no intervalo
-                    return !dataExpiracaoDate.isBefore(dataInicio) &&
-                            !dataExpiracaoDate.isAfter(dataFim);
-                })
-                .collect(Collectors.toList());
+    /**
+     * Obtém a data de criação da cobrança ativa mais antiga a partir de um limite,
+     * usada para restringir a janela consultada na conciliação com o banco
+     * 
+     * @param desde Data/hora mínima de criação
+     * @return Criação da cobrança ativa mais antiga ou null se não houver
+     */
+    public LocalDateTime buscarCriacaoAtivaMaisAntiga(LocalDateTime desde) {
+        PixImediato pix = find("status = 'ATIVA' AND criacao >= ?1 ORDER BY criacao", desde).firstResult();
+        return pix != null ? pix.getCriacao() : null;
+    }
+
+    /**
+     * Lista cobranças cujo registro no banco ficou pendente há mais tempo que o limite
+     * 
+     * @param criadasAntesDe Considera apenas cobranças criadas antes desta data/hora
+     * @param limite         Número máximo de registros
+     * @return Lista de cobranças com registro pendente
+     */
+    public List<PixImediato> listarRegistroPendente(LocalDateTime criadasAntesDe, int limite) {
+        // Cobranças com entrada ativa na outbox são tratadas pelo OutboxProcessor
+        return find("situacaoRegistro = 'PENDENTE' AND criacao < ?1 AND txid NOT IN "
+                + "(SELECT o.txid FROM PixOutbox o WHERE o.situacao IN ('PENDENTE', 'PROCESSANDO', 'EM_LOTE')) "
+                + "ORDER BY criacao", criadasAntesDe)
+                .page(0, limite)
+                .list();
     }
 }
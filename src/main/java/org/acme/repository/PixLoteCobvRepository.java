@@ -0,0 +1,24 @@
+package org.acme.repository;
+
+import java.util.List;
+
+import org.acme.model.PixLoteCobv;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class PixLoteCobvRepository implements PanacheRepository<PixLoteCobv> {
+
+    /**
+     * Lista os lotes enviados que ainda aguardam o resultado do banco
+     *
+     * @param limite Número máximo de lotes
+     * @return Lotes com situação ENVIADO, mais antigos primeiro
+     */
+    public List<PixLoteCobv> listarEnviados(int limite) {
+        return find("situacao = 'ENVIADO' ORDER BY criacao")
+                .page(0, limite)
+                .list();
+    }
+}
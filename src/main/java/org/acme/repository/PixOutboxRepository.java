@@ -0,0 +1,95 @@
+package org.acme.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.model.PixOutbox;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+
+@ApplicationScoped
+public class PixOutboxRepository implements PanacheRepository<PixOutbox> {
+
+    // Equivalente a SKIP LOCKED no Hibernate: ignora linhas já reservadas por outra instância
+    private static final int LOCK_TIMEOUT_SKIP_LOCKED = -2;
+
+    /**
+     * Busca entradas prontas para envio e as bloqueia para esta transação
+     * Também recupera entradas PROCESSANDO abandonadas (queda durante o envio)
+     *
+     * @param agora             Data/hora atual
+     * @param reservaExpiradaEm Entradas PROCESSANDO reservadas antes desta data são retomadas
+     * @param limite            Número máximo de entradas
+     * @param incluirCobv       false quando as cobranças com vencimento são enviadas em lote (lotecobv)
+     * @return Entradas bloqueadas para processamento
+     */
+    public List<PixOutbox> buscarProntasParaEnvio(LocalDateTime agora, LocalDateTime reservaExpiradaEm, int limite,
+            boolean incluirCobv) {
+        String filtroTipo = incluirCobv ? "" : "tipoCob <> 'cobv' AND ";
+        return find(filtroTipo + "((situacao = 'PENDENTE' AND proximaTentativa <= ?1) "
+                + "OR (situacao = 'PROCESSANDO' AND reservadoEm < ?2)) ORDER BY proximaTentativa",
+                agora, reservaExpiradaEm)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", LOCK_TIMEOUT_SKIP_LOCKED)
+                .page(0, limite)
+                .list();
+    }
+
+    /**
+     * Busca cobranças com vencimento prontas para envio em lote (lotecobv) e as
+     * bloqueia para esta transação
+     *
+     * @param agora  Data/hora atual
+     * @param limite Tamanho máximo do lote
+     * @return Entradas bloqueadas para compor o lote
+     */
+    public List<PixOutbox> buscarCobvParaLote(LocalDateTime agora, int limite) {
+        return find("tipoCob = 'cobv' AND situacao = 'PENDENTE' AND proximaTentativa <= ?1 ORDER BY proximaTentativa",
+                agora)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .withHint("jakarta.persistence.lock.timeout", LOCK_TIMEOUT_SKIP_LOCKED)
+                .page(0, limite)
+                .list();
+    }
+
+    /**
+     * Lista as entradas ainda aguardando o resultado de um lote
+     *
+     * @param idLoteCobv ID do lote
+     * @return Entradas com situação EM_LOTE
+     */
+    public List<PixOutbox> listarEmLote(Long idLoteCobv) {
+        return list("idLoteCobv = ?1 AND situacao = 'EM_LOTE'", idLoteCobv);
+    }
+
+    /**
+     * Busca a entrada ativa (não concluída) de uma cobrança
+     *
+     * @param txid ID da transação
+     * @return Entrada da outbox ou null se não houver
+     */
+    public PixOutbox findAtivaByTxId(String txid) {
+        return find("txid = ?1 AND situacao IN ('PENDENTE', 'PROCESSANDO', 'EM_LOTE')", txid).firstResult();
+    }
+
+    /**
+     * Conta as entradas que ainda aguardam envio ao banco
+     *
+     * @return Quantidade de entradas pendentes, em processamento ou em lote
+     */
+    public long contarPendentes() {
+        return count("situacao IN ('PENDENTE', 'PROCESSANDO', 'EM_LOTE')");
+    }
+
+    /**
+     * Remove entradas concluídas antes da data informada
+     *
+     * @param antesDe Data/hora limite
+     * @return Número de entradas removidas
+     */
+    public long removerConcluidas(LocalDateTime antesDe) {
+        return delete("situacao = 'CONCLUIDA' AND criacao < ?1", antesDe);
+    }
+}
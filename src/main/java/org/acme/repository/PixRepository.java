@@ -0,0 +1,68 @@
+package org.acme.repository;
+
+import java.util.List;
+
+import org.acme.model.Pix;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Repositório polimórfico da hierarquia Pix (tabela única), para consultas que
+ * não conhecem o tipo da cobrança de antemão
+ */
+@ApplicationScoped
+public class PixRepository implements PanacheRepository<Pix> {
+
+    /**
+     * Busca uma cobrança pelo TxID em uma única consulta, retornando o subtipo
+     * correto (PixImediato ou PixComVencimento)
+     * 
+     * @param txid ID da transação
+     * @return Cobrança correspondente ou null se não encontrada
+     */
+    public Pix findByTxId(String txid) {
+        return find("txid", txid).firstResult();
+    }
+
+    /**
+     * Lista as cobranças de qualquer tipo com os TxIDs informados
+     * 
+     * @param txids IDs das transações
+     * @return Cobranças encontradas
+     */
+    public List<Pix> listarPorTxIds(List<String> txids) {
+        return list("txid IN ?1", txids);
+    }
+
+    /**
+     * Lista, entre os endToEndIds informados, os que já estão registrados em
+     * alguma cobrança
+     * 
+     * @param endToEndIds IDs de liquidação
+     * @return IDs de liquidação já registrados
+     */
+    public List<String> listarEndToEndIdsExistentes(List<String> endToEndIds) {
+        return getEntityManager()
+                .createQuery("SELECT p.endToEndId FROM Pix p WHERE p.endToEndId IN :ids", String.class)
+                .setParameter("ids", endToEndIds)
+                .getResultList();
+    }
+
+    /**
+     * Lê o status gravado de uma cobrança. Por ser uma projeção, a consulta
+     * sempre vai ao banco de dados, mesmo que a cobrança já esteja carregada na
+     * sessão.
+     * 
+     * @param txid ID da transação
+     * @return Status da cobrança ou null se não encontrada
+     */
+    public String buscarStatus(String txid) {
+        return getEntityManager()
+                .createQuery("SELECT p.status FROM Pix p WHERE p.txid = :txid", String.class)
+                .setParameter("txid", txid)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+}
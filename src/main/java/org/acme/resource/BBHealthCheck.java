@@ -0,0 +1,83 @@
+package org.acme.resource;
+
+import java.util.Map;
+
+import org.acme.service.BBHealthMonitor;
+import org.acme.service.BBHttpClient;
+import org.acme.service.ConsultaStatusCoalescida;
+import org.acme.service.Disjuntor;
+import org.acme.service.LimitadorTaxa;
+import org.acme.service.BBHealthMonitor.EstadoEndpoint;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+
+import io.smallrye.health.api.HealthGroup;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Health check da conectividade com o Banco do Brasil, disponível em
+ * /q/health/group/banco-brasil
+ *
+ * Fica em um grupo próprio para que uma instabilidade no banco não retire a
+ * aplicação do balanceador via readiness.
+ */
+@HealthGroup("banco-brasil")
+@ApplicationScoped
+public class BBHealthCheck implements HealthCheck {
+
+    @Inject
+    BBHealthMonitor monitor;
+
+    @Inject
+    BBHttpClient bbHttpClient;
+
+    @Inject
+    ConsultaStatusCoalescida consultaStatusCoalescida;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("Banco do Brasil API Pix")
+                .status(monitor.isApiDisponivel());
+
+        for (Map.Entry<String, EstadoEndpoint> entrada : monitor.getEstados().entrySet()) {
+            EstadoEndpoint estado = entrada.getValue();
+            builder.withData(entrada.getKey() + ".disponivel", estado.disponivel());
+            builder.withData(entrada.getKey() + ".latenciaMs", estado.latenciaMs());
+            builder.withData(entrada.getKey() + ".verificadoEm", estado.verificadoEm().toString());
+            if (estado.erro() != null) {
+                builder.withData(entrada.getKey() + ".erro", estado.erro());
+            }
+        }
+
+        for (Map.Entry<String, Disjuntor.Metricas> entrada : bbHttpClient.getCircuitos().entrySet()) {
+            Disjuntor.Metricas metricas = entrada.getValue();
+            String prefixo = "circuito." + entrada.getKey();
+            builder.withData(prefixo + ".estado", metricas.estado().name());
+            builder.withData(prefixo + ".alteradoEm", metricas.alteradoEm().toString());
+            builder.withData(prefixo + ".chamadas", metricas.chamadas());
+            builder.withData(prefixo + ".falhas", metricas.falhas());
+            builder.withData(prefixo + ".rejeitadas", metricas.rejeitadas());
+            builder.withData(prefixo + ".aberturas", metricas.aberturas());
+            builder.withData(prefixo + ".emUso", metricas.emUso());
+            if (metricas.estado() == Disjuntor.Estado.ABERTO) {
+                builder.down();
+            }
+        }
+
+        for (Map.Entry<String, LimitadorTaxa.Metricas> entrada : bbHttpClient.getLimites().entrySet()) {
+            LimitadorTaxa.Metricas metricas = entrada.getValue();
+            String prefixo = "limite." + entrada.getKey();
+            builder.withData(prefixo + ".taxa", String.format("%.1f", metricas.taxa()));
+            builder.withData(prefixo + ".respostas429", metricas.limites());
+            builder.withData(prefixo + ".rejeitadas", metricas.rejeitadas());
+        }
+
+        ConsultaStatusCoalescida.Metricas status = consultaStatusCoalescida.getMetricas();
+        builder.withData("status.chamadas", status.chamadas());
+        builder.withData("status.reaproveitadas", status.reaproveitadas());
+
+        return builder.build();
+    }
+}
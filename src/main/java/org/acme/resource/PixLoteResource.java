@@ -0,0 +1,253 @@
+package org.acme.resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.config.PixConfig;
+import org.acme.dto.PixCobrancaDTO;
+import org.acme.model.Pix;
+import org.acme.service.OutboxProcessor;
+import org.acme.service.PixService;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Endpoints para criação de cobranças Pix em lote
+ *
+ * As cobranças válidas são gravadas em transações de tamanho fixo junto com
+ * suas entradas na outbox; o envio ao Banco do Brasil é feito pelo
+ * OutboxProcessor, com concorrência limitada. O andamento de cada cobrança pode
+ * ser acompanhado em GET /pix/cobranca/{txid} (campo situacaoRegistro).
+ */
+@Path("/pix/lote")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Lote", description = "Criação de cobranças Pix em lote")
+public class PixLoteResource {
+
+    private static final Logger LOG = Logger.getLogger(PixLoteResource.class);
+
+    private static final String TIPO_NDJSON = "application/x-ndjson";
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    OutboxProcessor outboxProcessor;
+
+    @Inject
+    PixConfig pixConfig;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * Cria cobranças a partir de um array JSON
+     *
+     * @param cobrancas Dados das cobranças
+     * @return Resultado de cada item do lote
+     */
+    @POST
+    @Path("/cobrancas")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Cria cobranças Pix em lote", description = "Recebe um array de cobranças (cob ou cobv), valida e grava cada uma "
+            + "e as envia ao banco em segundo plano. Retorna o TxID gerado ou o erro de validação de cada item, na ordem recebida.")
+    @APIResponse(responseCode = "202", description = "Lote aceito para registro", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Lote vazio ou acima do limite", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "503", description = "Fila de registro assíncrono cheia", content = @Content(mediaType = "application/json"))
+    public Response criarLote(List<PixCobrancaDTO> cobrancas) {
+        if (cobrancas == null || cobrancas.isEmpty()) {
+            return erro(Response.Status.BAD_REQUEST, "Lote vazio");
+        }
+
+        if (cobrancas.size() > pixConfig.getLoteMaxItens()) {
+            return erro(Response.Status.BAD_REQUEST,
+                    "Lote excede o limite de " + pixConfig.getLoteMaxItens() + " cobranças");
+        }
+
+        if (outboxProcessor.isSobrecarregado()) {
+            return filaCheia();
+        }
+
+        ProcessamentoLote lote = new ProcessamentoLote();
+        for (PixCobrancaDTO dados : cobrancas) {
+            lote.adicionar(dados);
+        }
+        return lote.concluir();
+    }
+
+    /**
+     * Cria cobranças a partir de um upload NDJSON (uma cobrança JSON por linha),
+     * lido linha a linha sem carregar o arquivo inteiro em memória
+     *
+     * @param corpo Conteúdo NDJSON
+     * @return Resultado de cada item do lote
+     */
+    @POST
+    @Path("/cobrancas")
+    @Consumes(TIPO_NDJSON)
+    @Operation(summary = "Cria cobranças Pix em lote a partir de NDJSON", description = "Mesmo comportamento do envio em array JSON, "
+            + "mas cada linha do corpo é uma cobrança. Linhas em branco são ignoradas.")
+    @APIResponse(responseCode = "202", description = "Lote aceito para registro", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Lote vazio ou acima do limite", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "503", description = "Fila de registro assíncrono cheia", content = @Content(mediaType = "application/json"))
+    public Response criarLoteNdjson(InputStream corpo) {
+        if (outboxProcessor.isSobrecarregado()) {
+            return filaCheia();
+        }
+
+        ProcessamentoLote lote = new ProcessamentoLote();
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                if (linha.isBlank()) {
+                    continue;
+                }
+
+                if (lote.total() >= pixConfig.getLoteMaxItens()) {
+                    // O que já foi gravado permanece; o restante do arquivo não é lido
+                    lote.interromper("Lote excede o limite de " + pixConfig.getLoteMaxItens() + " cobranças");
+                    break;
+                }
+
+                try {
+                    lote.adicionar(objectMapper.readValue(linha, PixCobrancaDTO.class));
+                } catch (JsonProcessingException e) {
+                    lote.rejeitar("JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Erro ao ler lote NDJSON", e);
+            lote.interromper("Erro ao ler o corpo da requisição: " + e.getMessage());
+        }
+
+        if (lote.total() == 0) {
+            return erro(Response.Status.BAD_REQUEST, "Lote vazio");
+        }
+        return lote.concluir();
+    }
+
+    private static Response filaCheia() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 30)
+                .entity(new JsonObject().put("erro", "Fila de registro de cobranças cheia, tente novamente").encode())
+                .build();
+    }
+
+    private static Response erro(Response.Status status, String mensagem) {
+        return Response.status(status)
+                .entity(new JsonObject().put("erro", mensagem).encode())
+                .build();
+    }
+
+    /**
+     * Acumula os itens de um lote, gravando as cobranças válidas a cada
+     * pix.lote.itens-por-transacao itens e registrando o resultado de cada um
+     */
+    private class ProcessamentoLote {
+
+        private final List<Pix> pendentes = new ArrayList<>();
+        private final List<JsonObject> resultadosPendentes = new ArrayList<>();
+        private final JsonArray resultados = new JsonArray();
+        private int indice;
+        private int aceitas;
+        private int rejeitadas;
+        private String interrompido;
+
+        void adicionar(PixCobrancaDTO dados) {
+            try {
+                Pix pix = pixService.montarCobranca(dados);
+                JsonObject resultado = new JsonObject()
+                        .put("indice", indice++)
+                        .put("txid", pix.getTxid())
+                        .put("tipoCob", pix.isCobvTipo() ? "cobv" : "cob");
+
+                // Entra na resposta já na posição recebida; a situação é preenchida ao gravar
+                resultados.add(resultado);
+                pendentes.add(pix);
+                resultadosPendentes.add(resultado);
+
+                if (pendentes.size() >= Math.max(1, pixConfig.getLoteItensPorTransacao())) {
+                    gravar();
+                }
+            } catch (IllegalArgumentException e) {
+                rejeitar(e.getMessage());
+            }
+        }
+
+        void rejeitar(String mensagem) {
+            resultados.add(new JsonObject()
+                    .put("indice", indice++)
+                    .put("situacao", "REJEITADA")
+                    .put("erro", mensagem));
+            rejeitadas++;
+        }
+
+        void interromper(String mensagem) {
+            interrompido = mensagem;
+        }
+
+        int total() {
+            return indice;
+        }
+
+        Response concluir() {
+            gravar();
+
+            JsonObject resposta = new JsonObject()
+                    .put("total", indice)
+                    .put("aceitas", aceitas)
+                    .put("rejeitadas", rejeitadas)
+                    .put("resultados", resultados);
+            if (interrompido != null) {
+                resposta.put("erro", interrompido);
+            }
+
+            LOG.info("Lote processado: " + aceitas + " aceitas, " + rejeitadas + " rejeitadas");
+            return Response.status(Response.Status.ACCEPTED).entity(resposta.encode()).build();
+        }
+
+        private void gravar() {
+            if (pendentes.isEmpty()) {
+                return;
+            }
+
+            try {
+                pixService.enfileirarLote(pendentes);
+                for (JsonObject resultado : resultadosPendentes) {
+                    resultado.put("situacao", "ACEITA");
+                }
+                aceitas += pendentes.size();
+            } catch (RuntimeException e) {
+                LOG.error("Erro ao gravar parte do lote de cobranças", e);
+                for (JsonObject resultado : resultadosPendentes) {
+                    resultado.put("situacao", "REJEITADA").put("erro", "Erro ao gravar a cobrança");
+                }
+                rejeitadas += pendentes.size();
+            }
+
+            pendentes.clear();
+            resultadosPendentes.clear();
+        }
+    }
+}
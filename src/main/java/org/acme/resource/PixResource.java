@@ -1,23 +1,42 @@
 package org.acme.resource;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
+import org.acme.config.PixConfig;
+import org.acme.dto.CursorPaginacao;
 import org.acme.dto.ErrorResponseDTO;
+import org.acme.dto.PaginaCobrancasDTO;
 import org.acme.dto.PixCobrancaDTO;
 import org.acme.dto.PixPagamentoDTO;
 import org.acme.dto.PixPagamentoResponseDTO;
 import org.acme.model.Pix;
 import org.acme.model.PixComVencimento;
 import org.acme.model.PixImediato;
+import org.acme.service.BBIndisponivelException;
+import org.acme.service.ConsultaStatusCoalescida;
+import org.acme.service.IdempotenciaService;
+import org.acme.service.IdempotenciaService.RespostaArmazenada;
+import org.acme.service.OutboxProcessor;
 import org.acme.service.PixService;
+import org.acme.service.QrCodeCache;
+import org.acme.service.RegistroPendenteException;
+import org.acme.service.StatusCobrancaNotifier;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.jboss.logging.Logger;
 
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import jakarta.inject.Inject;
@@ -25,14 +44,22 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 /**
  * Endpoint REST para operações relacionadas ao Pix
@@ -44,13 +71,55 @@ public class PixResource {
 
     private static final Logger LOG = Logger.getLogger(PixResource.class);
 
+    private static final int LIMITE_MAXIMO_PAGINA = 500;
+
+    private static final String TIPO_SVG = "image/svg+xml";
+
+    private static final Map<String, String> TIPOS_QR_CODE = Map.of(
+            "png", "image/png",
+            "svg", TIPO_SVG,
+            "matriz", MediaType.APPLICATION_JSON);
+
+    private static final Map<String, ErrorCorrectionLevel> NIVEIS_CORRECAO = Map.of(
+            "L", ErrorCorrectionLevel.L,
+            "M", ErrorCorrectionLevel.M,
+            "Q", ErrorCorrectionLevel.Q,
+            "H", ErrorCorrectionLevel.H);
+
+    private static final int TAMANHO_MINIMO_QR_CODE = 64;
+    private static final int TAMANHO_MAXIMO_QR_CODE = 2048;
+    private static final int MARGEM_MAXIMA_QR_CODE = 10;
+
+    private static final String FORMATO_NDJSON = "ndjson";
+    private static final String TIPO_NDJSON = "application/x-ndjson";
+
     @Inject
     PixService pixService;
 
+    @Inject
+    OutboxProcessor outboxProcessor;
+
+    @Inject
+    StatusCobrancaNotifier statusCobrancaNotifier;
+
+    @Inject
+    QrCodeCache qrCodeCache;
+
+    @Inject
+    IdempotenciaService idempotenciaService;
+
+    @Inject
+    ConsultaStatusCoalescida consultaStatusCoalescida;
+
+    @Inject
+    PixConfig pixConfig;
+
     /**
      * Cria uma nova cobrança Pix
      * 
-     * @param pixData Dados da cobrança no formato JSON
+     * @param pixData           Dados da cobrança no formato JSON
+     * @param assincrono        Se true, grava a cobrança e a registra no banco em segundo plano
+     * @param chaveIdempotencia Idempotency-Key opcional; repetições recebem a resposta da primeira requisição
      * @return Resposta com os detalhes da cobrança criada
      */
     @POST
@@ -60,114 +129,116 @@ public class PixResource {
             "Uma cobrança Pix permite receber pagamentos instantâneos através do sistema Pix brasileiro. " +
             "Retorna um código QR e um Pix Copia e Cola que podem ser usados para efetuar o pagamento.")
     @APIResponse(responseCode = "201", description = "Cobrança criada com sucesso", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "202", description = "Cobrança aceita para registro assíncrono ou com registro ainda não confirmado pelo banco", content = @Content(mediaType = "application/json"))
     @APIResponse(responseCode = "400", description = "Dados inválidos para criar a cobrança", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "409", description = "Requisição com o mesmo Idempotency-Key ainda em processamento", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "422", description = "Idempotency-Key já utilizado com outro conteúdo", content = @Content(mediaType = "application/json"))
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
-    public Response criarCobranca(PixCobrancaDTO pixData) {
+    @APIResponse(responseCode = "503", description = "Fila de registro assíncrono cheia ou API do banco indisponível", content = @Content(mediaType = "application/json"))
+    public Response criarCobranca(PixCobrancaDTO pixData,
+            @QueryParam("assincrono") @DefaultValue("false") boolean assincrono,
+            @HeaderParam("Idempotency-Key") String chaveIdempotencia) {
+        if (chaveIdempotencia == null || chaveIdempotencia.isBlank()) {
+            return processarCriacao(pixData, assincrono);
+        }
+
+        // O txid é gerado no processamento; repetições com a mesma chave recebem a resposta gravada
+        String hashRequisicao = IdempotenciaService.calcularHash(pixData + "|assincrono=" + assincrono);
+        RespostaArmazenada resposta = idempotenciaService.executar(chaveIdempotencia, hashRequisicao,
+                () -> armazenar(processarCriacao(pixData, assincrono)));
+
+        Response.ResponseBuilder builder = Response.status(resposta.status()).entity(resposta.corpo());
+        if (resposta.localizacao() != null) {
+            builder.location(URI.create(resposta.localizacao()));
+        }
+        if (resposta.repetida()) {
+            LOG.info("Criação de cobrança repetida com Idempotency-Key; resposta gravada reaproveitada");
+            builder.header("Idempotent-Replayed", "true");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converte a resposta da criação para ser gravada com o Idempotency-Key
+     */
+    private static RespostaArmazenada armazenar(Response response) {
+        return new RespostaArmazenada(response.getStatus(), (String) response.getEntity(),
+                response.getLocation() != null ? response.getLocation().toString() : null, false);
+    }
+
+    /**
+     * Cria a cobrança (síncrona ou assíncrona) a partir dos dados recebidos
+     * 
+     * @param pixData    Dados da cobrança
+     * @param assincrono Se true, grava a cobrança para registro em segundo plano
+     * @return Resposta HTTP da criação
+     */
+    private Response processarCriacao(PixCobrancaDTO pixData, boolean assincrono) {
         try {
             LOG.info("Recebendo solicitação para criar cobrança Pix");
 
-            // Extrair dados do DTO
-            String txid = pixService.gerarTxid(pixData.tipoCob(), pixData.banco());
-            String chave = pixData.chave();
-            BigDecimal valor = new BigDecimal(pixData.valor());
-            String nome = pixData.nome();
-            String cpf = pixData.cpf();
-            String cnpj = pixData.cnpj();
-            String tipoCob = pixData.tipoCob();
-            String banco = pixData.banco();
-            LocalDate dataVencimento = pixData.dataVencimento();
-            Integer expiracao = pixData.expiracao();
-            Integer validadeAposVencimento = pixData.validadeAposVencimento();
-
-            // Validar dados obrigatórios
-            if (chave == null || valor.compareTo(BigDecimal.ZERO) <= 0 || nome == null) {
-                LOG.warn("Requisição inválida: campos obrigatórios ausentes");
+            // Valida os campos obrigatórios e monta a cobrança, como na criação em lote
+            Pix pix;
+            try {
+                pix = pixService.montarCobranca(pixData);
+            } catch (IllegalArgumentException e) {
+                LOG.warn("Requisição inválida: " + e.getMessage());
                 return Response.status(Response.Status.BAD_REQUEST)
-                        .entity(new JsonObject().put("erro", "Chave Pix, valor e nome são obrigatórios").encode())
+                        .entity(new JsonObject().put("erro", e.getMessage()).encode())
                         .build();
             }
 
-            switch (tipoCob) {
-                case "cob" -> {
-                    // Criar objeto PixImediato
-                    PixImediato pixImediato = new PixImediato(txid, chave, valor, nome, cpf, cnpj, expiracao, banco);
+            if (assincrono && outboxProcessor.isSobrecarregado()) {
+                LOG.warn("Fila de registro assíncrono cheia: " + outboxProcessor.getPendentes() + " pendentes");
+                return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                        .header("Retry-After", 30)
+                        .entity(new JsonObject().put("erro", "Fila de registro de cobranças cheia, tente novamente")
+                                .encode())
+                        .build();
+            }
 
-                    // Adicionar solicitação ao pagador se existir
-                    if (pixData.solicitacaoPagador() != null && !pixData.solicitacaoPagador().isEmpty()) {
-                        pixImediato.setSolicitacaoPagador(pixData.solicitacaoPagador());
-                    }
+            if (assincrono) {
+                return enfileirarCobranca(pix);
+            }
 
-                    // Adicionar informações adicionais
-                    // if (pixData.infoAdicionais() != null && !pixData.infoAdicionais().isEmpty())
-                    // {
-                    // JsonArray infoArray = new JsonArray(pixData.infoAdicionais());
-                    // for (int i = 0; i < infoArray.size(); i++) {
-                    // JsonObject info = infoArray.getJsonObject(i);
-                    // pixImediato.addInfoAdicional(info.getString("nome"),
-                    // info.getString("valor"));
-                    // }
-                    // }
-
-                    // Criar cobrança PIX
-                    JsonObject resultado = pixService.criarCobrancaPix(pixImediato);
-
-                    // Adicionar dados de retorno
-                    JsonObject resposta = new JsonObject();
-                    resposta.put("txid", pixImediato.getTxid());
-                    resposta.put("status", pixImediato.getStatus());
-                    resposta.put("pixCopiaECola", pixImediato.getPixCopiaECola());
-                    resposta.put("qrCode", resultado.getString("pixCopiaECola"));
-                    resposta.put("location", pixImediato.getLocation());
-                    resposta.put("criacao", pixImediato.getCriacao().toString());
-                    resposta.put("expiracao", pixImediato.getExpiracao());
-
-                    return Response.status(Response.Status.CREATED).entity(resposta.encode()).build();
+            if (pix instanceof PixImediato pixImediato) {
+                // Criar cobrança PIX
+                JsonObject resultado = pixService.criarCobrancaPix(pixImediato);
+
+                // Adicionar dados de retorno
+                JsonObject resposta = new JsonObject();
+                resposta.put("txid", pixImediato.getTxid());
+                resposta.put("status", pixImediato.getStatus());
+                resposta.put("pixCopiaECola", pixImediato.getPixCopiaECola());
+                resposta.put("qrCode", resultado.getString("pixCopiaECola"));
+                resposta.put("location", pixImediato.getLocation());
+                resposta.put("criacao", pixImediato.getCriacao().toString());
+                resposta.put("expiracao", pixImediato.getExpiracao());
+
+                return Response.status(Response.Status.CREATED).entity(resposta.encode()).build();
+            }
 
-                }
-                case "cobv" -> {
-                    PixComVencimento pixComVencimento = new PixComVencimento(txid, chave, valor, nome, cpf, cnpj,
-                            dataVencimento, validadeAposVencimento, banco);
+            PixComVencimento pixComVencimento = (PixComVencimento) pix;
 
-                    // Adicionar solicitação ao pagador se existir
-                    if (pixData.solicitacaoPagador() != null && !pixData.solicitacaoPagador().isEmpty()) {
-                        pixComVencimento.setSolicitacaoPagador(pixData.solicitacaoPagador());
-                    }
+            // Criar cobrança PIX
+            JsonObject resultado = pixService.criarCobrancaPixVencimento(pixComVencimento);
 
-                    // Criar cobrança PIX
-                    JsonObject resultado = pixService.criarCobrancaPixVencimento(pixComVencimento);
-
-                    // Adicionar informações adicionais
-                    // if (pixData.infoAdicionais() != null && !pixData.infoAdicionais().isEmpty())
-                    // {
-                    // JsonArray infoArray = new JsonArray(pixData.infoAdicionais());
-                    // for (int i = 0; i < infoArray.size(); i++) {
-                    // JsonObject info = infoArray.getJsonObject(i);
-                    // pixImediato.addInfoAdicional(info.getString("nome"),
-                    // info.getString("valor"));
-                    // }
-                    // }
-
-                    // Adicionar dados de retorno
-                    JsonObject resposta = new JsonObject();
-                    resposta.put("txid", pixComVencimento.getTxid());
-                    resposta.put("status", pixComVencimento.getStatus());
-                    resposta.put("pixCopiaECola", pixComVencimento.getPixCopiaECola());
-                    resposta.put("qrCode", resultado.getString("pixCopiaECola"));
-                    resposta.put("location", pixComVencimento.getLocation());
-                    resposta.put("criacao", pixComVencimento.getCriacao().toString());
-                    resposta.put("dataVencimento", pixComVencimento.getDataVencimento().toString());
-
-                    return Response.status(Response.Status.CREATED).entity(resposta.encode()).build();
+            // Adicionar dados de retorno
+            JsonObject resposta = new JsonObject();
+            resposta.put("txid", pixComVencimento.getTxid());
+            resposta.put("status", pixComVencimento.getStatus());
+            resposta.put("pixCopiaECola", pixComVencimento.getPixCopiaECola());
+            resposta.put("qrCode", resultado.getString("pixCopiaECola"));
+            resposta.put("location", pixComVencimento.getLocation());
+            resposta.put("criacao", pixComVencimento.getCriacao().toString());
+            resposta.put("dataVencimento", pixComVencimento.getDataVencimento().toString());
 
-                }
-                default -> {
-                    LOG.warn("Tipo de cobrança inválido: " + tipoCob);
-                    return Response.status(Response.Status.BAD_REQUEST)
-                            .entity(new JsonObject().put("erro", "Tipo de cobrança inválido").encode())
-                            .build();
-                }
-            }
+            return Response.status(Response.Status.CREATED).entity(resposta.encode()).build();
 
+        } catch (RegistroPendenteException e) {
+            return registroPendente(e);
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao criar cobrança Pix", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -176,6 +247,28 @@ public class PixResource {
         }
     }
 
+    /**
+     * Grava a cobrança para registro assíncrono e responde 202 com o endereço
+     * de consulta
+     * 
+     * @param pix Cobrança a ser registrada
+     * @return Resposta 202 Accepted
+     */
+    private Response enfileirarCobranca(Pix pix) {
+        pixService.enfileirarCobranca(pix);
+
+        JsonObject resposta = new JsonObject();
+        resposta.put("txid", pix.getTxid());
+        resposta.put("status", pix.getStatus());
+        resposta.put("situacaoRegistro", pix.getSituacaoRegistro());
+        resposta.put("criacao", pix.getCriacao().toString());
+
+        return Response.status(Response.Status.ACCEPTED)
+                .location(URI.create("/pix/cobranca/" + pix.getTxid()))
+                .entity(resposta.encode())
+                .build();
+    }
+
     @DELETE
     @Path("/cobranca/{txid}")
     @Operation(summary = "Cancela uma cobrança Pix existente", description = "Este endpoint cancela uma cobrança Pix que ainda não foi paga. "
@@ -191,8 +284,9 @@ public class PixResource {
         try {
             LOG.info("Cancelando cobrança Pix: " + txid);
 
-            // Primeiro, tenta localizar como cobrança imediata
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
 
             if (pixImediato != null) {
                 // É uma cobrança imediata
@@ -216,7 +310,7 @@ public class PixResource {
                         .encode()).build();
             } else {
                 // Tenta localizar como cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
+                PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
 
                 if (pixVencimento == null) {
                     LOG.warn("Cobrança não encontrada para cancelamento: " + txid);
@@ -244,6 +338,8 @@ public class PixResource {
                         .put("mensagem", "Cobrança com vencimento cancelada com sucesso")
                         .encode()).build();
             }
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao cancelar cobrança Pix", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -255,44 +351,77 @@ public class PixResource {
     /**
      * Gera QR Code para uma cobrança existente
      * 
-     * @param txid ID da transação
-     * @return Imagem do QR Code em formato PNG
+     * @param txid     ID da transação
+     * @param formato  png, svg ou matriz (módulos em JSON)
+     * @param tamanho  Largura e altura da imagem em pixels
+     * @param correcao Nível de correção de erros (L, M, Q ou H)
+     * @param margem   Zona de silêncio em módulos
+     * @param request  Requisição, para avaliar If-None-Match
+     * @return QR Code no formato solicitado
      */
     @GET
     @Path("/cobranca/{txid}/qrcode")
-    @Produces("image/png")
+    @Produces({ "image/png", TIPO_SVG, MediaType.APPLICATION_JSON })
     @Operation(summary = "Gera imagem QR Code para uma cobrança Pix", description = "Este endpoint gera uma imagem PNG do QR Code para uma cobrança Pix existente. "
             +
             "O QR Code pode ser escaneado por aplicativos bancários para efetuar o pagamento. " +
-            "É necessário que a cobrança tenha um Pix Copia e Cola válido para gerar o QR Code.")
-    @APIResponse(responseCode = "200", description = "QR Code gerado com sucesso", content = @Content(mediaType = "image/png"))
+            "É necessário que a cobrança tenha um Pix Copia e Cola válido para gerar o QR Code. " +
+            "Aceita formato (png, svg ou matriz), tamanho em pixels, nível de correção (L, M, Q, H) e margem em módulos.")
+    @APIResponse(responseCode = "200", description = "QR Code gerado com sucesso", content = {
+            @Content(mediaType = "image/png"), @Content(mediaType = TIPO_SVG),
+            @Content(mediaType = "application/json") })
+    @APIResponse(responseCode = "304", description = "QR Code não modificado (If-None-Match)")
     @APIResponse(responseCode = "404", description = "Cobrança não encontrada", content = @Content(mediaType = "application/json"))
-    @APIResponse(responseCode = "400", description = "Dados para QR Code não disponíveis", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "410", description = "Cobrança paga, removida ou expirada", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Parâmetros inválidos ou dados para QR Code não disponíveis", content = @Content(mediaType = "application/json"))
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
-    public Response gerarQrCode(@PathParam("txid") String txid) {
+    public Response gerarQrCode(@PathParam("txid") String txid,
+            @QueryParam("formato") @DefaultValue("png") String formato,
+            @QueryParam("tamanho") @DefaultValue("300") int tamanho,
+            @QueryParam("correcao") @DefaultValue("M") String correcao,
+            @QueryParam("margem") @DefaultValue("2") int margem,
+            @Context Request request) {
+        String tipoConteudo = TIPOS_QR_CODE.get(formato.toLowerCase());
+        ErrorCorrectionLevel nivelCorrecao = NIVEIS_CORRECAO.get(correcao.toUpperCase());
+        if (tipoConteudo == null || nivelCorrecao == null || tamanho < TAMANHO_MINIMO_QR_CODE
+                || tamanho > TAMANHO_MAXIMO_QR_CODE || margem < 0 || margem > MARGEM_MAXIMA_QR_CODE) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", "Parâmetros de QR Code inválidos: formato png, svg ou matriz; "
+                            + "tamanho entre " + TAMANHO_MINIMO_QR_CODE + " e " + TAMANHO_MAXIMO_QR_CODE
+                            + "; correcao L, M, Q ou H; margem entre 0 e " + MARGEM_MAXIMA_QR_CODE).encode())
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        }
+        String formatoQrCode = formato.toLowerCase();
+
         try {
             LOG.info("Gerando QR Code para cobrança: " + txid);
 
-            String pixCopiaECola;
-
-            // Primeiro verifica se é cobrança imediata
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
-            if (pixImediato != null) {
-                pixCopiaECola = pixImediato.getPixCopiaECola();
-            } else {
-                // Se não for imediata, verifica se é cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
-                if (pixVencimento == null) {
-                    LOG.warn("Cobrança não encontrada para gerar QR Code: " + txid);
-                    return Response.status(Response.Status.NOT_FOUND)
-                            .entity(new JsonObject().put("erro", "Cobrança não encontrada").encode())
-                            .type(MediaType.APPLICATION_JSON)
-                            .build();
-                }
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            if (pix == null) {
+                LOG.warn("Cobrança não encontrada para gerar QR Code: " + txid);
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(new JsonObject().put("erro", "Cobrança não encontrada").encode())
+                        .type(MediaType.APPLICATION_JSON)
+                        .build();
+            }
 
-                pixCopiaECola = pixVencimento.getPixCopiaECola();
+            // Só cobranças que ainda podem ser pagas têm QR Code; as imagens das demais saem do cache
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDateTime pagavelAte = pix.getPagavelAte();
+            if (!pix.isAtiva() || (pagavelAte != null && !pagavelAte.isAfter(agora))) {
+                LOG.info("QR Code pedido para cobrança que não pode mais ser paga: " + txid);
+                return Response.status(Response.Status.GONE)
+                        .entity(new JsonObject().put("erro", "Cobrança não está mais disponível para pagamento")
+                                .put("status", pix.getStatus()).encode())
+                        .type(MediaType.APPLICATION_JSON)
+                        .build();
             }
 
+            // Montado localmente a partir do location se o banco ainda não o informou
+            String pixCopiaECola = pixService.obterPixCopiaECola(pix);
+
             // Verificar se o Pix Copia e Cola está disponível
             if (pixCopiaECola == null || pixCopiaECola.isEmpty()) {
                 LOG.warn("Dados para QR Code não disponíveis: " + txid);
@@ -303,11 +432,35 @@ public class PixResource {
                         .build();
             }
 
-            // Gerar imagem do QR Code
-            byte[] qrCodeImage = pixService.gerarQrCodeImage(pixCopiaECola);
+            // A matriz não depende do tamanho; fica uma única entrada de cache para todos
+            String parametros = formatoQrCode + ":" + ("matriz".equals(formatoQrCode) ? 0 : tamanho) + ":"
+                    + nivelCorrecao.name() + ":" + margem;
+
+            // O Pix Copia e Cola não muda, então o ETag identifica a imagem sem renderizá-la
+            EntityTag etag = new EntityTag(QrCodeCache.calcularEtag(pixCopiaECola, parametros));
+            // Imagem de uma cobrança autenticada; não é reutilizada além da validade da cobrança
+            long maxAge = pixConfig.getQrCodeMaxAgeSegundos();
+            if (pagavelAte != null) {
+                maxAge = Math.min(maxAge, Duration.between(agora, pagavelAte).getSeconds());
+            }
+            String cacheControl = "private, max-age=" + maxAge;
+
+            Response.ResponseBuilder naoModificado = request.evaluatePreconditions(etag);
+            if (naoModificado != null) {
+                return naoModificado.header("Cache-Control", cacheControl).build();
+            }
+
+            // Gerar imagem do QR Code, ou reaproveitar a já renderizada
+            String texto = pixCopiaECola;
+            byte[] qrCodeImage = qrCodeCache.obter(txid, parametros, etag.getValue(),
+                    () -> pixService.gerarQrCode(texto, formatoQrCode, tamanho, nivelCorrecao, margem)).conteudo();
 
             return Response.ok(qrCodeImage)
-                    .header("Content-Disposition", "inline; filename=\"qrcode-pix-" + txid + ".png\"")
+                    .type(tipoConteudo)
+                    .header("Content-Disposition", "inline; filename=\"qrcode-pix-" + txid + "."
+                            + ("matriz".equals(formatoQrCode) ? "json" : formatoQrCode) + "\"")
+                    .header("Cache-Control", cacheControl)
+                    .tag(etag)
                     .build();
 
         } catch (Exception e) {
@@ -319,6 +472,43 @@ public class PixResource {
         }
     }
 
+    /**
+     * Gera o Pix Copia e Cola estático de uma chave, sem chamada ao banco
+     * 
+     * @param dados Objeto com chave, valor (opcional), txid (opcional) e
+     *              descricao (opcional)
+     * @return Texto Pix Copia e Cola
+     */
+    @POST
+    @Path("/brcode/estatico")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Gera um Pix Copia e Cola estático", description = "Monta localmente o BR Code de uma chave Pix, "
+            + "com o nome e a cidade do recebedor configurados. Sem valor, o pagador informa o valor no aplicativo.")
+    @APIResponse(responseCode = "200", description = "BR Code gerado", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Dados inválidos", content = @Content(mediaType = "application/json"))
+    public Response gerarBrCodeEstatico(JsonObject dados) {
+        if (dados == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", "Dados não informados").encode())
+                    .build();
+        }
+
+        try {
+            String valor = dados.getValue("valor") != null ? dados.getValue("valor").toString() : null;
+            String pixCopiaECola = pixService.gerarBrCodeEstatico(dados.getString("chave"),
+                    valor != null ? new BigDecimal(valor) : null,
+                    dados.getString("txid"), dados.getString("descricao"));
+
+            return Response.ok(new JsonObject().put("pixCopiaECola", pixCopiaECola).encode()).build();
+        } catch (IllegalArgumentException | ClassCastException e) {
+            // NumberFormatException (valor inválido) é uma IllegalArgumentException
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", e.getMessage()).encode())
+                    .build();
+        }
+    }
+
     /**
      * Registra o pagamento de uma cobrança Pix (simulação)
      * 
@@ -345,8 +535,9 @@ public class PixResource {
             LOG.info("Registrando pagamento para cobrança: " + txid);
             LOG.info("Dados do pagamento: " + pagamentoDTO);
 
-            // Primeiro verifica se é cobrança imediata
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
 
             if (pixImediato != null) {
                 // É uma cobrança imediata
@@ -390,7 +581,7 @@ public class PixResource {
                 return Response.ok(resposta).build();
             } else {
                 // Tenta localizar como cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
+                PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
 
                 if (pixVencimento == null) {
                     LOG.warn("Cobrança não encontrada para pagamento: " + txid);
@@ -473,6 +664,10 @@ public class PixResource {
         json.put("criacao", pix.getCriacao().toString());
         json.put("expiracao", pix.getExpiracao());
 
+        if (pix.getSituacaoRegistro() != null) {
+            json.put("situacaoRegistro", pix.getSituacaoRegistro());
+        }
+
         if (pix.getPixCopiaECola() != null) {
             json.put("pixCopiaECola", pix.getPixCopiaECola());
         }
@@ -515,8 +710,9 @@ public class PixResource {
         try {
             LOG.info("Consultando cobrança Pix: " + txid);
 
-            // Primeiro verifica se é cobrança imediata
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
 
             if (pixImediato != null) {
                 // Transformar objeto imediato em JSON
@@ -524,7 +720,7 @@ public class PixResource {
                 return Response.ok(resultado.encode()).build();
             } else {
                 // Verificar se é cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
+                PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
 
                 if (pixVencimento == null) {
                     LOG.warn("Cobrança não encontrada: " + txid);
@@ -563,8 +759,9 @@ public class PixResource {
         try {
             LOG.info("Atualizando cobrança Pix da API: " + txid);
 
-            // Verifica se é cobrança imediata no repositório local
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
 
             if (pixImediato != null) {
                 // Atualiza cobrança imediata da API
@@ -572,7 +769,7 @@ public class PixResource {
                 return Response.ok(resultado.encode()).build();
             } else {
                 // Verifica se é cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
+                PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
 
                 if (pixVencimento != null) {
                     // Atualiza cobrança com vencimento da API
@@ -590,6 +787,8 @@ public class PixResource {
                     }
                 }
             }
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao atualizar cobrança Pix", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -599,8 +798,11 @@ public class PixResource {
     }
 
     /**
-     * Lista as cobranças mais recentes
+     * Lista as cobranças mais recentes, paginadas por cursor
      * 
+     * @param limite Tamanho da página
+     * @param tipo   Tipo de cobrança (cob, cobv ou todos)
+     * @param cursor Cursor retornado na página anterior (proximoCursor)
      * @return Lista de cobranças
      */
     @GET
@@ -608,41 +810,27 @@ public class PixResource {
     @Operation(summary = "Lista as cobranças Pix mais recentes", description = "Este endpoint retorna uma lista das cobranças Pix mais recentes criadas pelo sistema. "
             +
             "É possível limitar a quantidade de resultados através do parâmetro de consulta 'limite'. " +
-            "A lista é ordenada pela data de criação, com as cobranças mais recentes primeiro.")
+            "A lista é ordenada pela data de criação, com as cobranças mais recentes primeiro. " +
+            "Para obter a página seguinte, envie o valor de 'proximoCursor' no parâmetro 'cursor'.")
     @APIResponse(responseCode = "200", description = "Lista de cobranças obtida com sucesso", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Cursor de paginação inválido", content = @Content(mediaType = "application/json"))
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
     public Response listarCobrancas(@QueryParam("limite") @DefaultValue("10") int limite,
-            @QueryParam("tipo") @DefaultValue("todos") String tipo) {
+            @QueryParam("tipo") @DefaultValue("todos") String tipo,
+            @QueryParam("cursor") String cursor) {
         try {
             LOG.info("Listando " + limite + " cobranças Pix do tipo: " + tipo);
 
-            JsonObject resultado = new JsonObject();
-            JsonArray listaCobrancas = new JsonArray();
+            PaginaCobrancasDTO pagina = pixService.listarCobrancasPaginadas(tipo,
+                    CursorPaginacao.decodificar(cursor), limitarPagina(limite));
 
-            // De acordo com o tipo solicitado, lista as cobranças
-            if ("todos".equals(tipo) || "cob".equals(tipo)) {
-                // Listar cobranças imediatas
-                List<PixImediato> cobrancasImediatas = pixService.listarCobrancasRecentes(limite);
-
-                for (PixImediato pix : cobrancasImediatas) {
-                    listaCobrancas.add(criarJsonDePix(pix));
-                }
-            }
-
-            if ("todos".equals(tipo) || "cobv".equals(tipo)) {
-                // Listar cobranças com vencimento
-                List<PixComVencimento> cobrancasVencimento = pixService.listarCobrancasVencimentoRecentes(limite);
-
-                for (PixComVencimento pix : cobrancasVencimento) {
-                    listaCobrancas.add(pixService.criarJsonDePixVencimento(pix));
-                }
-            }
-
-            resultado.put("quantidade", listaCobrancas.size());
-            resultado.put("cobrancas", listaCobrancas);
-
-            return Response.ok(resultado.encode()).build();
+            return Response.ok(criarJsonDePagina(pagina).encode()).build();
 
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Parâmetros de paginação inválidos: " + e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", e.getMessage()).encode())
+                    .build();
         } catch (Exception e) {
             LOG.error("Erro ao listar cobranças Pix", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -651,6 +839,64 @@ public class PixResource {
         }
     }
 
+    /**
+     * Limita o tamanho da página ao intervalo aceito pela API
+     * 
+     * @param limite Tamanho solicitado
+     * @return Tamanho entre 1 e LIMITE_MAXIMO_PAGINA
+     */
+    private static int limitarPagina(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO_PAGINA));
+    }
+
+    /**
+     * Converte uma cobrança de qualquer tipo no JSON de listagem
+     * 
+     * @param pix Cobrança imediata ou com vencimento
+     * @return Objeto JSON com os dados da cobrança
+     */
+    private JsonObject criarJsonDeCobranca(Pix pix) {
+        if (pix instanceof PixImediato pixImediato) {
+            return criarJsonDePix(pixImediato);
+        }
+        return pixService.criarJsonDePixVencimento((PixComVencimento) pix);
+    }
+
+    /**
+     * Cria o escritor que grava cada cobrança como uma linha JSON (NDJSON)
+     * 
+     * @param saida Corpo da resposta
+     * @return Escritor para as exportações do PixService
+     */
+    private PixService.EscritorCobranca escritorNdjson(OutputStream saida) {
+        return pix -> {
+            saida.write(criarJsonDeCobranca(pix).encode().getBytes(StandardCharsets.UTF_8));
+            saida.write('\n');
+        };
+    }
+
+    /**
+     * Converte uma página de cobranças no JSON de listagem, com o cursor da
+     * próxima página quando houver
+     * 
+     * @param pagina Página de cobranças
+     * @return Objeto JSON com quantidade, cobranças e proximoCursor
+     */
+    private JsonObject criarJsonDePagina(PaginaCobrancasDTO pagina) {
+        JsonArray listaCobrancas = new JsonArray();
+        for (Pix pix : pagina.cobrancas()) {
+            listaCobrancas.add(criarJsonDeCobranca(pix));
+        }
+
+        JsonObject resultado = new JsonObject();
+        resultado.put("quantidade", listaCobrancas.size());
+        resultado.put("cobrancas", listaCobrancas);
+        if (pagina.proximoCursor() != null) {
+            resultado.put("proximoCursor", pagina.proximoCursor().codificar());
+        }
+        return resultado;
+    }
+
     /**
      * Consulta detalhes de cobranças Pix usando consulta direta na API do banco
      * 
@@ -671,8 +917,9 @@ public class PixResource {
         try {
             LOG.info("Consultando detalhes completos de cobrança Pix: " + txid);
 
-            // Primeiro verifica se é cobrança imediata no repositório local
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
+            // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+            Pix pix = pixService.consultarPixRepository(txid);
+            PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
             JsonObject resultado;
 
             if (pixImediato != null) {
@@ -680,7 +927,7 @@ public class PixResource {
                 resultado = pixService.consultarDetalhesCobranca(txid);
             } else {
                 // Verifica se é cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
+                PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
 
                 if (pixVencimento != null) {
                     // É uma cobrança com vencimento
@@ -707,6 +954,8 @@ public class PixResource {
 
             return Response.ok(resultado.encode()).build();
 
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao consultar detalhes da cobrança Pix", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -718,6 +967,130 @@ public class PixResource {
         }
     }
 
+    /**
+     * Acompanha por Server-Sent Events as mudanças de status de uma cobrança
+     * 
+     * O status atual é enviado ao conectar; em seguida, cada mudança detectada
+     * pela conciliação ou pelo webhook gera um evento "status". A conexão é
+     * encerrada quando a cobrança deixa de estar ATIVA.
+     * 
+     * @param txid ID da transação
+     * @param sink Conexão SSE
+     * @param sse  Fábrica de eventos SSE
+     */
+    @GET
+    @Path("/cobranca/{txid}/eventos")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Acompanha o status de uma cobrança Pix (SSE)", description = "Mantém uma conexão Server-Sent Events que recebe "
+            + "o status atual da cobrança e cada mudança de status, sem consultas ao banco. Substitui a consulta periódica de /status.")
+    @APIResponse(responseCode = "200", description = "Fluxo de eventos de status", content = @Content(mediaType = "text/event-stream"))
+    @APIResponse(responseCode = "404", description = "Cobrança não encontrada", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "503", description = "Limite de conexões atingido", content = @Content(mediaType = "application/json"))
+    public void acompanharStatus(@PathParam("txid") String txid, @Context SseEventSink sink, @Context Sse sse) {
+        Pix pix = pixService.consultarPixRepository(txid);
+        if (pix == null) {
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new JsonObject().put("erro", "Cobrança não encontrada").encode())
+                    .build());
+        }
+
+        String status = pix.getStatus();
+        if (pix.isAtiva()) {
+            if (!statusCobrancaNotifier.inscreverCobranca(txid, sink, sse)) {
+                throw limiteDeConexoes();
+            }
+
+            // Relido após a inscrição: uma mudança gravada entre a primeira leitura e a inscrição não
+            // encontrou esta conexão no notifier, mas aparece aqui
+            String gravado = pixService.consultarStatusGravado(txid);
+            if (gravado != null) {
+                status = gravado;
+            }
+        }
+
+        statusCobrancaNotifier.enviar(sink, sse, new JsonObject()
+                .put("txid", txid)
+                .put("status", status)
+                .put("horario", LocalDateTime.now().toString()));
+
+        if (!"ATIVA".equals(status)) {
+            statusCobrancaNotifier.cancelarCobranca(txid, sink, sse);
+            sink.close();
+        }
+    }
+
+    /**
+     * Acompanha por Server-Sent Events as mudanças de status de todas as
+     * cobranças de uma chave Pix
+     * 
+     * @param chave Chave Pix do recebedor
+     * @param sink  Conexão SSE
+     * @param sse   Fábrica de eventos SSE
+     */
+    @GET
+    @Path("/eventos")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Acompanha o status das cobranças de uma chave (SSE)", description = "Recebe um evento \"status\" para cada "
+            + "mudança de status de qualquer cobrança da chave informada.")
+    @APIResponse(responseCode = "200", description = "Fluxo de eventos de status", content = @Content(mediaType = "text/event-stream"))
+    @APIResponse(responseCode = "400", description = "Chave não informada", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "503", description = "Limite de conexões atingido", content = @Content(mediaType = "application/json"))
+    public void acompanharChave(@QueryParam("chave") String chave, @Context SseEventSink sink, @Context Sse sse) {
+        if (chave == null || chave.isBlank()) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity(new JsonObject().put("erro", "Parâmetro chave é obrigatório").encode())
+                    .build());
+        }
+
+        if (!statusCobrancaNotifier.inscreverChave(chave, sink, sse)) {
+            throw limiteDeConexoes();
+        }
+    }
+
+    /**
+     * Resposta rápida quando o circuito do banco está aberto ou sem vagas, em
+     * vez de aguardar o timeout da chamada
+     */
+    private static Response bancoIndisponivel(BBIndisponivelException e) {
+        LOG.warn("Chamada ao Banco do Brasil recusada: " + e.getMessage());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", e.getRetryAfterSegundos())
+                .type(MediaType.APPLICATION_JSON)
+                .entity(new JsonObject()
+                        .put("erro", "API do Banco do Brasil indisponível, tente novamente")
+                        .put("endpoint", e.getEndpoint())
+                        .encode())
+                .build();
+    }
+
+    /**
+     * O banco não confirmou o registro: a cobrança segue PENDENTE com o mesmo
+     * txid e é concluída em segundo plano, como no registro assíncrono. O 202
+     * evita que o cliente crie outra cobrança ao tentar de novo.
+     */
+    private static Response registroPendente(RegistroPendenteException e) {
+        LOG.warn(e.getMessage());
+        return Response.status(Response.Status.ACCEPTED)
+                .location(URI.create("/pix/cobranca/" + e.getTxid()))
+                .header("Retry-After", 30)
+                .entity(new JsonObject()
+                        .put("txid", e.getTxid())
+                        .put("situacaoRegistro", "PENDENTE")
+                        .put("mensagem", "Registro em confirmação com o banco; acompanhe a cobrança pelo txid")
+                        .encode())
+                .build();
+    }
+
+    private static WebApplicationException limiteDeConexoes() {
+        return new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 30)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(new JsonObject().put("erro", "Limite de conexões de acompanhamento atingido").encode())
+                .build());
+    }
+
     /**
      * Verifica o status atual do pagamento de uma cobrança Pix
      * 
@@ -736,53 +1109,16 @@ public class PixResource {
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
     public Response verificarStatusPagamento(@PathParam("txid") String txid) {
         try {
-            LOG.info("Verificando status de pagamento da cobrança: " + txid);
-
-            // Primeiro verifica se é cobrança imediata no repositório local
-            PixImediato pixImediato = pixService.consultarCobrancaRepository(txid);
-
-            if (pixImediato != null) {
-                // É uma cobrança imediata, consulta status de pagamento
-                JsonObject statusPagamento = pixService.verificarStatusPagamento(txid);
-                return Response.ok(statusPagamento.encode()).build();
-            } else {
-                // Verifica se é cobrança com vencimento
-                PixComVencimento pixVencimento = pixService.consultarCobrancaVencimentoRepository(txid);
-
-                if (pixVencimento != null) {
-                    // É uma cobrança com vencimento
-                    // Atualiza dados da API
-                    pixService.consultarCobrancaVencimentoNoServidor(txid);
-
-                    // Cria objeto de resposta com status atual
-                    JsonObject statusPagamento = new JsonObject();
-                    statusPagamento.put("txid", txid);
-                    statusPagamento.put("status", pixVencimento.getStatus());
-                    statusPagamento.put("valorOriginal", pixVencimento.getValorOriginal().toString());
-
-                    if (pixVencimento.isPaga()) {
-                        statusPagamento.put("pago", true);
-                        statusPagamento.put("valorPago", pixVencimento.getValorPago().toString());
-                        statusPagamento.put("horarioPagamento", pixVencimento.getHorarioPagamento().toString());
-                    } else {
-                        statusPagamento.put("pago", false);
-                        statusPagamento.put("dataVencimento", pixVencimento.getDataVencimento().toString());
-                    }
-
-                    return Response.ok(statusPagamento.encode()).build();
-                } else {
-                    // Tenta verificar status como cobrança imediata na API
-                    try {
-                        JsonObject statusPagamento = pixService.verificarStatusPagamento(txid);
-                        return Response.ok(statusPagamento.encode()).build();
-                    } catch (Exception e) {
-                        LOG.warn("Cobrança não encontrada no sistema: " + txid);
-                        return Response.status(Response.Status.NOT_FOUND)
-                                .entity(new JsonObject().put("erro", "Cobrança não encontrada").encode())
-                                .build();
-                    }
-                }
+            // Consultas simultâneas do mesmo txid compartilham a chamada ao banco
+            JsonObject statusPagamento = consultaStatusCoalescida.obter(txid, () -> consultarStatusPagamento(txid));
+            if (statusPagamento == null) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(new JsonObject().put("erro", "Cobrança não encontrada").encode())
+                        .build();
             }
+            return Response.ok(statusPagamento.encode()).build();
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao verificar status de pagamento", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -791,6 +1127,69 @@ public class PixResource {
         }
     }
 
+    /**
+     * Consulta o status de pagamento no banco e monta a resposta do endpoint de
+     * status
+     *
+     * @param txid ID da transação
+     * @return Status do pagamento, ou null se a cobrança não foi encontrada
+     * @throws Exception Se ocorrer algum erro na consulta
+     */
+    private JsonObject consultarStatusPagamento(String txid) throws Exception {
+        LOG.info("Verificando status de pagamento da cobrança: " + txid);
+
+        // Busca a cobrança (imediata ou com vencimento) em uma única consulta
+        Pix pix = pixService.consultarPixRepository(txid);
+        PixImediato pixImediato = pix instanceof PixImediato imediato ? imediato : null;
+
+        if (pixImediato != null) {
+            // É uma cobrança imediata, consulta status de pagamento
+            return pixService.verificarStatusPagamento(txid);
+        }
+
+        // Verifica se é cobrança com vencimento
+        PixComVencimento pixVencimento = pix instanceof PixComVencimento vencimento ? vencimento : null;
+
+        if (pixVencimento != null) {
+            // É uma cobrança com vencimento: a resposta reflete a consulta ao banco, não a
+            // entidade carregada antes dela
+            JsonObject resultado = pixService.consultarCobrancaVencimentoNoServidor(txid);
+
+            JsonObject statusPagamento = new JsonObject();
+            statusPagamento.put("txid", txid);
+            statusPagamento.put("status", resultado.getString("status", pixVencimento.getStatus()));
+            JsonObject valor = resultado.getJsonObject("valor");
+            statusPagamento.put("valorOriginal", valor != null && valor.containsKey("original")
+                    ? valor.getString("original")
+                    : pixVencimento.getValorOriginal().toString());
+
+            JsonArray pagamentos = resultado.getJsonArray("pix");
+            if (pagamentos != null && !pagamentos.isEmpty()) {
+                JsonObject pixInfo = pagamentos.getJsonObject(0);
+                statusPagamento.put("pago", true);
+                statusPagamento.put("endToEndId", pixInfo.getString("endToEndId", "N/A"));
+                statusPagamento.put("valorPago", pixInfo.getString("valor", "0"));
+                statusPagamento.put("horarioPagamento", pixInfo.getString("horario", "N/A"));
+            } else {
+                statusPagamento.put("pago", false);
+                JsonObject calendario = resultado.getJsonObject("calendario");
+                statusPagamento.put("dataVencimento", calendario != null && calendario.containsKey("dataDeVencimento")
+                        ? calendario.getString("dataDeVencimento")
+                        : pixVencimento.getDataVencimento().toString());
+            }
+
+            return statusPagamento;
+        }
+
+        // Tenta verificar status como cobrança imediata na API
+        try {
+            return pixService.verificarStatusPagamento(txid);
+        } catch (Exception e) {
+            LOG.warn("Cobrança não encontrada no sistema: " + txid);
+            return null;
+        }
+    }
+
     /**
      * Consulta se existe devolução para um Pix específico
      * 
@@ -815,6 +1214,8 @@ public class PixResource {
             JsonObject resultado = pixService.consultarDevolucao(txid);
 
             return Response.ok(resultado.encode()).build();
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao consultar devolução", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -828,10 +1229,14 @@ public class PixResource {
      * 
      * @param dataInicio Data inicial de vencimento
      * @param dataFim    Data final de vencimento
+     * @param limite     Tamanho da página
+     * @param cursor     Cursor retornado na página anterior (proximoCursor)
+     * @param formato    json (paginado) ou ndjson (todas as cobranças, em streaming)
      * @return Lista de cobranças com vencimento no período
      */
     @GET
     @Path("/cobrancas-vencimento/periodo")
+    @Produces({ MediaType.APPLICATION_JSON, TIPO_NDJSON })
     @Operation(summary = "Lista cobranças Pix com vencimento por período", description = "Este endpoint retorna cobranças Pix com vencimento dentro do período especificado. "
             +
             "É útil para visualizar e gerenciar cobranças cujos vencimentos estão próximos ou para análise histórica " +
@@ -841,7 +1246,10 @@ public class PixResource {
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
     public Response listarCobrancasPorPeriodo(
             @QueryParam("dataInicio") String dataInicioStr,
-            @QueryParam("dataFim") String dataFimStr) {
+            @QueryParam("dataFim") String dataFimStr,
+            @QueryParam("limite") @DefaultValue("100") int limite,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("formato") @DefaultValue("json") String formato) {
         try {
             LOG.info("Recebida solicitação para listar cobranças por período: " + dataInicioStr + " a " + dataFimStr);
 
@@ -868,27 +1276,24 @@ public class PixResource {
 
             LOG.info("Listando cobranças Pix com vencimento entre " + dataInicio + " e " + dataFim);
 
-            // Obter cobranças no período através do serviço
-           // List<PixComVencimento> cobrancas = pixService.listarCobrancasVencimentoPorPeriodo(dataInicio, dataFim);
-            List<Pix> cobrancas = pixService.listarCobrancasVencimentoPorPeriodo(dataInicio, dataFim);
-
-            // Transformar lista em array JSON
-            JsonObject resultado = new JsonObject();
-            JsonArray listaCobrancas = new JsonArray();
-
-            // for (PixComVencimento pix : cobrancas) {
-            //     listaCobrancas.add(pixService.criarJsonDePixVencimento(pix));
-            // }
-
-            for (Pix pix : cobrancas) {
-                listaCobrancas.add(pixService.criarJsonDePix(pix));
+            if (FORMATO_NDJSON.equals(formato)) {
+                // Exporta o período inteiro, uma cobrança por linha, sem materializar o resultado
+                StreamingOutput saida = corpo -> pixService.exportarCobrancasPorPeriodo(dataInicio, dataFim,
+                        escritorNdjson(corpo));
+                return Response.ok(saida).type(TIPO_NDJSON).build();
             }
 
-            resultado.put("quantidade", cobrancas.size());
-            resultado.put("cobrancas", listaCobrancas);
+            // Obter a página de cobranças no período através do serviço
+            PaginaCobrancasDTO pagina = pixService.listarCobrancasPorPeriodoPaginadas(dataInicio, dataFim,
+                    CursorPaginacao.decodificar(cursor), limitarPagina(limite));
 
-            LOG.info("Retornando " + cobrancas.size() + " cobranças encontradas");
-            return Response.ok(resultado.encode()).build();
+            LOG.info("Retornando " + pagina.cobrancas().size() + " cobranças encontradas");
+            return Response.ok(criarJsonDePagina(pagina).encode()).build();
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Parâmetros de paginação inválidos: " + e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", e.getMessage()).encode())
+                    .build();
         } catch (Exception e) {
             LOG.error("Erro ao listar cobranças por período", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -900,34 +1305,41 @@ public class PixResource {
     /**
      * Lista cobranças com vencimento vencidas e não pagas
      * 
+     * @param limite  Tamanho da página
+     * @param cursor  Cursor retornado na página anterior (proximoCursor)
+     * @param formato json (paginado) ou ndjson (todas as cobranças, em streaming)
      * @return Lista de cobranças vencidas e não pagas
      */
     @GET
     @Path("/cobrancas-vencimento/vencidas")
+    @Produces({ MediaType.APPLICATION_JSON, TIPO_NDJSON })
     @Operation(summary = "Lista cobranças Pix com vencimento vencidas e não pagas", description = "Este endpoint retorna cobranças Pix com vencimento que já passaram da data de vencimento e não foram pagas. "
             +
             "É útil para acompanhamento de inadimplência e para tomar ações apropriadas em relação a cobranças vencidas.")
     @APIResponse(responseCode = "200", description = "Lista de cobranças obtida com sucesso", content = @Content(mediaType = "application/json"))
     @APIResponse(responseCode = "500", description = "Erro interno ao processar a requisição", content = @Content(mediaType = "application/json"))
-    public Response listarCobrancasVencidas() {
+    public Response listarCobrancasVencidas(@QueryParam("limite") @DefaultValue("100") int limite,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("formato") @DefaultValue("json") String formato) {
         try {
             LOG.info("Listando cobranças Pix vencidas e não pagas");
 
-            // Obter cobranças vencidas
-            List<PixComVencimento> cobrancas = pixService.listarCobrancasVencimentoVencidas(LocalDate.now());
-
-            // Transformar lista em array JSON
-            JsonObject resultado = new JsonObject();
-            JsonArray listaCobrancas = new JsonArray();
-
-            for (PixComVencimento pix : cobrancas) {
-                listaCobrancas.add(pixService.criarJsonDePixVencimento(pix));
+            if (FORMATO_NDJSON.equals(formato)) {
+                LocalDate hoje = LocalDate.now();
+                StreamingOutput saida = corpo -> pixService.exportarCobrancasVencidas(hoje, escritorNdjson(corpo));
+                return Response.ok(saida).type(TIPO_NDJSON).build();
             }
 
-            resultado.put("quantidade", cobrancas.size());
-            resultado.put("cobrancas", listaCobrancas);
+            // Obter a página de cobranças vencidas
+            PaginaCobrancasDTO pagina = pixService.listarCobrancasVencidasPaginadas(LocalDate.now(),
+                    CursorPaginacao.decodificar(cursor), limitarPagina(limite));
 
-            return Response.ok(resultado.encode()).build();
+            return Response.ok(criarJsonDePagina(pagina).encode()).build();
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Parâmetros de paginação inválidos: " + e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("erro", e.getMessage()).encode())
+                    .build();
         } catch (Exception e) {
             LOG.error("Erro ao listar cobranças vencidas", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -996,6 +1408,8 @@ public class PixResource {
             JsonObject resultado = pixService.atualizarCobrancaVencimento(txid, pixExistente, false);
 
             return Response.ok(resultado.encode()).build();
+        } catch (BBIndisponivelException e) {
+            return bancoIndisponivel(e);
         } catch (Exception e) {
             LOG.error("Erro ao atualizar cobrança com vencimento", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,205 @@
+package org.acme.resource;
+
+import java.net.http.HttpResponse;
+
+import org.acme.config.PixConfig;
+import org.acme.service.PixService;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.logging.Logger;
+
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Recebimento de notificações de pagamento pelo webhook Pix e cadastro da URL
+ * de notificação no Banco do Brasil
+ *
+ * O banco acrescenta "/pix" à URL cadastrada ao notificar; por isso a URL a
+ * cadastrar é a base deste recurso (.../pix/webhook). Cada notificação pode
+ * trazer vários pagamentos, gravados em transações de tamanho fixo e de forma
+ * idempotente pelo endToEndId, já que o banco reenvia notificações não
+ * confirmadas. O callback só é aceito por TLS mútuo, com o certificado de
+ * cliente do banco (quarkus.http.auth.permission.webhook).
+ */
+@Path("/pix/webhook")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Webhook", description = "Notificações de pagamento Pix")
+public class PixWebhookResource {
+
+    private static final Logger LOG = Logger.getLogger(PixWebhookResource.class);
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    PixConfig pixConfig;
+
+    /**
+     * Recebe uma notificação de pagamentos do banco
+     *
+     * @param corpo Notificação no formato {"pix": [...]}
+     * @return Quantidade de pagamentos recebidos e aplicados
+     */
+    @POST
+    @Path("/pix")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Recebe notificações de pagamento Pix", description = "Callback chamado pelo banco com um array de pagamentos "
+            + "(endToEndId, txid, valor, horario). Pagamentos já registrados são ignorados, de modo que reenvios são seguros; "
+            + "pagamentos de cobranças não ativas ou com valor diferente do original ficam para a conciliação.")
+    @APIResponse(responseCode = "200", description = "Notificação processada", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "Notificação inválida", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "401", description = "Chamada sem o certificado de cliente do banco")
+    @APIResponse(responseCode = "500", description = "Erro ao gravar os pagamentos; o banco reenviará a notificação", content = @Content(mediaType = "application/json"))
+    public Response receberNotificacao(String corpo) {
+        JsonArray pagamentos;
+        try {
+            pagamentos = new JsonObject(corpo).getJsonArray("pix");
+        } catch (DecodeException | ClassCastException e) {
+            return erro(Response.Status.BAD_REQUEST, "Notificação inválida");
+        }
+        if (pagamentos == null) {
+            return erro(Response.Status.BAD_REQUEST, "Notificação sem o array pix");
+        }
+
+        int itensPorTransacao = Math.max(1, pixConfig.getWebhookItensPorTransacao());
+        int aplicados = 0;
+
+        try {
+            for (int inicio = 0; inicio < pagamentos.size(); inicio += itensPorTransacao) {
+                JsonArray parte = new JsonArray(
+                        pagamentos.getList().subList(inicio, Math.min(inicio + itensPorTransacao, pagamentos.size())));
+                aplicados += pixService.aplicarPagamentosWebhook(parte);
+            }
+        } catch (RuntimeException e) {
+            // As partes já gravadas são ignoradas no reenvio
+            LOG.error("Erro ao gravar pagamentos recebidos pelo webhook", e);
+            return erro(Response.Status.INTERNAL_SERVER_ERROR, "Erro ao gravar os pagamentos");
+        }
+
+        LOG.info("Webhook Pix: " + pagamentos.size() + " pagamentos recebidos, " + aplicados + " aplicados");
+        return Response.ok(new JsonObject()
+                .put("recebidos", pagamentos.size())
+                .put("aplicados", aplicados)
+                .encode())
+                .build();
+    }
+
+    /**
+     * Cadastra no banco a URL de notificação da chave
+     *
+     * @param chave Chave Pix
+     * @param corpo Objeto com o campo webhookUrl
+     * @return Resultado do cadastro
+     */
+    @PUT
+    @Path("/registro/{chave}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Cadastra o webhook Pix de uma chave", description = "Informa ao banco a URL (base deste recurso, .../pix/webhook) "
+            + "que receberá as notificações de pagamento da chave.")
+    @APIResponse(responseCode = "200", description = "Webhook cadastrado", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "400", description = "webhookUrl não informada", content = @Content(mediaType = "application/json"))
+    public Response configurarWebhook(@PathParam("chave") String chave, String corpo) {
+        String webhookUrl;
+        try {
+            webhookUrl = new JsonObject(corpo).getString("webhookUrl");
+        } catch (DecodeException | ClassCastException e) {
+            webhookUrl = null;
+        }
+        if (webhookUrl == null || webhookUrl.isBlank()) {
+            return erro(Response.Status.BAD_REQUEST, "webhookUrl não informada");
+        }
+
+        try {
+            LOG.info("Cadastrando webhook Pix da chave " + chave + ": " + webhookUrl);
+            return repassar(pixService.configurarWebhook(chave, webhookUrl),
+                    new JsonObject().put("chave", chave).put("webhookUrl", webhookUrl));
+        } catch (Exception e) {
+            LOG.error("Erro ao cadastrar webhook Pix", e);
+            return erro(Response.Status.INTERNAL_SERVER_ERROR, "Erro ao cadastrar webhook: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta no banco o webhook cadastrado para a chave
+     *
+     * @param chave Chave Pix
+     * @return Dados do webhook
+     */
+    @GET
+    @Path("/registro/{chave}")
+    @Operation(summary = "Consulta o webhook Pix de uma chave")
+    @APIResponse(responseCode = "200", description = "Webhook cadastrado", content = @Content(mediaType = "application/json"))
+    @APIResponse(responseCode = "404", description = "Nenhum webhook cadastrado", content = @Content(mediaType = "application/json"))
+    public Response consultarWebhook(@PathParam("chave") String chave) {
+        try {
+            HttpResponse<String> response = pixService.consultarWebhook(chave);
+            return repassar(response, response.body() == null || response.body().isBlank()
+                    ? new JsonObject()
+                    : new JsonObject(response.body()));
+        } catch (Exception e) {
+            LOG.error("Erro ao consultar webhook Pix", e);
+            return erro(Response.Status.INTERNAL_SERVER_ERROR, "Erro ao consultar webhook: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove no banco o webhook cadastrado para a chave
+     *
+     * @param chave Chave Pix
+     * @return Resultado da remoção
+     */
+    @DELETE
+    @Path("/registro/{chave}")
+    @Operation(summary = "Remove o webhook Pix de uma chave", description = "Após a remoção, os pagamentos da chave voltam a ser "
+            + "conhecidos apenas pela conciliação periódica.")
+    @APIResponse(responseCode = "200", description = "Webhook removido", content = @Content(mediaType = "application/json"))
+    public Response removerWebhook(@PathParam("chave") String chave) {
+        try {
+            LOG.info("Removendo webhook Pix da chave " + chave);
+            return repassar(pixService.removerWebhook(chave), new JsonObject().put("chave", chave).put("removido", true));
+        } catch (Exception e) {
+            LOG.error("Erro ao remover webhook Pix", e);
+            return erro(Response.Status.INTERNAL_SERVER_ERROR, "Erro ao remover webhook: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Converte a resposta do banco: sucesso devolve o conteúdo informado; erro
+     * repassa o código e a mensagem do banco
+     */
+    private static Response repassar(HttpResponse<String> response, JsonObject sucesso) {
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            return Response.ok(sucesso.encode()).build();
+        }
+
+        LOG.warn("Banco recusou a operação de webhook. Código: " + response.statusCode() + ", Resposta: "
+                + response.body());
+        return Response.status(response.statusCode())
+                .entity(new JsonObject()
+                        .put("erro", "Operação recusada pelo banco")
+                        .put("resposta", response.body())
+                        .encode())
+                .build();
+    }
+
+    private static Response erro(Response.Status status, String mensagem) {
+        return Response.status(status)
+                .entity(new JsonObject().put("erro", mensagem).encode())
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Monitora em segundo plano a conectividade com as APIs do Banco do Brasil
+ *
+ * Abre periodicamente uma conexão TCP com cada host configurado no PixConfig e
+ * guarda em memória o resultado e a latência, para que o fluxo de criação de
+ * cobranças consulte a disponibilidade sem custo.
+ */
+@ApplicationScoped
+public class BBHealthMonitor {
+
+    private static final Logger LOG = Logger.getLogger(BBHealthMonitor.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    private final Map<String, EstadoEndpoint> estados = new ConcurrentHashMap<>();
+
+    // Começa otimista para não bloquear cobranças antes da primeira verificação
+    private volatile boolean apiDisponivel = true;
+
+    /**
+     * Estado da última verificação de um endpoint
+     *
+     * @param url          URL verificada
+     * @param disponivel   true se a conexão foi estabelecida
+     * @param latenciaMs   Tempo para estabelecer a conexão, em milissegundos
+     * @param verificadoEm Data/hora da verificação
+     * @param erro         Mensagem de erro quando indisponível
+     */
+    public record EstadoEndpoint(String url, boolean disponivel, long latenciaMs, LocalDateTime verificadoEm,
+            String erro) {
+    }
+
+    /**
+     * Verifica a conectividade com os endpoints do banco
+     */
+    @Scheduled(every = "{pix.health.intervalo}", identity = "health-banco-brasil",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void verificar() {
+        Map<String, String> endpoints = new LinkedHashMap<>();
+        endpoints.put("oauth", pixConfig.getTokenUrl());
+        endpoints.put("cob", pixConfig.getPixBBImediatoUrl());
+        endpoints.put("cobv", pixConfig.getPixBBVencimentoUrl());
+
+        boolean disponivel = true;
+        for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+            EstadoEndpoint estado = verificarEndpoint(endpoint.getValue());
+            EstadoEndpoint anterior = estados.put(endpoint.getKey(), estado);
+
+            if (anterior != null && anterior.disponivel() != estado.disponivel()) {
+                LOG.warn("Endpoint " + endpoint.getKey() + " do Banco do Brasil mudou para "
+                        + (estado.disponivel() ? "disponível" : "indisponível: " + estado.erro()));
+            }
+
+            if (!"oauth".equals(endpoint.getKey())) {
+                disponivel &= estado.disponivel();
+            }
+        }
+
+        apiDisponivel = disponivel;
+    }
+
+    /**
+     * Indica se a API Pix do banco respondeu na última verificação
+     *
+     * @return true se a API estiver acessível
+     */
+    public boolean isApiDisponivel() {
+        return apiDisponivel;
+    }
+
+    /**
+     * Obtém o estado da última verificação de cada endpoint
+     *
+     * @return Mapa com o nome do endpoint e seu estado
+     */
+    public Map<String, EstadoEndpoint> getEstados() {
+        return Collections.unmodifiableMap(estados);
+    }
+
+    private EstadoEndpoint verificarEndpoint(String url) {
+        long inicio = System.nanoTime();
+        try {
+            URI uri = URI.create(url);
+            int porta = uri.getPort() != -1 ? uri.getPort() : ("http".equalsIgnoreCase(uri.getScheme()) ? 80 : 443);
+
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(uri.getHost(), porta), pixConfig.getHealthTimeoutMs());
+            }
+
+            long latencia = (System.nanoTime() - inicio) / 1_000_000;
+            return new EstadoEndpoint(url, true, latencia, LocalDateTime.now(), null);
+        } catch (IOException | IllegalArgumentException e) {
+            long latencia = (System.nanoTime() - inicio) / 1_000_000;
+            return new EstadoEndpoint(url, false, latencia, LocalDateTime.now(), e.getMessage());
+        }
+    }
+}
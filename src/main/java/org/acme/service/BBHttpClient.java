@@ -0,0 +1,319 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cliente HTTP compartilhado para todas as chamadas às APIs do Banco do Brasil
+ *
+ * Mantém uma única instância de {@link HttpClient} para que as conexões TLS
+ * sejam reaproveitadas entre requisições, em vez de criar um cliente novo (e um
+ * novo handshake) a cada chamada.
+ *
+ * Cada endpoint do banco (oauth, cob, cobv, lotecobv, webhook) tem seu próprio
+ * {@link Disjuntor}: uma degradação do banco passa a ser recusada na hora, com
+ * {@link BBIndisponivelException}, em vez de ocupar threads até o timeout.
+ * Antes do circuito, um {@link LimitadorTaxa} por app key e endpoint mantém o
+ * ritmo das chamadas dentro da cota do banco.
+ */
+@ApplicationScoped
+public class BBHttpClient {
+
+    private static final Logger LOG = Logger.getLogger(BBHttpClient.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    private HttpClient client;
+    private ExecutorService executor;
+    private Duration requestTimeout;
+
+    // Limita as requisições simultâneas por host (oauth, api)
+    private final Map<String, Semaphore> permissoesPorHost = new ConcurrentHashMap<>();
+
+    // Nome do endpoint por URL base, na ordem de verificação
+    private final Map<String, String> endpoints = new LinkedHashMap<>();
+
+    private final Map<String, Disjuntor> disjuntores = new ConcurrentHashMap<>();
+
+    // Limitador por app key e endpoint
+    private final Map<String, LimitadorTaxa> limitadores = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void inicializar() {
+        // O pool interno do java.net.http é configurado por propriedades de sistema,
+        // lidas na primeira criação de um HttpClient na JVM
+        definirPropriedadeSeAusente("jdk.httpclient.connectionPoolSize",
+                String.valueOf(pixConfig.getHttpPoolConexoes()));
+        definirPropriedadeSeAusente("jdk.httpclient.keepalive.timeout",
+                String.valueOf(pixConfig.getHttpKeepAliveSegundos()));
+
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(pixConfig.getHttpThreads(), r -> {
+            Thread t = new Thread(r, "bb-http-" + contador.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        requestTimeout = Duration.ofSeconds(pixConfig.getHttpRequestTimeoutSegundos());
+
+        endpoints.put(semBarraFinal(pixConfig.getTokenUrl()), "oauth");
+        endpoints.put(semBarraFinal(pixConfig.getPixBBVencimentoUrl()), "cobv");
+        endpoints.put(semBarraFinal(pixConfig.getPixBBImediatoUrl()), "cob");
+        endpoints.put(semBarraFinal(pixConfig.getPixBBLoteCobvUrl()), "lotecobv");
+        endpoints.put(semBarraFinal(pixConfig.getPixBBWebhookUrl()), "webhook");
+
+        client = HttpClient.newBuilder()
+                .version(resolverVersao(pixConfig.getHttpVersao()))
+                .connectTimeout(Duration.ofSeconds(pixConfig.getHttpConnectTimeoutSegundos()))
+                .executor(executor)
+                .build();
+
+        LOG.info("Cliente HTTP do Banco do Brasil inicializado: versão " + client.version()
+                + ", pool " + pixConfig.getHttpPoolConexoes()
+                + ", máximo por host " + pixConfig.getHttpMaxConexoesPorHost());
+    }
+
+    @PreDestroy
+    void encerrar() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Cria um builder de requisição para a URL informada, já com o timeout de
+     * resposta configurado
+     *
+     * @param url URL completa da requisição
+     * @return Builder da requisição
+     */
+    public HttpRequest.Builder requisicao(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout);
+    }
+
+    /**
+     * Envia uma requisição pelo cliente compartilhado, respeitando a cota da
+     * app key no endpoint, o circuito do endpoint e o limite de requisições
+     * simultâneas por host
+     *
+     * Respostas 429 reduzem a taxa do limitador e a requisição é repetida
+     * depois do Retry-After, até pix.limite.tentativas-429 vezes; a resposta
+     * 429 só é devolvida quando as tentativas se esgotam.
+     *
+     * @param request Requisição a ser enviada
+     * @return Resposta com o corpo em texto
+     * @throws BBIndisponivelException Se o circuito do endpoint estiver aberto,
+     *                                 sem vagas ou com a cota esgotada
+     * @throws IOException             Se ocorrer erro de comunicação
+     * @throws InterruptedException    Se a thread for interrompida enquanto aguarda
+     */
+    public HttpResponse<String> enviar(HttpRequest request) throws IOException, InterruptedException {
+        String endpoint = resolverEndpoint(request.uri());
+        Disjuntor disjuntor = disjuntores.computeIfAbsent(endpoint, this::criarDisjuntor);
+        LimitadorTaxa limitador = pixConfig.isLimiteHabilitado()
+                ? limitadores.computeIfAbsent(appKey(request.uri()) + ":" + endpoint, chave -> criarLimitador(endpoint))
+                : null;
+
+        for (int tentativa = 0;; tentativa++) {
+            if (limitador != null) {
+                limitador.adquirir();
+            }
+
+            HttpResponse<String> response = enviarComCircuito(request, disjuntor);
+            if (limitador == null) {
+                return response;
+            }
+
+            int status = response.statusCode();
+            if (status != 429) {
+                // Só respostas do banco dentro da cota aumentam a taxa; 5xx e 408 não dizem nada sobre ela
+                if (status < 500 && status != 408) {
+                    limitador.registrarSucesso();
+                }
+                return response;
+            }
+
+            limitador.registrarLimite(retryAfter(response));
+            if (tentativa >= pixConfig.getLimiteTentativas429()) {
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Obtém o estado do circuito de cada endpoint já chamado
+     *
+     * @return Mapa com o nome do endpoint e as métricas do circuito
+     */
+    public Map<String, Disjuntor.Metricas> getCircuitos() {
+        Map<String, Disjuntor.Metricas> circuitos = new LinkedHashMap<>();
+        for (Map.Entry<String, Disjuntor> entrada : disjuntores.entrySet()) {
+            circuitos.put(entrada.getKey(), entrada.getValue().getMetricas());
+        }
+        return Collections.unmodifiableMap(circuitos);
+    }
+
+    /**
+     * Obtém a taxa atual dos limitadores de cada endpoint já chamado, somando
+     * os limitadores das diferentes app keys do mesmo endpoint
+     *
+     * @return Mapa com o nome do endpoint e as métricas do limitador
+     */
+    public Map<String, LimitadorTaxa.Metricas> getLimites() {
+        Map<String, LimitadorTaxa.Metricas> limites = new LinkedHashMap<>();
+        for (Map.Entry<String, LimitadorTaxa> entrada : limitadores.entrySet()) {
+            // A app key não é exposta; a chave publicada é só o endpoint
+            String chave = entrada.getKey();
+            limites.merge(chave.substring(chave.lastIndexOf(':') + 1), entrada.getValue().getMetricas(),
+                    LimitadorTaxa.Metricas::somar);
+        }
+        return Collections.unmodifiableMap(limites);
+    }
+
+    /**
+     * Obtém o cliente HTTP compartilhado
+     *
+     * @return Instância única do HttpClient
+     */
+    public HttpClient getClient() {
+        return client;
+    }
+
+    private HttpResponse<String> enviarComCircuito(HttpRequest request, Disjuntor disjuntor)
+            throws IOException, InterruptedException {
+        boolean teste = disjuntor.adquirir();
+
+        Semaphore permissoes = permissoesPorHost.computeIfAbsent(request.uri().getHost(),
+                host -> new Semaphore(pixConfig.getHttpMaxConexoesPorHost()));
+
+        HttpResponse<String> response;
+        try {
+            permissoes.acquire();
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } finally {
+                permissoes.release();
+            }
+        } catch (IOException e) {
+            disjuntor.liberar(teste, false);
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            disjuntor.descartar(teste);
+            throw e;
+        }
+
+        // Rejeições 4xx (inclusive 429) são respostas válidas do banco; só timeout e erro do servidor indicam degradação
+        disjuntor.liberar(teste, response.statusCode() < 500 && response.statusCode() != 408);
+        return response;
+    }
+
+    private LimitadorTaxa criarLimitador(String endpoint) {
+        return new LimitadorTaxa(endpoint, pixConfig.getLimiteTaxaInicial(), pixConfig.getLimiteTaxaMinima(),
+                pixConfig.getLimiteTaxaMaxima(), pixConfig.getLimiteRajada(), pixConfig.getLimiteFatorReducao(),
+                pixConfig.getLimiteIncremento(), pixConfig.getLimiteEsperaMaximaMs());
+    }
+
+    /**
+     * Obtém a app key da query da requisição; o token OAuth não tem app key e
+     * usa a cota do próprio endpoint
+     */
+    private static String appKey(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return "";
+        }
+        for (String parametro : query.split("&")) {
+            if (parametro.startsWith("gw-dev-app-key=")) {
+                return parametro.substring("gw-dev-app-key=".length());
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Lê o Retry-After em segundos ou como data HTTP; sem cabeçalho, espera 1
+     * segundo
+     */
+    private static long retryAfter(HttpResponse<String> response) {
+        String valor = response.headers().firstValue("Retry-After").orElse(null);
+        if (valor == null || valor.isBlank()) {
+            return 1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(valor.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime data = ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(), data).toSeconds());
+            } catch (DateTimeParseException ignorada) {
+                return 1;
+            }
+        }
+    }
+
+    private Disjuntor criarDisjuntor(String endpoint) {
+        return new Disjuntor(endpoint, pixConfig.getCircuitoJanela(), pixConfig.getCircuitoMinimoChamadas(),
+                pixConfig.getCircuitoTaxaFalhaPercentual(), pixConfig.getCircuitoAbertoSegundos(),
+                pixConfig.getCircuitoChamadasTeste(), pixConfig.getCircuitoMaxConcorrentes(),
+                pixConfig.getCircuitoEsperaVagaMs());
+    }
+
+    /**
+     * Identifica o endpoint pela URL base configurada; URLs desconhecidas
+     * usam um circuito por host
+     */
+    private String resolverEndpoint(URI uri) {
+        String url = uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath();
+        for (Map.Entry<String, String> endpoint : endpoints.entrySet()) {
+            String base = endpoint.getKey();
+            if (url.equals(base) || url.startsWith(base + "/")) {
+                return endpoint.getValue();
+            }
+        }
+        return uri.getHost();
+    }
+
+    private static String semBarraFinal(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static HttpClient.Version resolverVersao(String versao) {
+        if ("HTTP_1_1".equalsIgnoreCase(versao)) {
+            return HttpClient.Version.HTTP_1_1;
+        }
+        // HTTP/2 é negociado via ALPN; o cliente volta para HTTP/1.1 se o servidor não suportar
+        return HttpClient.Version.HTTP_2;
+    }
+
+    private static void definirPropriedadeSeAusente(String nome, String valor) {
+        if (System.getProperty(nome) == null) {
+            System.setProperty(nome, valor);
+        }
+    }
+}
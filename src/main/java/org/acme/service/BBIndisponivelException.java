@@ -0,0 +1,41 @@
+package org.acme.service;
+
+import java.io.IOException;
+
+/**
+ * Requisição ao Banco do Brasil recusada localmente, sem chegar à rede: o
+ * circuito do endpoint está aberto ou o limite de chamadas simultâneas foi
+ * atingido
+ *
+ * Estende IOException para seguir o mesmo tratamento das falhas de comunicação
+ * (a cobrança permanece pendente e pode ser reenviada).
+ */
+public class BBIndisponivelException extends IOException {
+
+    private final String endpoint;
+    private final long retryAfterSegundos;
+
+    public BBIndisponivelException(String endpoint, String mensagem, long retryAfterSegundos) {
+        super(mensagem);
+        this.endpoint = endpoint;
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    /**
+     * Obtém o endpoint do banco que recusou a chamada (oauth, cob, cobv...)
+     *
+     * @return Nome do endpoint
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Obtém em quantos segundos vale a pena tentar novamente
+     *
+     * @return Segundos sugeridos para o cabeçalho Retry-After
+     */
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
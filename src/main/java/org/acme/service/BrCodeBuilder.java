@@ -0,0 +1,242 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Monta localmente o texto Pix Copia e Cola (BR Code, padrão EMV MPM) de
+ * cobranças estáticas e dinâmicas
+ *
+ * Os campos TLV são escritos em um buffer de caracteres reaproveitado por
+ * thread, sem concatenações intermediárias; o tamanho dos templates aninhados
+ * (26 e 62) é preenchido depois do conteúdo e o CRC16-CCITT (polinômio 0x1021,
+ * valor inicial 0xFFFF) é calculado por tabela. Textos livres (nome, cidade,
+ * descrição) são reduzidos ao conjunto de caracteres aceito pelos leitores:
+ * sem acentos e nos tamanhos máximos do manual do BR Code.
+ */
+@ApplicationScoped
+public class BrCodeBuilder {
+
+    private static final String GUI_PIX = "br.gov.bcb.pix";
+
+    // Tamanho máximo de um BR Code; o campo de tamanho do TLV tem 2 dígitos
+    private static final int TAMANHO_MAXIMO = 512;
+
+    private static final int TAMANHO_MAXIMO_NOME = 25;
+    private static final int TAMANHO_MAXIMO_CIDADE = 15;
+    private static final int TAMANHO_MAXIMO_TXID = 25;
+
+    private static final int[] TABELA_CRC = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc = i << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            TABELA_CRC[i] = crc & 0xFFFF;
+        }
+    }
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[TAMANHO_MAXIMO]);
+
+    /**
+     * Monta o BR Code estático de uma chave Pix, que não depende de nenhuma
+     * chamada ao banco
+     *
+     * @param chave     Chave Pix do recebedor
+     * @param valor     Valor fixo ou null para o pagador informar
+     * @param nome      Nome do recebedor
+     * @param cidade    Cidade do recebedor
+     * @param txid      Identificador de até 25 caracteres ou null ("***")
+     * @param descricao Informação adicional ao pagador ou null
+     * @return Texto Pix Copia e Cola
+     */
+    public String gerarEstatico(String chave, BigDecimal valor, String nome, String cidade, String txid,
+            String descricao) {
+        if (chave == null || chave.isBlank()) {
+            throw new IllegalArgumentException("Chave Pix é obrigatória");
+        }
+        if (txid != null && (txid.length() > TAMANHO_MAXIMO_TXID || !txid.matches("[A-Za-z0-9]+"))) {
+            throw new IllegalArgumentException("TxID do BR Code estático deve ter até 25 caracteres alfanuméricos");
+        }
+
+        Escritor escritor = new Escritor(BUFFER.get());
+        escritor.campo("00", "01");
+
+        int conta = escritor.abrir("26");
+        escritor.campo("00", GUI_PIX);
+        escritor.campo("01", chave);
+        String informacao = descricao != null ? normalizar(descricao) : "";
+        // Respeita o limite de 99 caracteres do template 26
+        int disponivel = 99 - GUI_PIX.length() - 4 - (chave.length() + 4) - 4;
+        if (!informacao.isEmpty() && disponivel > 0) {
+            escritor.campo("02", limitar(informacao, disponivel));
+        }
+        escritor.fechar(conta);
+
+        escritor.campo("52", "0000");
+        escritor.campo("53", "986");
+        if (valor != null) {
+            escritor.campo("54", valor.setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        escreverRecebedor(escritor, nome, cidade);
+
+        int adicionais = escritor.abrir("62");
+        escritor.campo("05", txid != null ? txid : "***");
+        escritor.fechar(adicionais);
+
+        return escritor.finalizarComCrc();
+    }
+
+    /**
+     * Monta o BR Code dinâmico a partir do location (payload URL) da cobrança
+     * registrada no banco
+     *
+     * @param location URL do payload, com ou sem "https://"
+     * @param nome     Nome do recebedor
+     * @param cidade   Cidade do recebedor
+     * @return Texto Pix Copia e Cola
+     */
+    public String gerarDinamico(String location, String nome, String cidade) {
+        if (location == null || location.isBlank()) {
+            throw new IllegalArgumentException("Location da cobrança é obrigatório");
+        }
+
+        String url = location.startsWith("https://") ? location.substring("https://".length()) : location;
+
+        Escritor escritor = new Escritor(BUFFER.get());
+        escritor.campo("00", "01");
+        // Ponto de iniciação 12: o QR Code vale para um único pagamento
+        escritor.campo("01", "12");
+
+        int conta = escritor.abrir("26");
+        escritor.campo("00", GUI_PIX);
+        escritor.campo("25", url);
+        escritor.fechar(conta);
+
+        escritor.campo("52", "0000");
+        escritor.campo("53", "986");
+        escreverRecebedor(escritor, nome, cidade);
+
+        int adicionais = escritor.abrir("62");
+        escritor.campo("05", "***");
+        escritor.fechar(adicionais);
+
+        return escritor.finalizarComCrc();
+    }
+
+    /**
+     * Calcula o CRC16-CCITT de um texto ASCII, como exigido no campo 63
+     *
+     * @param texto Texto, incluindo "6304"
+     * @return CRC de 16 bits
+     */
+    public static int calcularCrc16(CharSequence texto) {
+        int crc = 0xFFFF;
+        for (int i = 0; i < texto.length(); i++) {
+            crc = atualizarCrc16(crc, texto.charAt(i));
+        }
+        return crc;
+    }
+
+    private static int atualizarCrc16(int crc, char caractere) {
+        return ((crc << 8) ^ TABELA_CRC[((crc >>> 8) ^ caractere) & 0xFF]) & 0xFFFF;
+    }
+
+    private static void escreverRecebedor(Escritor escritor, String nome, String cidade) {
+        escritor.campo("58", "BR");
+        escritor.campo("59", limitar(normalizar(nome != null ? nome : ""), TAMANHO_MAXIMO_NOME));
+        escritor.campo("60", limitar(normalizar(cidade != null ? cidade : ""), TAMANHO_MAXIMO_CIDADE));
+    }
+
+    private static String normalizar(String texto) {
+        // Remove acentos; os leitores de BR Code aceitam apenas ASCII
+        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return semAcentos.replaceAll("[^\\x20-\\x7E]", "").trim();
+    }
+
+    private static String limitar(String texto, int tamanho) {
+        return texto.length() > tamanho ? texto.substring(0, tamanho) : texto;
+    }
+
+    /**
+     * Escreve campos TLV em um buffer de caracteres reaproveitado
+     */
+    private static final class Escritor {
+
+        private final char[] buffer;
+        private int posicao;
+
+        Escritor(char[] buffer) {
+            this.buffer = buffer;
+        }
+
+        void campo(String id, String valor) {
+            if (valor.isEmpty()) {
+                throw new IllegalArgumentException("Campo " + id + " do BR Code não pode ser vazio");
+            }
+            if (valor.length() > 99) {
+                throw new IllegalArgumentException("Campo " + id + " do BR Code excede 99 caracteres");
+            }
+            escrever(id);
+            escreverTamanho(valor.length());
+            escrever(valor);
+        }
+
+        /**
+         * Inicia um template e devolve a posição do seu tamanho, preenchido em
+         * fechar
+         */
+        int abrir(String id) {
+            escrever(id);
+            int posicaoTamanho = posicao;
+            escrever("00");
+            return posicaoTamanho;
+        }
+
+        void fechar(int posicaoTamanho) {
+            int tamanho = posicao - posicaoTamanho - 2;
+            if (tamanho > 99) {
+                throw new IllegalArgumentException("Template do BR Code excede 99 caracteres");
+            }
+            buffer[posicaoTamanho] = (char) ('0' + tamanho / 10);
+            buffer[posicaoTamanho + 1] = (char) ('0' + tamanho % 10);
+        }
+
+        String finalizarComCrc() {
+            escrever("6304");
+            int crc = 0xFFFF;
+            for (int i = 0; i < posicao; i++) {
+                crc = atualizarCrc16(crc, buffer[i]);
+            }
+            for (int deslocamento = 12; deslocamento >= 0; deslocamento -= 4) {
+                escreverCaractere(Character.toUpperCase(Character.forDigit((crc >>> deslocamento) & 0xF, 16)));
+            }
+            return new String(buffer, 0, posicao);
+        }
+
+        private void escreverTamanho(int tamanho) {
+            escreverCaractere((char) ('0' + tamanho / 10));
+            escreverCaractere((char) ('0' + tamanho % 10));
+        }
+
+        private void escrever(String texto) {
+            if (posicao + texto.length() > buffer.length) {
+                throw new IllegalArgumentException("BR Code excede " + buffer.length + " caracteres");
+            }
+            texto.getChars(0, texto.length(), buffer, posicao);
+            posicao += texto.length();
+        }
+
+        private void escreverCaractere(char caractere) {
+            if (posicao >= buffer.length) {
+                throw new IllegalArgumentException("BR Code excede " + buffer.length + " caracteres");
+            }
+            buffer[posicao++] = caractere;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.acme.service;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+import org.acme.config.PixConfig;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixImediatoRepository;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Concilia periodicamente a situação e os pagamentos das cobranças locais com o
+ * Banco do Brasil
+ *
+ * Em vez de consultar cada txid, lista as cobranças por período de criação (GET
+ * /cob e /cobv, paginado) e aplica cada página em uma única transação. O período
+ * começa na cobrança ATIVA mais antiga dentro da janela configurada, de modo que
+ * nenhuma requisição é feita quando não há cobranças em aberto.
+ */
+@ApplicationScoped
+public class ConciliacaoScheduler {
+
+    private static final Logger LOG = Logger.getLogger(ConciliacaoScheduler.class);
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixConfig pixConfig;
+
+    /**
+     * Concilia as cobranças ATIVAS da janela configurada com a listagem do banco
+     */
+    @Scheduled(every = "{pix.conciliacao.intervalo}", identity = "conciliacao-cobrancas",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void conciliar() {
+        if (!pixConfig.isConciliacaoHabilitada()) {
+            return;
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+
+        LocalDateTime inicioCob = pixImediatoRepository
+                .buscarCriacaoAtivaMaisAntiga(agora.minusHours(pixConfig.getConciliacaoJanelaCobHoras()));
+        if (inicioCob != null) {
+            conciliarPeriodo(false, inicioCob, agora);
+        }
+
+        LocalDateTime inicioCobv = pixComVencimentoRepository
+                .buscarCriacaoAtivaMaisAntiga(agora.minusDays(pixConfig.getConciliacaoJanelaCobvDias()));
+        if (inicioCobv != null) {
+            conciliarPeriodo(true, inicioCobv, agora);
+        }
+    }
+
+    private void conciliarPeriodo(boolean cobv, LocalDateTime inicio, LocalDateTime fim) {
+        String tipo = cobv ? "cobv" : "cob";
+        ZoneId zona = ZoneId.systemDefault();
+        OffsetDateTime inicioConsulta = inicio.atZone(zona).toOffsetDateTime();
+        OffsetDateTime fimConsulta = fim.atZone(zona).toOffsetDateTime();
+        int itensPorPagina = Math.max(1, pixConfig.getConciliacaoItensPorPagina());
+
+        int pagina = 0;
+        int quantidadeDePaginas = 1;
+        int recebidas = 0;
+        int alteradas = 0;
+
+        try {
+            while (pagina < quantidadeDePaginas) {
+                JsonObject resposta = pixService.listarCobrancasNoBanco(cobv, inicioConsulta, fimConsulta, pagina,
+                        itensPorPagina);
+                JsonArray cobrancas = resposta.getJsonArray(cobv ? "cobsv" : "cobs", new JsonArray());
+
+                recebidas += cobrancas.size();
+                alteradas += pixService.conciliarCobrancas(cobrancas);
+
+                JsonObject parametros = resposta.getJsonObject("parametros");
+                JsonObject paginacao = parametros != null ? parametros.getJsonObject("paginacao") : null;
+                quantidadeDePaginas = paginacao != null ? paginacao.getInteger("quantidadeDePaginas", 1) : 1;
+                pagina++;
+            }
+        } catch (Exception e) {
+            // As páginas já aplicadas permanecem; o próximo ciclo consulta o período novamente
+            LOG.warn("Falha na conciliação de cobranças " + tipo + " na página " + pagina + ": " + e.getMessage());
+        }
+
+        if (alteradas > 0) {
+            LOG.info("Conciliação " + tipo + ": " + recebidas + " cobranças consultadas em " + pagina
+                    + " páginas, " + alteradas + " atualizadas");
+        } else {
+            LOG.debug("Conciliação " + tipo + ": " + recebidas + " cobranças consultadas, nenhuma alteração");
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.acme.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * Agrupa as consultas de status simultâneas de um mesmo txid em uma única
+ * chamada ao Banco do Brasil
+ *
+ * A primeira consulta de um txid executa a chamada; as que chegam enquanto ela
+ * está em andamento aguardam e recebem o mesmo resultado (ou o mesmo erro). Um
+ * resultado obtido com sucesso ainda é reaproveitado durante uma janela curta
+ * (pix.status.coalescencia.janela-ms), o que cobre os clientes que consultam em
+ * sequência logo depois. Uma alteração de status da cobrança (webhook,
+ * conciliação, cancelamento) descarta o resultado guardado, para que a próxima
+ * consulta reflita a alteração.
+ */
+@ApplicationScoped
+public class ConsultaStatusCoalescida {
+
+    private static final Logger LOG = Logger.getLogger(ConsultaStatusCoalescida.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    // Chamadas em andamento, por txid
+    private final Map<String, CompletableFuture<JsonObject>> emAndamento = new ConcurrentHashMap<>();
+
+    // Resultados recentes, por txid
+    private final Map<String, Resultado> recentes = new ConcurrentHashMap<>();
+
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder reaproveitadas = new LongAdder();
+
+    /**
+     * Retrato dos contadores
+     *
+     * @param chamadas       Consultas que executaram a chamada ao banco
+     * @param reaproveitadas Consultas atendidas pelo resultado de outra
+     */
+    public record Metricas(long chamadas, long reaproveitadas) {
+    }
+
+    /**
+     * Consulta executada quando não há resultado recente nem chamada em andamento
+     */
+    @FunctionalInterface
+    public interface Consulta {
+        JsonObject executar() throws Exception;
+    }
+
+    // Status é null quando a cobrança não foi encontrada
+    private record Resultado(JsonObject status, long obtidoEm) {
+    }
+
+    /**
+     * Obtém o status do txid, compartilhando a chamada com as consultas
+     * simultâneas
+     *
+     * @param txid     ID da transação
+     * @param consulta Consulta ao banco
+     * @return Cópia do status obtido, ou null se a consulta não encontrou a
+     *         cobrança
+     * @throws Exception O mesmo erro da chamada compartilhada
+     */
+    public JsonObject obter(String txid, Consulta consulta) throws Exception {
+        long janela = TimeUnit.MILLISECONDS.toNanos(pixConfig.getStatusCoalescenciaJanelaMs());
+
+        Resultado recente = recentes.get(txid);
+        if (recente != null) {
+            if (System.nanoTime() - recente.obtidoEm() < janela) {
+                reaproveitadas.increment();
+                return copiar(recente.status());
+            }
+            recentes.remove(txid, recente);
+        }
+
+        CompletableFuture<JsonObject> futuro = new CompletableFuture<>();
+        CompletableFuture<JsonObject> existente = emAndamento.putIfAbsent(txid, futuro);
+        if (existente != null) {
+            reaproveitadas.increment();
+            return copiar(aguardar(existente));
+        }
+
+        chamadas.increment();
+        JsonObject status;
+        try {
+            status = consulta.executar();
+        } catch (Exception | Error e) {
+            emAndamento.remove(txid, futuro);
+            futuro.completeExceptionally(e);
+            throw e;
+        }
+
+        // Se o status foi invalidado durante a chamada, o resultado não é guardado
+        if (emAndamento.remove(txid, futuro) && janela > 0) {
+            guardar(txid, new Resultado(status, System.nanoTime()));
+        }
+        futuro.complete(status);
+        return copiar(status);
+    }
+
+    /**
+     * Descarta o resultado guardado do txid; consultas novas voltam ao banco
+     *
+     * @param txid ID da transação
+     */
+    public void invalidar(String txid) {
+        recentes.remove(txid);
+        emAndamento.remove(txid);
+    }
+
+    /**
+     * Obtém os contadores de chamadas e reaproveitamentos
+     *
+     * @return Retrato das métricas
+     */
+    public Metricas getMetricas() {
+        return new Metricas(chamadas.sum(), reaproveitadas.sum());
+    }
+
+    void aoAlterarStatus(@Observes(during = TransactionPhase.AFTER_SUCCESS) StatusCobrancaAlterada alteracao) {
+        invalidar(alteracao.txid());
+    }
+
+    private void guardar(String txid, Resultado resultado) {
+        recentes.put(txid, resultado);
+
+        if (recentes.size() > pixConfig.getStatusCoalescenciaMaxEntradas()) {
+            // Remove os vencidos; se não bastar, descarta tudo e recomeça
+            long limite = resultado.obtidoEm()
+                    - TimeUnit.MILLISECONDS.toNanos(pixConfig.getStatusCoalescenciaJanelaMs());
+            recentes.values().removeIf(r -> r.obtidoEm() - limite <= 0);
+            if (recentes.size() > pixConfig.getStatusCoalescenciaMaxEntradas()) {
+                LOG.debug("Status recentes acima do limite (" + recentes.size() + "); descartados");
+                recentes.clear();
+            }
+        }
+    }
+
+    private static JsonObject aguardar(CompletableFuture<JsonObject> futuro) throws Exception {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof Exception excecao) {
+                throw excecao;
+            }
+            throw (Error) causa;
+        }
+    }
+
+    private static JsonObject copiar(JsonObject status) {
+        return status == null ? null : status.copy();
+    }
+}
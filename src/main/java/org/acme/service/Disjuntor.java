@@ -0,0 +1,252 @@
+package org.acme.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Circuit breaker e bulkhead de um endpoint do Banco do Brasil
+ *
+ * Fechado, acompanha o resultado das últimas chamadas (janela por contagem) e
+ * abre quando a taxa de falhas atinge o limite configurado. Aberto, recusa as
+ * chamadas imediatamente até o fim do tempo de espera; depois passa a meio
+ * aberto e deixa passar algumas chamadas de teste: se todas derem certo o
+ * circuito fecha, se uma falhar ele volta a abrir. Independentemente do
+ * estado, o número de chamadas simultâneas é limitado, e quem não consegue vaga
+ * dentro da espera configurada também é recusado, em vez de prender a thread.
+ */
+public class Disjuntor {
+
+    private static final Logger LOG = Logger.getLogger(Disjuntor.class);
+
+    /**
+     * Estado do circuito
+     */
+    public enum Estado {
+        FECHADO, ABERTO, MEIO_ABERTO
+    }
+
+    /**
+     * Retrato dos contadores do circuito
+     *
+     * @param estado     Estado atual
+     * @param alteradoEm Data/hora da última transição de estado
+     * @param chamadas   Chamadas concluídas desde a inicialização
+     * @param falhas     Chamadas concluídas com falha
+     * @param rejeitadas Chamadas recusadas sem chegar ao banco
+     * @param aberturas  Vezes em que o circuito abriu
+     * @param emUso      Chamadas em andamento
+     */
+    public record Metricas(Estado estado, LocalDateTime alteradoEm, long chamadas, long falhas, long rejeitadas,
+            long aberturas, int emUso) {
+    }
+
+    private final String endpoint;
+    private final int minimoChamadas;
+    private final int taxaFalhaPercentual;
+    private final int chamadasTeste;
+    private final long abertoNanos;
+    private final long esperaVagaMs;
+    private final int maxConcorrentes;
+    private final Semaphore vagas;
+
+    // Resultados da janela (true = falha), protegidos pelo monitor da instância
+    private final boolean[] janela;
+    private int posicao;
+    private int registradas;
+    private int falhasNaJanela;
+
+    private Estado estado = Estado.FECHADO;
+    private LocalDateTime alteradoEm = LocalDateTime.now();
+    private long abertoAte;
+    private int testesEmAndamento;
+    private int testesComSucesso;
+
+    private final LongAdder chamadas = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder rejeitadas = new LongAdder();
+    private final LongAdder aberturas = new LongAdder();
+
+    /**
+     * @param endpoint            Nome do endpoint (oauth, cob, cobv...)
+     * @param tamanhoJanela       Quantidade de chamadas avaliadas
+     * @param minimoChamadas      Chamadas na janela antes de o circuito poder abrir
+     * @param taxaFalhaPercentual Percentual de falhas que abre o circuito
+     * @param abertoSegundos      Tempo aberto antes das chamadas de teste
+     * @param chamadasTeste       Chamadas de teste no estado meio aberto
+     * @param maxConcorrentes     Chamadas simultâneas permitidas
+     * @param esperaVagaMs        Espera máxima por uma vaga
+     */
+    public Disjuntor(String endpoint, int tamanhoJanela, int minimoChamadas, int taxaFalhaPercentual,
+            int abertoSegundos, int chamadasTeste, int maxConcorrentes, long esperaVagaMs) {
+        this.endpoint = endpoint;
+        this.janela = new boolean[Math.max(1, tamanhoJanela)];
+        this.minimoChamadas = Math.max(1, Math.min(minimoChamadas, janela.length));
+        this.taxaFalhaPercentual = taxaFalhaPercentual;
+        this.abertoNanos = TimeUnit.SECONDS.toNanos(abertoSegundos);
+        this.chamadasTeste = Math.max(1, chamadasTeste);
+        this.maxConcorrentes = Math.max(1, maxConcorrentes);
+        this.esperaVagaMs = esperaVagaMs;
+        this.vagas = new Semaphore(this.maxConcorrentes);
+    }
+
+    /**
+     * Pede autorização para uma chamada. Toda autorização concedida deve ser
+     * encerrada com {@link #liberar(boolean, boolean)} ou
+     * {@link #descartar(boolean)}.
+     *
+     * @return true se a chamada é uma das chamadas de teste do estado meio aberto
+     * @throws BBIndisponivelException Se o circuito estiver aberto ou sem vagas
+     * @throws InterruptedException    Se a thread for interrompida aguardando vaga
+     */
+    public boolean adquirir() throws BBIndisponivelException, InterruptedException {
+        boolean teste;
+        synchronized (this) {
+            if (estado == Estado.ABERTO) {
+                long restante = abertoAte - System.nanoTime();
+                if (restante > 0) {
+                    rejeitadas.increment();
+                    throw new BBIndisponivelException(endpoint, "Circuito do endpoint " + endpoint
+                            + " do Banco do Brasil aberto após falhas consecutivas",
+                            Math.max(1, TimeUnit.NANOSECONDS.toSeconds(restante) + 1));
+                }
+                transicionar(Estado.MEIO_ABERTO);
+                testesEmAndamento = 0;
+                testesComSucesso = 0;
+            }
+
+            teste = estado == Estado.MEIO_ABERTO;
+            if (teste) {
+                if (testesEmAndamento + testesComSucesso >= chamadasTeste) {
+                    rejeitadas.increment();
+                    throw new BBIndisponivelException(endpoint, "Circuito do endpoint " + endpoint
+                            + " do Banco do Brasil em teste após falhas", 1);
+                }
+                testesEmAndamento++;
+            }
+        }
+
+        if (!vagas.tryAcquire(esperaVagaMs, TimeUnit.MILLISECONDS)) {
+            if (teste) {
+                synchronized (this) {
+                    if (estado == Estado.MEIO_ABERTO) {
+                        testesEmAndamento--;
+                    }
+                }
+            }
+            rejeitadas.increment();
+            throw new BBIndisponivelException(endpoint, "Limite de " + maxConcorrentes
+                    + " chamadas simultâneas ao endpoint " + endpoint + " do Banco do Brasil atingido", 1);
+        }
+
+        return teste;
+    }
+
+    /**
+     * Encerra uma chamada autorizada e registra seu resultado
+     *
+     * @param teste   Valor devolvido por {@link #adquirir()}
+     * @param sucesso false se a chamada falhou (erro de comunicação, timeout ou
+     *                erro do servidor)
+     */
+    public void liberar(boolean teste, boolean sucesso) {
+        vagas.release();
+        chamadas.increment();
+        if (!sucesso) {
+            falhas.increment();
+        }
+
+        synchronized (this) {
+            if (teste) {
+                // Um teste concluído depois de nova abertura não muda mais nada
+                if (estado != Estado.MEIO_ABERTO) {
+                    return;
+                }
+                testesEmAndamento--;
+                if (!sucesso) {
+                    abrir();
+                } else if (++testesComSucesso >= chamadasTeste) {
+                    fechar();
+                }
+                return;
+            }
+
+            if (estado != Estado.FECHADO) {
+                return;
+            }
+
+            if (registradas == janela.length) {
+                if (janela[posicao]) {
+                    falhasNaJanela--;
+                }
+            } else {
+                registradas++;
+            }
+            janela[posicao] = !sucesso;
+            if (!sucesso) {
+                falhasNaJanela++;
+            }
+            posicao = (posicao + 1) % janela.length;
+
+            if (registradas >= minimoChamadas && falhasNaJanela * 100 >= taxaFalhaPercentual * registradas) {
+                abrir();
+            }
+        }
+    }
+
+    /**
+     * Encerra uma chamada autorizada sem registrar resultado (ex.: thread
+     * interrompida)
+     *
+     * @param teste Valor devolvido por {@link #adquirir()}
+     */
+    public void descartar(boolean teste) {
+        vagas.release();
+        if (teste) {
+            synchronized (this) {
+                if (estado == Estado.MEIO_ABERTO) {
+                    testesEmAndamento--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtém o estado e os contadores do circuito
+     *
+     * @return Retrato das métricas
+     */
+    public synchronized Metricas getMetricas() {
+        return new Metricas(estado, alteradoEm, chamadas.sum(), falhas.sum(), rejeitadas.sum(), aberturas.sum(),
+                maxConcorrentes - vagas.availablePermits());
+    }
+
+    private void abrir() {
+        abertoAte = System.nanoTime() + abertoNanos;
+        aberturas.increment();
+        transicionar(Estado.ABERTO);
+    }
+
+    private void fechar() {
+        posicao = 0;
+        registradas = 0;
+        falhasNaJanela = 0;
+        transicionar(Estado.FECHADO);
+    }
+
+    private void transicionar(Estado novo) {
+        Estado anterior = estado;
+        estado = novo;
+        alteradoEm = LocalDateTime.now();
+
+        if (novo == Estado.FECHADO) {
+            LOG.info("Circuito do endpoint " + endpoint + " do Banco do Brasil fechado (era " + anterior + ")");
+        } else {
+            LOG.warn("Circuito do endpoint " + endpoint + " do Banco do Brasil mudou de " + anterior + " para "
+                    + novo);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.acme.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.acme.config.PixConfig;
+import org.acme.model.PixIdempotencia;
+import org.acme.repository.PixIdempotenciaRepository;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Garante que requisições repetidas com o mesmo Idempotency-Key criem uma
+ * única cobrança
+ *
+ * A primeira requisição reserva a chave no banco de dados (INSERT ... ON
+ * CONFLICT) e grava a resposta ao terminar; as repetições recebem a resposta
+ * gravada, sem chamar o Banco do Brasil. Repetições simultâneas na mesma
+ * instância aguardam o resultado da primeira em memória; em outra instância,
+ * consultam o banco de dados até o resultado aparecer. Um cache em memória,
+ * limitado em número de entradas, evita a consulta ao banco de dados para as
+ * repetições mais recentes. Respostas 5xx não são gravadas: a chave é liberada
+ * e a próxima repetição é processada de novo.
+ *
+ * Enquanto a operação roda, a instância renova periodicamente as reservas que
+ * detém. Assim, um registro síncrono lento (timeouts e retentativas no banco)
+ * não tem a reserva retomada por outra instância, que geraria um novo txid e
+ * duplicaria a cobrança; só a reserva de um processo que caiu deixa de ser
+ * renovada e expira.
+ */
+@ApplicationScoped
+public class IdempotenciaService {
+
+    private static final Logger LOG = Logger.getLogger(IdempotenciaService.class);
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private static final long INTERVALO_CONSULTA_MS = 200;
+
+    @Inject
+    PixIdempotenciaRepository pixIdempotenciaRepository;
+
+    @Inject
+    PixConfig pixConfig;
+
+    // Em ordem de acesso, para descartar primeiro as menos usadas
+    private final LinkedHashMap<String, Entrada> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Requisições em andamento nesta instância, por chave
+    private final Map<String, EmAndamento> emAndamento = new ConcurrentHashMap<>();
+
+    // Chaves cuja reserva no banco de dados pertence a esta instância
+    private final Set<String> reservadas = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Resposta de uma criação de cobrança
+     *
+     * @param status      Código HTTP
+     * @param corpo       Corpo JSON
+     * @param localizacao Cabeçalho Location ou null
+     * @param repetida    true se a resposta foi reaproveitada de uma requisição
+     *                    anterior
+     */
+    public record RespostaArmazenada(int status, String corpo, String localizacao, boolean repetida) {
+
+        RespostaArmazenada comoRepetida() {
+            return repetida ? this : new RespostaArmazenada(status, corpo, localizacao, true);
+        }
+    }
+
+    private record Entrada(String hashRequisicao, RespostaArmazenada resposta, LocalDateTime expiraEm) {
+    }
+
+    private record EmAndamento(String hashRequisicao, CompletableFuture<RespostaArmazenada> resultado) {
+    }
+
+    /**
+     * Calcula o hash que identifica o conteúdo de uma requisição
+     *
+     * @param requisicao Representação estável da requisição
+     * @return SHA-256 em hexadecimal
+     */
+    public static String calcularHash(String requisicao) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(requisicao.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Executa a operação uma única vez por chave e devolve a resposta gravada
+     * às repetições
+     *
+     * @param chave          Valor do Idempotency-Key
+     * @param hashRequisicao Hash da requisição, para recusar a mesma chave com
+     *                       outro conteúdo
+     * @param operacao       Criação da cobrança
+     * @return Resposta da operação, gravada ou recém-executada
+     */
+    public RespostaArmazenada executar(String chave, String hashRequisicao, Supplier<RespostaArmazenada> operacao) {
+        if (chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            return erro(400, "Idempotency-Key deve ter até " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+        }
+
+        RespostaArmazenada emCache = buscarEmCache(chave, hashRequisicao);
+        if (emCache != null) {
+            return emCache;
+        }
+
+        EmAndamento atual = new EmAndamento(hashRequisicao, new CompletableFuture<>());
+        EmAndamento existente = emAndamento.putIfAbsent(chave, atual);
+        if (existente != null) {
+            if (!existente.hashRequisicao().equals(hashRequisicao)) {
+                return conteudoDiferente();
+            }
+            return aguardarEmAndamento(existente.resultado());
+        }
+
+        try {
+            RespostaArmazenada resposta = executarComReserva(chave, hashRequisicao, operacao);
+            atual.resultado().complete(resposta);
+            return resposta;
+        } catch (RuntimeException e) {
+            atual.resultado().completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, atual);
+        }
+    }
+
+    /**
+     * Remove periodicamente os resultados expirados
+     */
+    @Scheduled(every = "{pix.idempotencia.limpeza.intervalo}", identity = "limpeza-idempotencia")
+    @Transactional
+    void limparExpiradas() {
+        long removidas = pixIdempotenciaRepository.removerExpiradas(LocalDateTime.now());
+        if (removidas > 0) {
+            LOG.info("Removidas " + removidas + " chaves de idempotência expiradas");
+        }
+
+        synchronized (cache) {
+            LocalDateTime agora = LocalDateTime.now();
+            cache.values().removeIf(entrada -> entrada.expiraEm().isBefore(agora));
+        }
+    }
+
+    /**
+     * Renova as reservas detidas por esta instância, para que não sejam
+     * retomadas enquanto a operação ainda roda. O intervalo deve ser bem menor
+     * que pix.idempotencia.reserva-expira-segundos.
+     */
+    @Scheduled(every = "{pix.idempotencia.renovacao.intervalo}", identity = "renovacao-reservas-idempotencia")
+    @Transactional
+    public void renovarReservas() {
+        if (reservadas.isEmpty()) {
+            return;
+        }
+        int renovadas = pixIdempotenciaRepository.renovarReservas(List.copyOf(reservadas), LocalDateTime.now());
+        LOG.debug("Renovadas " + renovadas + " reservas de Idempotency-Key em andamento");
+    }
+
+    private RespostaArmazenada executarComReserva(String chave, String hashRequisicao,
+            Supplier<RespostaArmazenada> operacao) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plusHours(pixConfig.getIdempotenciaTtlHoras());
+
+        if (!reservar(chave, hashRequisicao, agora, expiraEm)) {
+            return aguardarOutraInstancia(chave, hashRequisicao);
+        }
+
+        RespostaArmazenada resposta;
+        reservadas.add(chave);
+        try {
+            resposta = operacao.get();
+        } catch (RuntimeException e) {
+            liberar(chave);
+            throw e;
+        } finally {
+            reservadas.remove(chave);
+        }
+
+        if (resposta.status() >= 500) {
+            // Falha transitória: a próxima repetição deve ser processada de novo
+            liberar(chave);
+            return resposta;
+        }
+
+        concluir(chave, resposta);
+        guardarEmCache(chave, new Entrada(hashRequisicao, resposta, expiraEm));
+        return resposta;
+    }
+
+    private RespostaArmazenada aguardarEmAndamento(CompletableFuture<RespostaArmazenada> resultado) {
+        try {
+            return resultado.get(pixConfig.getIdempotenciaEsperaMs(), TimeUnit.MILLISECONDS).comoRepetida();
+        } catch (TimeoutException e) {
+            return emProcessamento();
+        } catch (ExecutionException e) {
+            // A primeira requisição falhou sem resposta; quem repetir será processado de novo
+            return emProcessamento();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return emProcessamento();
+        }
+    }
+
+    private RespostaArmazenada aguardarOutraInstancia(String chave, String hashRequisicao) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pixConfig.getIdempotenciaEsperaMs());
+        while (true) {
+            PixIdempotencia registro = buscar(chave);
+            if (registro == null) {
+                // Reserva liberada por falha transitória; o cliente pode repetir
+                return emProcessamento();
+            }
+            if (!registro.getHashRequisicao().equals(hashRequisicao)) {
+                return conteudoDiferente();
+            }
+            if ("CONCLUIDA".equals(registro.getSituacao())) {
+                RespostaArmazenada resposta = new RespostaArmazenada(registro.getStatusHttp(), registro.getResposta(),
+                        registro.getLocalizacao(), true);
+                guardarEmCache(chave, new Entrada(registro.getHashRequisicao(), resposta, registro.getExpiraEm()));
+                return resposta;
+            }
+
+            if (System.nanoTime() >= limite) {
+                return emProcessamento();
+            }
+            try {
+                Thread.sleep(INTERVALO_CONSULTA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return emProcessamento();
+            }
+        }
+    }
+
+    @Transactional
+    boolean reservar(String chave, String hashRequisicao, LocalDateTime agora, LocalDateTime expiraEm) {
+        return pixIdempotenciaRepository.reservar(chave, hashRequisicao, agora, expiraEm,
+                agora.minusSeconds(pixConfig.getIdempotenciaReservaExpiraSegundos()));
+    }
+
+    @Transactional
+    void concluir(String chave, RespostaArmazenada resposta) {
+        pixIdempotenciaRepository.concluir(chave, resposta.status(), resposta.corpo(), resposta.localizacao());
+    }
+
+    @Transactional
+    void liberar(String chave) {
+        pixIdempotenciaRepository.liberar(chave);
+    }
+
+    @Transactional
+    PixIdempotencia buscar(String chave) {
+        return pixIdempotenciaRepository.findById(chave);
+    }
+
+    private RespostaArmazenada buscarEmCache(String chave, String hashRequisicao) {
+        Entrada entrada;
+        synchronized (cache) {
+            entrada = cache.get(chave);
+            if (entrada != null && entrada.expiraEm().isBefore(LocalDateTime.now())) {
+                cache.remove(chave);
+                entrada = null;
+            }
+        }
+
+        if (entrada == null) {
+            return null;
+        }
+        if (!entrada.hashRequisicao().equals(hashRequisicao)) {
+            return conteudoDiferente();
+        }
+        return entrada.resposta().comoRepetida();
+    }
+
+    private void guardarEmCache(String chave, Entrada entrada) {
+        int maximo = pixConfig.getIdempotenciaCacheMaxEntradas();
+        if (maximo <= 0) {
+            return;
+        }
+
+        synchronized (cache) {
+            cache.put(chave, entrada);
+            Iterator<Map.Entry<String, Entrada>> iterador = cache.entrySet().iterator();
+            while (cache.size() > maximo && iterador.hasNext()) {
+                iterador.next();
+                iterador.remove();
+            }
+        }
+    }
+
+    private static RespostaArmazenada emProcessamento() {
+        return erro(409, "Requisição com este Idempotency-Key ainda em processamento, tente novamente");
+    }
+
+    private static RespostaArmazenada conteudoDiferente() {
+        return erro(422, "Idempotency-Key já utilizado com outro conteúdo");
+    }
+
+    private static RespostaArmazenada erro(int status, String mensagem) {
+        return new RespostaArmazenada(status, new JsonObject().put("erro", mensagem).encode(), null, false);
+    }
+}
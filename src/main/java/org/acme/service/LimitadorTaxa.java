@@ -0,0 +1,158 @@
+package org.acme.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Limitador de taxa adaptativo (token bucket com AIMD) para uma cota do Banco
+ * do Brasil
+ *
+ * As fichas são repostas à taxa atual, até o tamanho da rajada. Quem não
+ * encontra ficha reserva a próxima e aguarda sua vez, desde que a espera caiba
+ * no limite configurado; caso contrário a chamada é recusada na hora. Cada 429
+ * reduz a taxa multiplicativamente e bloqueia novas chamadas até o fim do
+ * Retry-After, a partir do qual as chamadas em fila são espaçadas pela nova
+ * taxa; cada sucesso a aumenta aditivamente (cerca de "incremento"
+ * requisições por segundo a cada segundo de tráfego na taxa atual), de modo que
+ * a taxa converge para logo abaixo da cota do banco.
+ */
+public class LimitadorTaxa {
+
+    private static final Logger LOG = Logger.getLogger(LimitadorTaxa.class);
+
+    private static final double NANOS_POR_SEGUNDO = 1_000_000_000d;
+
+    /**
+     * Retrato do limitador
+     *
+     * @param taxa       Taxa atual, em requisições por segundo
+     * @param limites    Respostas 429 recebidas
+     * @param rejeitadas Chamadas recusadas por exceder a espera máxima
+     */
+    public record Metricas(double taxa, long limites, long rejeitadas) {
+
+        /**
+         * Soma as métricas de dois limitadores do mesmo endpoint (app keys
+         * diferentes): a taxa resultante é a taxa total permitida ao endpoint
+         *
+         * @param outra Métricas do outro limitador
+         * @return Métricas somadas
+         */
+        public Metricas somar(Metricas outra) {
+            return new Metricas(taxa + outra.taxa, limites + outra.limites, rejeitadas + outra.rejeitadas);
+        }
+    }
+
+    private final String endpoint;
+    private final double taxaMinima;
+    private final double taxaMaxima;
+    private final double rajada;
+    private final double fatorReducao;
+    private final double incremento;
+    private final long esperaMaximaNanos;
+
+    // Protegidos pelo monitor da instância
+    private double taxa;
+    private double fichas;
+    private long atualizadoEm;
+    private long bloqueadoAte;
+    private long limites;
+    private long rejeitadas;
+
+    /**
+     * @param endpoint       Nome do endpoint (oauth, cob, cobv...)
+     * @param taxaInicial    Taxa inicial em requisições por segundo
+     * @param taxaMinima     Taxa mínima após reduções
+     * @param taxaMaxima     Taxa máxima após aumentos
+     * @param rajada         Fichas acumuladas no máximo
+     * @param fatorReducao   Fator aplicado à taxa a cada 429 (entre 0 e 1)
+     * @param incremento     Aumento da taxa por segundo de tráfego sem 429
+     * @param esperaMaximaMs Espera máxima por uma ficha antes de recusar
+     */
+    public LimitadorTaxa(String endpoint, double taxaInicial, double taxaMinima, double taxaMaxima, int rajada,
+            double fatorReducao, double incremento, long esperaMaximaMs) {
+        this.endpoint = endpoint;
+        this.taxaMinima = Math.max(0.1, taxaMinima);
+        this.taxaMaxima = Math.max(this.taxaMinima, taxaMaxima);
+        this.rajada = Math.max(1, rajada);
+        this.fatorReducao = fatorReducao;
+        this.incremento = incremento;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+        this.taxa = Math.min(this.taxaMaxima, Math.max(this.taxaMinima, taxaInicial));
+        this.fichas = this.rajada;
+        this.atualizadoEm = System.nanoTime();
+    }
+
+    /**
+     * Aguarda a vez da chamada
+     *
+     * @throws BBIndisponivelException Se a espera exceder o limite configurado
+     * @throws InterruptedException    Se a thread for interrompida aguardando
+     */
+    public void adquirir() throws BBIndisponivelException, InterruptedException {
+        long espera = reservar();
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    /**
+     * Registra uma resposta 429: reduz a taxa e bloqueia o envio até o fim do
+     * Retry-After
+     *
+     * @param retryAfterSegundos Espera informada pelo banco
+     */
+    public synchronized void registrarLimite(long retryAfterSegundos) {
+        limites++;
+        double anterior = taxa;
+        taxa = Math.max(taxaMinima, taxa * fatorReducao);
+        bloqueadoAte = Math.max(bloqueadoAte, System.nanoTime() + TimeUnit.SECONDS.toNanos(retryAfterSegundos));
+        // Descarta a rajada e recomeça a contagem no fim do bloqueio, para que
+        // as chamadas em fila sejam espaçadas a partir dele, e não todas juntas
+        fichas = 0;
+        atualizadoEm = Math.max(atualizadoEm, bloqueadoAte);
+
+        LOG.warn("Cota do endpoint " + endpoint + " do Banco do Brasil atingida (429): taxa reduzida de "
+                + String.format("%.1f", anterior) + " para " + String.format("%.1f", taxa)
+                + " req/s, envio suspenso por " + retryAfterSegundos + " s");
+    }
+
+    /**
+     * Registra uma chamada aceita pelo banco, aumentando a taxa
+     */
+    public synchronized void registrarSucesso() {
+        taxa = Math.min(taxaMaxima, taxa + incremento / taxa);
+    }
+
+    /**
+     * Obtém a taxa atual e os contadores
+     *
+     * @return Retrato das métricas
+     */
+    public synchronized Metricas getMetricas() {
+        return new Metricas(taxa, limites, rejeitadas);
+    }
+
+    private synchronized long reservar() throws BBIndisponivelException {
+        long agora = System.nanoTime();
+        // Durante um bloqueio a contagem está no futuro e nada é reposto
+        if (agora > atualizadoEm) {
+            fichas = Math.min(rajada, fichas + (agora - atualizadoEm) / NANOS_POR_SEGUNDO * taxa);
+            atualizadoEm = agora;
+        }
+
+        // Fichas negativas são reservas de chamadas já na fila
+        long esperaFicha = fichas >= 1 ? 0 : (long) ((1 - fichas) / taxa * NANOS_POR_SEGUNDO);
+        long espera = Math.max(atualizadoEm - agora + esperaFicha, bloqueadoAte - agora);
+
+        if (espera > esperaMaximaNanos) {
+            rejeitadas++;
+            throw new BBIndisponivelException(endpoint, "Cota de requisições do endpoint " + endpoint
+                    + " do Banco do Brasil esgotada", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera) + 1));
+        }
+
+        fichas -= 1;
+        return espera;
+    }
+}
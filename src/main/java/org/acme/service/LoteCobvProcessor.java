@@ -0,0 +1,287 @@
+package org.acme.service;
+
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.config.PixConfig;
+import org.acme.model.PixComVencimento;
+import org.acme.model.PixLoteCobv;
+import org.acme.model.PixOutbox;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixLoteCobvRepository;
+import org.acme.repository.PixOutboxRepository;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Envia as cobranças com vencimento da outbox em lotes pela API lotecobv do
+ * Banco do Brasil e concilia o resultado de cada cobrança
+ *
+ * Habilitado por pix.lotecobv.habilitado; nesse caso o OutboxProcessor deixa de
+ * enviar as cobv uma a uma. Cada ciclo agrupa até pix.lotecobv.tamanho entradas
+ * em um lote (situação EM_LOTE na outbox) e faz um único PUT /lotecobv/{id}. A
+ * consulta periódica do lote aplica o resultado: CRIADA conclui o registro
+ * (buscando location e pixCopiaECola da cobrança), NEGADA marca FALHA. Se o
+ * banco não conhecer o lote, as entradas voltam para a fila com backoff.
+ */
+@ApplicationScoped
+public class LoteCobvProcessor {
+
+    private static final Logger LOG = Logger.getLogger(LoteCobvProcessor.class);
+
+    private static final int LOTES_POR_CONSULTA = 20;
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    OutboxProcessor outboxProcessor;
+
+    @Inject
+    PixOutboxRepository pixOutboxRepository;
+
+    @Inject
+    PixLoteCobvRepository pixLoteCobvRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixConfig pixConfig;
+
+    /**
+     * Lote reservado e pronto para envio
+     *
+     * @param id         ID do lote, usado no PUT /lotecobv/{id}
+     * @param quantidade Quantidade de cobranças do lote
+     * @param corpo      Corpo da requisição de envio
+     */
+    public record LoteMontado(Long id, int quantidade, JsonObject corpo) {
+    }
+
+    /**
+     * Agrupa as cobranças com vencimento pendentes em um lote e o envia ao banco
+     */
+    @Scheduled(every = "{pix.lotecobv.intervalo}", identity = "envio-lotecobv",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void enviarLote() {
+        if (!pixConfig.isLoteCobvHabilitado()) {
+            return;
+        }
+
+        LoteMontado lote = montarLote();
+        if (lote == null) {
+            return;
+        }
+
+        LOG.info("Enviando lote " + lote.id() + " com " + lote.quantidade() + " cobranças com vencimento");
+
+        try {
+            HttpResponse<String> response = pixService.enviarLoteCobv(lote.id(), lote.corpo());
+            if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                return;
+            }
+
+            if (PixService.isFalhaDefinitiva(response.statusCode())) {
+                liberarLote(lote.id(), "Lote rejeitado pelo banco. Código: " + response.statusCode()
+                        + ", Resposta: " + response.body());
+                return;
+            }
+
+            // Resposta ambígua: a consulta do lote decide se ele foi criado
+            LOG.warn("Envio do lote " + lote.id() + " retornou código " + response.statusCode()
+                    + "; situação será verificada na consulta");
+        } catch (Exception e) {
+            LOG.warn("Falha no envio do lote " + lote.id() + "; situação será verificada na consulta: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Consulta os lotes enviados e aplica o resultado de cada cobrança
+     */
+    @Scheduled(every = "{pix.lotecobv.consulta-intervalo}", identity = "consulta-lotecobv",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void consultarLotes() {
+        // Roda mesmo com o envio em lote desabilitado, para concluir os lotes já enviados
+        for (PixLoteCobv lote : pixLoteCobvRepository.listarEnviados(LOTES_POR_CONSULTA)) {
+            try {
+                consultarLote(lote.getId());
+            } catch (Exception e) {
+                LOG.warn("Falha ao consultar o lote " + lote.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reserva as cobranças com vencimento prontas para envio em um novo lote.
+     * Entradas bloqueadas por outra instância são ignoradas.
+     *
+     * @return Lote montado, ou null se não houver cobranças a enviar
+     */
+    @Transactional
+    public LoteMontado montarLote() {
+        List<PixOutbox> entradas = pixOutboxRepository.buscarCobvParaLote(LocalDateTime.now(),
+                Math.max(1, pixConfig.getLoteCobvTamanho()));
+        if (entradas.isEmpty()) {
+            return null;
+        }
+
+        List<String> txids = new ArrayList<>(entradas.size());
+        for (PixOutbox entrada : entradas) {
+            txids.add(entrada.getTxid());
+        }
+        List<PixComVencimento> cobrancas = pixComVencimentoRepository.listarPorTxIds(txids);
+
+        PixLoteCobv lote = new PixLoteCobv(cobrancas.size());
+        pixLoteCobvRepository.persist(lote);
+
+        Map<String, PixComVencimento> porTxid = new HashMap<>();
+        for (PixComVencimento pix : cobrancas) {
+            porTxid.put(pix.getTxid(), pix);
+        }
+
+        for (PixOutbox entrada : entradas) {
+            if (porTxid.containsKey(entrada.getTxid())) {
+                entrada.setSituacao("EM_LOTE");
+                entrada.setIdLoteCobv(lote.getId());
+            } else {
+                entrada.setSituacao("FALHA");
+                entrada.setUltimoErro("Cobrança não encontrada");
+            }
+        }
+
+        if (cobrancas.isEmpty()) {
+            lote.setSituacao("CONCLUIDO");
+            return null;
+        }
+
+        return new LoteMontado(lote.getId(), cobrancas.size(), pixService.criarJsonLoteCobv(lote.getDescricao(), cobrancas));
+    }
+
+    /**
+     * Consulta um lote enviado e aplica o resultado de cada cobrança. Um lote
+     * desconhecido pelo banco volta para a fila.
+     *
+     * @param idLote ID do lote
+     * @throws Exception Se ocorrer algum erro na comunicação com o banco
+     */
+    public void consultarLote(Long idLote) throws Exception {
+        HttpResponse<String> response = pixService.consultarLoteCobv(idLote);
+
+        if (response.statusCode() == 404) {
+            liberarLote(idLote, "Lote não encontrado no banco");
+            return;
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            LOG.warn("Consulta do lote " + idLote + " retornou código " + response.statusCode());
+            return;
+        }
+
+        JsonArray cobsv = new JsonObject(response.body()).getJsonArray("cobsv", new JsonArray());
+        int emProcessamento = 0;
+
+        for (int i = 0; i < cobsv.size(); i++) {
+            JsonObject item = cobsv.getJsonObject(i);
+            String txid = item.getString("txid");
+            String status = item.getString("status");
+
+            try {
+                if ("CRIADA".equals(status)) {
+                    aplicarCriada(txid);
+                } else if ("NEGADA".equals(status)) {
+                    JsonObject problema = item.getJsonObject("problema");
+                    aplicarNegada(txid, problema != null ? problema.encode() : "Cobrança negada no lote");
+                } else {
+                    emProcessamento++;
+                }
+            } catch (Exception e) {
+                // Tratada novamente na próxima consulta
+                emProcessamento++;
+                LOG.warn("Falha ao conciliar a cobrança " + txid + " do lote " + idLote + ": " + e.getMessage());
+            }
+        }
+
+        registrarConsulta(idLote, emProcessamento == 0);
+    }
+
+    private void aplicarCriada(String txid) throws Exception {
+        PixComVencimento pix = pixComVencimentoRepository.findByTxId(txid);
+        if (pix != null && pix.isRegistroPendente()) {
+            // O resultado do lote não traz location nem pixCopiaECola; a consulta da cobrança os completa
+            pixService.recuperarRegistroPendente(pix);
+        }
+
+        if (pix == null || !pix.isRegistroPendente()) {
+            encerrarEntrada(txid, "CONCLUIDA", null);
+        }
+    }
+
+    private void aplicarNegada(String txid, String problema) {
+        PixComVencimento pix = pixComVencimentoRepository.findByTxId(txid);
+        if (pix != null && pix.isRegistroPendente()) {
+            pixService.marcarRegistroComoFalha(pix);
+        }
+
+        encerrarEntrada(txid, "FALHA", problema);
+    }
+
+    @Transactional
+    void encerrarEntrada(String txid, String situacao, String erro) {
+        PixOutbox entrada = pixOutboxRepository.findAtivaByTxId(txid);
+        if (entrada == null) {
+            return;
+        }
+
+        entrada.setSituacao(situacao);
+        if (erro != null) {
+            entrada.setUltimoErro(erro.length() > 1000 ? erro.substring(0, 1000) : erro);
+            LOG.warn("Cobrança " + txid + " negada no lote: " + erro);
+        }
+    }
+
+    @Transactional
+    void registrarConsulta(Long idLote, boolean concluido) {
+        PixLoteCobv lote = pixLoteCobvRepository.findById(idLote);
+        if (lote == null) {
+            return;
+        }
+
+        lote.setConsultadoEm(LocalDateTime.now());
+        if (concluido) {
+            lote.setSituacao("CONCLUIDO");
+            LOG.info("Lote " + idLote + " concluído");
+        }
+    }
+
+    /**
+     * Encerra o lote como FALHA e devolve suas cobranças pendentes à fila
+     */
+    @Transactional
+    void liberarLote(Long idLote, String erro) {
+        PixLoteCobv lote = pixLoteCobvRepository.findById(idLote);
+        if (lote != null) {
+            lote.setSituacao("FALHA");
+            lote.setUltimoErro(erro.length() > 1000 ? erro.substring(0, 1000) : erro);
+        }
+
+        List<PixOutbox> entradas = pixOutboxRepository.listarEmLote(idLote);
+        for (PixOutbox entrada : entradas) {
+            entrada.setIdLoteCobv(null);
+            outboxProcessor.reagendarEntrada(entrada, erro);
+        }
+
+        LOG.warn("Lote " + idLote + " liberado (" + entradas.size() + " cobranças voltam para a fila): " + erro);
+    }
+}
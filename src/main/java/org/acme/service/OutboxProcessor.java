@@ -0,0 +1,257 @@
+package org.acme.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.config.PixConfig;
+import org.acme.model.Pix;
+import org.acme.model.PixOutbox;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.repository.PixOutboxRepository;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Consome a outbox de cobranças e registra cada uma no Banco do Brasil
+ *
+ * A cada ciclo reserva um lote de entradas (SKIP LOCKED, para que várias
+ * instâncias dividam a fila) e envia as cobranças em paralelo, limitado pelo
+ * número de envios simultâneos configurado. Falhas ambíguas são reagendadas com
+ * backoff exponencial; ao esgotar as tentativas a entrada é encerrada e a
+ * cobrança continua PENDENTE para o RegistroPendenteScheduler, que consulta o
+ * banco antes de reenviar.
+ */
+@ApplicationScoped
+public class OutboxProcessor {
+
+    private static final Logger LOG = Logger.getLogger(OutboxProcessor.class);
+
+    // Entradas PROCESSANDO há mais tempo que isso são consideradas abandonadas
+    private static final int RESERVA_EXPIRA_MINUTOS = 5;
+
+    private static final int RETENCAO_CONCLUIDAS_DIAS = 1;
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    PixOutboxRepository pixOutboxRepository;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixConfig pixConfig;
+
+    private ExecutorService executor;
+
+    private Semaphore vagas;
+
+    private volatile long pendentes;
+
+    /**
+     * Entrada reservada para envio, desacoplada da sessão que a reservou
+     */
+    record Reserva(Long id, String txid, String tipoCob) {
+    }
+
+    @PostConstruct
+    void inicializar() {
+        int concorrencia = Math.max(1, pixConfig.getOutboxConcorrencia());
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concorrencia, r -> {
+            Thread thread = new Thread(r, "pix-outbox-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        vagas = new Semaphore(concorrencia);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(pixConfig.getHttpRequestTimeoutSegundos(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reserva e despacha um lote de entradas prontas para envio
+     */
+    @Scheduled(every = "{pix.outbox.intervalo}", identity = "processamento-outbox",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void processar() {
+        pendentes = pixOutboxRepository.contarPendentes();
+
+        // Só reserva o que pode ser enviado agora; o restante fica livre para outras instâncias
+        int livres = Math.min(vagas.availablePermits(), pixConfig.getOutboxLote());
+        if (pendentes == 0 || livres <= 0) {
+            return;
+        }
+
+        List<Reserva> reservas = reservar(livres);
+        for (Reserva reserva : reservas) {
+            vagas.acquireUninterruptibly();
+            try {
+                executor.execute(() -> {
+                    try {
+                        enviar(reserva);
+                    } finally {
+                        vagas.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                vagas.release();
+                LOG.error("Não foi possível despachar a entrada da outbox " + reserva.txid(), e);
+            }
+        }
+    }
+
+    /**
+     * Remove periodicamente as entradas já concluídas
+     */
+    @Scheduled(every = "{pix.outbox.limpeza.intervalo}", identity = "limpeza-outbox")
+    @Transactional
+    void limparConcluidas() {
+        long removidas = pixOutboxRepository.removerConcluidas(LocalDateTime.now().minusDays(RETENCAO_CONCLUIDAS_DIAS));
+        if (removidas > 0) {
+            LOG.info("Removidas " + removidas + " entradas concluídas da outbox");
+        }
+    }
+
+    /**
+     * Indica se a fila de registro atingiu o limite configurado, para que novas
+     * cobranças assíncronas sejam recusadas em vez de acumular atraso
+     *
+     * @return true se o número de entradas pendentes atingiu o limite
+     */
+    public boolean isSobrecarregado() {
+        return pendentes >= pixConfig.getOutboxMaxPendentes();
+    }
+
+    /**
+     * Obtém o número de entradas pendentes observado no último ciclo
+     *
+     * @return Quantidade de entradas aguardando envio
+     */
+    public long getPendentes() {
+        return pendentes;
+    }
+
+    @Transactional
+    List<Reserva> reservar(int limite) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<PixOutbox> entradas = pixOutboxRepository.buscarProntasParaEnvio(agora,
+                agora.minusMinutes(RESERVA_EXPIRA_MINUTOS), limite, !pixConfig.isLoteCobvHabilitado());
+
+        List<Reserva> reservas = new ArrayList<>(entradas.size());
+        for (PixOutbox entrada : entradas) {
+            entrada.setSituacao("PROCESSANDO");
+            entrada.setReservadoEm(agora);
+            reservas.add(new Reserva(entrada.getId(), entrada.getTxid(), entrada.getTipoCob()));
+        }
+        return reservas;
+    }
+
+    @ActivateRequestContext
+    void enviar(Reserva reserva) {
+        Pix pix = "cobv".equals(reserva.tipoCob())
+                ? pixComVencimentoRepository.findByTxId(reserva.txid())
+                : pixImediatoRepository.findByTxId(reserva.txid());
+
+        if (pix == null) {
+            finalizar(reserva, "FALHA", "Cobrança não encontrada");
+            return;
+        }
+
+        if (!pix.isRegistroPendente()) {
+            // Já finalizada por outro caminho (ex.: recuperação de pendentes)
+            finalizar(reserva, "CONCLUIDA", null);
+            return;
+        }
+
+        try {
+            if (pixService.registrarCobrancaNoBanco(pix)) {
+                finalizar(reserva, "CONCLUIDA", null);
+            } else {
+                finalizar(reserva, "FALHA", "Cobrança rejeitada pelo banco");
+            }
+        } catch (Exception e) {
+            reagendar(reserva, e.getMessage());
+        }
+    }
+
+    @Transactional
+    void finalizar(Reserva reserva, String situacao, String erro) {
+        PixOutbox entrada = pixOutboxRepository.findById(reserva.id());
+        if (entrada == null) {
+            return;
+        }
+
+        entrada.setSituacao(situacao);
+        entrada.setReservadoEm(null);
+        if (erro != null) {
+            entrada.setUltimoErro(erro);
+            LOG.warn("Entrada da outbox " + reserva.txid() + " encerrada: " + erro);
+        }
+    }
+
+    @Transactional
+    void reagendar(Reserva reserva, String erro) {
+        PixOutbox entrada = pixOutboxRepository.findById(reserva.id());
+        if (entrada != null) {
+            reagendarEntrada(entrada, erro);
+        }
+    }
+
+    /**
+     * Devolve a entrada à fila com backoff exponencial, ou a encerra ao esgotar
+     * as tentativas. Deve ser chamado dentro de uma transação.
+     *
+     * @param entrada Entrada gerenciada pela sessão atual
+     * @param erro    Motivo da falha
+     */
+    void reagendarEntrada(PixOutbox entrada, String erro) {
+        int tentativas = entrada.getTentativas() + 1;
+        entrada.setTentativas(tentativas);
+        entrada.setReservadoEm(null);
+        entrada.setUltimoErro(erro != null && erro.length() > 1000 ? erro.substring(0, 1000) : erro);
+
+        if (tentativas >= pixConfig.getOutboxMaxTentativas()) {
+            // A cobrança permanece PENDENTE e passa para a recuperação, que consulta o banco antes de reenviar
+            entrada.setSituacao("FALHA");
+            LOG.error("Registro da cobrança " + entrada.getTxid() + " falhou após " + tentativas + " tentativas: "
+                    + erro);
+            return;
+        }
+
+        long espera = Math.min((long) pixConfig.getOutboxBackoffInicialSegundos() << Math.min(tentativas - 1, 20),
+                pixConfig.getOutboxBackoffMaximoSegundos());
+        espera += ThreadLocalRandom.current().nextLong(espera / 2 + 1);
+
+        entrada.setSituacao("PENDENTE");
+        entrada.setProximaTentativa(LocalDateTime.now().plusSeconds(espera));
+        LOG.warn("Registro da cobrança " + entrada.getTxid() + " falhou (tentativa " + tentativas
+                + "), nova tentativa em " + espera + " segundos: " + erro);
+    }
+}
@@ -1,42 +1,51 @@
 package org.acme.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.net.InetAddress;
-import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.acme.config.PixConfig;
+import org.acme.dto.CursorPaginacao;
+import org.acme.dto.PixCobrancaDTO;
+import org.acme.dto.PaginaCobrancasDTO;
 import org.acme.model.Pix;
 import org.acme.model.PixComVencimento;
 import org.acme.model.PixImediato;
 import org.acme.model.PixInfoAdicional;
+import org.acme.model.PixOutbox;
 import org.acme.repository.PixComVencimentoRepository;
 import org.acme.repository.PixImediatoRepository;
+import org.acme.repository.PixOutboxRepository;
+import org.acme.repository.PixRepository;
 import org.jboss.logging.Logger;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
@@ -48,6 +57,10 @@ public class PixService {
 
     private static final Logger LOG = Logger.getLogger(PixService.class);
 
+    // Ordenação das listagens: mais recentes primeiro, id como desempate
+    private static final Comparator<Pix> ORDEM_MAIS_RECENTES = Comparator.comparing(Pix::getCriacao)
+            .thenComparing(Pix::getId).reversed();
+
     @Inject
     PixComVencimentoRepository pixComVencimentoRepository;
 
@@ -60,84 +73,715 @@ public class PixService {
     @Inject
     PixConfig pixConfig;
 
+    @Inject
+    BBHttpClient bbHttpClient;
+
+    @Inject
+    BBHealthMonitor bbHealthMonitor;
+
+    @Inject
+    PixOutboxRepository pixOutboxRepository;
+
+    @Inject
+    PixRepository pixRepository;
+
+    @Inject
+    QrCodeRenderer qrCodeRenderer;
+
+    @Inject
+    BrCodeBuilder brCodeBuilder;
+
+    @Inject
+    PoliticaRetentativa politicaRetentativa;
+
+    // Entregue aos observadores transacionais só após o commit
+    @Inject
+    Event<StatusCobrancaAlterada> statusAlterado;
+
     /**
      * Cria uma cobrança Pix imediata usando a API do Banco do Brasil
      * 
+     * A cobrança é gravada como PENDENTE em uma transação curta, registrada no
+     * banco fora de transação e finalizada em uma segunda transação curta. Se o
+     * processo cair entre as etapas, o RegistroPendenteScheduler conclui o registro.
+     * 
      * @param pixImediato Objeto com os dados da cobrança
      * @return Resultado da operação com os detalhes da cobrança criada
-     * @throws Exception Se ocorrer algum erro na criação da cobrança
+     * @throws RegistroPendenteException Se o registro não puder ser confirmado;
+     *                                   a cobrança fica PENDENTE com o mesmo txid
+     * @throws Exception                 Se ocorrer algum erro na criação da
+     *                                   cobrança
      */
-    @Transactional
     public JsonObject criarCobrancaPix(PixImediato pixImediato) throws Exception {
         LOG.info("Iniciando criação de cobrança Pix com TxID: " + pixImediato.getTxid());
 
-        // Testar conectividade antes de continuar
-        try {
-            InetAddress address = InetAddress.getByName("api.hm.bb.com.br");
-            boolean reachable = address.isReachable(5000);
-            LOG.info("Servidor api.hm.bb.com.br está acessível: " + reachable);
-            if (!reachable) {
-                LOG.warn("O servidor pode estar inacessível, mas continuando mesmo assim");
-            }
-        } catch (IOException e) {
-            LOG.error("Erro ao verificar conectividade: " + e.getMessage(), e);
-            // Continuar mesmo com erro de conectividade para ver o erro real
+        // Conectividade verificada em segundo plano pelo BBHealthMonitor
+        if (!bbHealthMonitor.isApiDisponivel()) {
+            LOG.warn("A API do banco pode estar inacessível, mas continuando mesmo assim");
         }
 
-        // Obter token de acesso
-        String accessToken = tokenService.getAccessToken();
-        LOG.info("Access Token obtido com sucesso! " + accessToken);
-
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
+        // Registrar a cobrança localmente como pendente
+        pixImediato.setSituacaoRegistro("PENDENTE");
+        persistirPixImediato(pixImediato);
 
         // Criar o JSON de cobrança PIX
         JsonObject cobrancaJson = criarJsonCobranca(pixImediato);
         LOG.info("JSON da cobrança: " + cobrancaJson.encode());
 
-        LOG.info("TxId: " + pixImediato.getTxid());
-        LOG.info("URL base: " + pixConfig.getPixBBImediatoUrl());
-        LOG.info("App Key: " + pixConfig.getAppKey());
+        // Registrar a cobrança no banco, sem transação aberta
+        HttpResponse<String> response = registrarComRetentativas(pixImediato, pixConfig.getPixBBImediatoUrl(),
+                cobrancaJson);
+        LOG.info("Resposta da API: " + response.statusCode() + " - " + response.body());
+
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            // Processar resposta de sucesso e finalizar o registro local
+            JsonObject jsonResponse = new JsonObject(response.body());
+            finalizarRegistro(pixImediato, jsonResponse);
+
+            LOG.info("Cobrança Pix criada com sucesso: " + pixImediato.getTxid());
+            return jsonResponse;
+        } else {
+            registrarFalhaSeDefinitiva(pixImediato, response.statusCode());
+            if (!isFalhaDefinitiva(response.statusCode())) {
+                throw new RegistroPendenteException(pixImediato.getTxid(), "Código " + response.statusCode(), null);
+            }
+            LOG.error("Falha na criação da cobrança Pix. Código: " + response.statusCode() + ", Resposta: "
+                    + response.body());
+            throw new RuntimeException("Falha na criação da cobrança Pix. Código: " +
+                    response.statusCode() + ", Resposta: " + response.body());
+        }
+    }
+
+    /**
+     * Registra (PUT) a cobrança no banco pela PoliticaRetentativa, repetindo
+     * falhas transitórias com o mesmo txid e consultando a cobrança antes de
+     * cada reenvio
+     * 
+     * Se a chamada for recusada localmente antes de chegar ao banco (circuito
+     * aberto ou cota esgotada), a cobrança é marcada como FALHA para que o
+     * cliente possa tentar de novo sem duplicá-la.
+     * 
+     * @param pix     Cobrança gravada como PENDENTE
+     * @param urlBase URL base do tipo de cobrança (cob ou cobv)
+     * @param json    Corpo da cobrança
+     * @return Resposta de sucesso ou a rejeição definitiva do banco
+     * @throws RegistroPendenteException Se não for possível confirmar o registro
+     * @throws Exception                 Se ocorrer algum erro na comunicação
+     */
+    private HttpResponse<String> registrarComRetentativas(Pix pix, String urlBase, JsonObject json) throws Exception {
+        try {
+            return politicaRetentativa.executar(pix.getTxid(),
+                    () -> enviarCobranca(urlBase, pix.getTxid(), json),
+                    () -> buscarCobrancaNoBanco(urlBase, pix.getTxid()));
+        } catch (BBIndisponivelException e) {
+            marcarRegistroComoFalha(pix);
+            throw e;
+        }
+    }
+
+    /**
+     * Envia o registro (PUT) de uma cobrança para a API do Banco do Brasil
+     * 
+     * @param urlBase URL base do tipo de cobrança (cob ou cobv)
+     * @param txid    ID da transação
+     * @param json    Corpo da cobrança
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    private HttpResponse<String> enviarCobranca(String urlBase, String txid, JsonObject json) throws Exception {
+        // Obter token de acesso
+        String accessToken = tokenService.getAccessToken();
 
         // Adicionar o parâmetro gw-dev-app-key como query parameter
-        String urlCompleta = pixConfig.getPixBBImediatoUrl() + pixImediato.getTxid() + "?gw-dev-app-key="
-                + pixConfig.getAppKey();
-        System.out.println("URL completa: " + urlCompleta);
+        String urlCompleta = urlBase + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
+        LOG.debug("URL completa: " + urlCompleta);
 
         // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Accept", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(cobrancaJson.encode()))
+                .PUT(HttpRequest.BodyPublishers.ofString(json.encode()))
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        LOG.info("Resposta da API: " + response.statusCode() + " - " + response.body());
+        return bbHttpClient.enviar(request);
+    }
 
-        if (response.statusCode() >= 200 && response.statusCode() < 300) {
-            // Processar resposta de sucesso e atualizar o objeto PixImediato
-            JsonObject jsonResponse = new JsonObject(response.body());
+    /**
+     * Consulta (GET) uma cobrança na API do Banco do Brasil sem interpretar a resposta
+     * 
+     * @param urlBase URL base do tipo de cobrança (cob ou cobv)
+     * @param txid    ID da transação
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    private HttpResponse<String> buscarCobrancaNoBanco(String urlBase, String txid) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        String urlCompleta = urlBase + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
+
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    /**
+     * Monta o corpo de um lote lotecobv com as cobranças informadas
+     * 
+     * @param descricao Descrição do lote
+     * @param cobrancas Cobranças com vencimento do lote
+     * @return Corpo da requisição PUT /lotecobv/{id}
+     */
+    public JsonObject criarJsonLoteCobv(String descricao, List<PixComVencimento> cobrancas) {
+        JsonArray cobsv = new JsonArray();
+        for (PixComVencimento pixVencimento : cobrancas) {
+            cobsv.add(criarJsonCobrancaVencimento(pixVencimento).put("txid", pixVencimento.getTxid()));
+        }
+
+        return new JsonObject()
+                .put("descricao", descricao)
+                .put("cobsv", cobsv);
+    }
+
+    /**
+     * Envia (PUT) um lote de cobranças com vencimento à API lotecobv do Banco do
+     * Brasil. O banco processa o lote de forma assíncrona; o resultado de cada
+     * cobrança é obtido depois com consultarLoteCobv.
+     * 
+     * @param idLote ID do lote
+     * @param corpo  Corpo montado por criarJsonLoteCobv
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    public HttpResponse<String> enviarLoteCobv(Long idLote, JsonObject corpo) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        String urlCompleta = pixConfig.getPixBBLoteCobvUrl() + idLote + "?gw-dev-app-key=" + pixConfig.getAppKey();
+
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(corpo.encode()))
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    /**
+     * Consulta (GET) a situação de um lote lotecobv no Banco do Brasil
+     * 
+     * @param idLote ID do lote
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    public HttpResponse<String> consultarLoteCobv(Long idLote) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        String urlCompleta = pixConfig.getPixBBLoteCobvUrl() + idLote + "?gw-dev-app-key=" + pixConfig.getAppKey();
+
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    /**
+     * Consulta (GET /cob ou /cobv) uma página das cobranças criadas no período
+     * informado, com os pagamentos de cada uma
+     * 
+     * @param cobv           true para cobranças com vencimento, false para imediatas
+     * @param inicio         Início do período de criação
+     * @param fim            Fim do período de criação
+     * @param pagina         Página desejada (começando em 0)
+     * @param itensPorPagina Quantidade de cobranças por página
+     * @return Resposta da API, com as cobranças em "cobs" ou "cobsv" e a
+     *         paginação em "parametros.paginacao"
+     * @throws Exception Se ocorrer algum erro na comunicação ou o banco recusar a
+     *                   consulta
+     */
+    public JsonObject listarCobrancasNoBanco(boolean cobv, OffsetDateTime inicio, OffsetDateTime fim, int pagina,
+            int itensPorPagina) throws Exception {
+        String urlBase = cobv ? pixConfig.getPixBBVencimentoUrl() : pixConfig.getPixBBImediatoUrl();
+        // As URLs configuradas terminam em "/" para receber o txid; a listagem é feita no recurso sem ele
+        if (urlBase.endsWith("/")) {
+            urlBase = urlBase.substring(0, urlBase.length() - 1);
+        }
+
+        String urlCompleta = urlBase
+                + "?inicio=" + URLEncoder.encode(inicio.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME), StandardCharsets.UTF_8)
+                + "&fim=" + URLEncoder.encode(fim.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME), StandardCharsets.UTF_8)
+                + "&paginacao.paginaAtual=" + pagina
+                + "&paginacao.itensPorPagina=" + itensPorPagina
+                + "&gw-dev-app-key=" + pixConfig.getAppKey();
+
+        String accessToken = tokenService.getAccessToken();
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        HttpResponse<String> response = bbHttpClient.enviar(request);
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new RuntimeException("Erro ao listar cobranças no banco. Código: " + response.statusCode()
+                    + ", Resposta: " + response.body());
+        }
+
+        return new JsonObject(response.body());
+    }
+
+    /**
+     * Aplica às cobranças locais, em uma única transação, a situação e os
+     * pagamentos de uma página retornada por listarCobrancasNoBanco. Cobranças
+     * sem registro local são ignoradas.
+     * 
+     * @param cobrancas Cobranças retornadas pelo banco
+     * @return Quantidade de cobranças locais alteradas
+     */
+    @Transactional
+    public int conciliarCobrancas(JsonArray cobrancas) {
+        List<String> txids = new ArrayList<>(cobrancas.size());
+        for (int i = 0; i < cobrancas.size(); i++) {
+            String txid = cobrancas.getJsonObject(i).getString("txid");
+            if (txid != null) {
+                txids.add(txid);
+            }
+        }
+        if (txids.isEmpty()) {
+            return 0;
+        }
+
+        HashMap<String, Pix> locais = new HashMap<>();
+        for (Pix pix : pixRepository.listarPorTxIds(txids)) {
+            locais.put(pix.getTxid(), pix);
+        }
+
+        int alteradas = 0;
+        for (int i = 0; i < cobrancas.size(); i++) {
+            JsonObject cobranca = cobrancas.getJsonObject(i);
+            Pix pix = locais.get(cobranca.getString("txid"));
+            if (pix == null) {
+                continue;
+            }
+
+            String statusAnterior = pix.getStatus();
+            int revisaoAnterior = pix.getRevisao();
+            // Avaliado antes de aplicar o status do banco, que já pode vir CONCLUIDA
+            boolean pagaAnteriormente = pix.isPaga();
+
+            if (pix instanceof PixComVencimento pixVencimento) {
+                atualizarDadosPixVencimento(pixVencimento, cobranca);
+            } else if (pix instanceof PixImediato pixImediato) {
+                atualizarDadosPix(pixImediato, cobranca);
+            }
+
+            JsonArray pagamentos = cobranca.getJsonArray("pix");
+            if (pagamentos != null && !pagamentos.isEmpty() && !pagaAnteriormente) {
+                aplicarPagamentoInformado(pix, pagamentos.getJsonObject(0));
+                LOG.info("Pagamento conciliado para a cobrança: " + pix.getTxid());
+            }
+
+            if (!Objects.equals(statusAnterior, pix.getStatus())) {
+                statusAlterado.fire(new StatusCobrancaAlterada(pix.getTxid(), pix.getChave(), statusAnterior,
+                        pix.getStatus()));
+            }
+
+            if (!Objects.equals(statusAnterior, pix.getStatus()) || revisaoAnterior != pix.getRevisao()) {
+                alteradas++;
+            }
+        }
+
+        return alteradas;
+    }
+
+    /**
+     * Aplica, em uma única transação, os pagamentos recebidos pelo webhook Pix.
+     * Idempotente pelo endToEndId: pagamentos já registrados (inclusive repetidos
+     * no mesmo lote) são ignorados, assim como os que não correspondem a uma
+     * cobrança local ativa ou cujo valor difere do valor original; esses ficam
+     * para a conciliação, que consulta a cobrança no banco.
+     * 
+     * @param pagamentos Entradas do array "pix" do callback
+     * @return Quantidade de pagamentos efetivamente aplicados
+     */
+    @Transactional
+    public int aplicarPagamentosWebhook(JsonArray pagamentos) {
+        List<String> endToEndIds = new ArrayList<>(pagamentos.size());
+        List<String> txids = new ArrayList<>(pagamentos.size());
+        for (int i = 0; i < pagamentos.size(); i++) {
+            JsonObject pagamento = pagamentos.getJsonObject(i);
+            if (pagamento.getString("endToEndId") != null && pagamento.getString("txid") != null) {
+                endToEndIds.add(pagamento.getString("endToEndId"));
+                txids.add(pagamento.getString("txid"));
+            }
+        }
+        if (txids.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> processados = new HashSet<>(pixRepository.listarEndToEndIdsExistentes(endToEndIds));
+        HashMap<String, Pix> locais = new HashMap<>();
+        for (Pix pix : pixRepository.listarPorTxIds(txids)) {
+            locais.put(pix.getTxid(), pix);
+        }
+
+        int aplicados = 0;
+        for (int i = 0; i < pagamentos.size(); i++) {
+            JsonObject pagamento = pagamentos.getJsonObject(i);
+            String endToEndId = pagamento.getString("endToEndId");
+            String txid = pagamento.getString("txid");
+            if (endToEndId == null || txid == null || !processados.add(endToEndId)) {
+                continue;
+            }
+
+            Pix pix = locais.get(txid);
+            if (pix == null) {
+                LOG.debug("Pagamento " + endToEndId + " recebido para cobrança desconhecida: " + txid);
+                continue;
+            }
+
+            if (pix.isPaga()) {
+                // Pagamento já conhecido por outro caminho (ex.: conciliação) com outro endToEndId
+                LOG.warn("Cobrança " + txid + " já paga; pagamento " + endToEndId + " ignorado");
+                continue;
+            }
+
+            // Só cobranças ativas podem ser pagas; as demais ficam para a conciliação, que consulta o banco
+            if (!pix.isAtiva()) {
+                LOG.warn("Cobrança " + txid + " com status " + pix.getStatus() + "; pagamento " + endToEndId
+                        + " ignorado");
+                continue;
+            }
+
+            if (!isValorDaCobranca(pix, pagamento.getString("valor"))) {
+                LOG.warn("Pagamento " + endToEndId + " com valor " + pagamento.getString("valor")
+                        + " diferente do valor original da cobrança " + txid + " (" + pix.getValorOriginal()
+                        + "); ignorado");
+                continue;
+            }
+
+            String statusAnterior = pix.getStatus();
+            aplicarPagamentoInformado(pix, pagamento);
+            statusAlterado.fire(new StatusCobrancaAlterada(txid, pix.getChave(), statusAnterior, pix.getStatus()));
+            aplicados++;
+            LOG.info("Pagamento recebido via webhook para a cobrança: " + txid);
+        }
+
+        return aplicados;
+    }
+
+    /**
+     * Verifica se o valor informado no webhook é o valor original da cobrança
+     * 
+     * @param pix   Cobrança
+     * @param valor Valor do pagamento, como texto
+     * @return false se o valor estiver ausente, inválido ou diferente
+     */
+    private static boolean isValorDaCobranca(Pix pix, String valor) {
+        if (valor == null || pix.getValorOriginal() == null) {
+            return false;
+        }
+        try {
+            return new BigDecimal(valor).compareTo(pix.getValorOriginal()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Registra na cobrança um pagamento informado pelo banco (entrada do array
+     * "pix"), usando o horário do banco quando presente
+     * 
+     * @param pix     Cobrança gerenciada pela sessão atual
+     * @param pixInfo Dados do pagamento
+     */
+    private void aplicarPagamentoInformado(Pix pix, JsonObject pixInfo) {
+        String endToEndId = pixInfo.getString("endToEndId", "API" + System.currentTimeMillis());
+        BigDecimal valorPago = new BigDecimal(pixInfo.getString("valor", pix.getValorOriginal().toString()));
+        pix.registrarPagamento(endToEndId, valorPago, pixInfo.getString("infoPagador", ""));
+
+        // O pagamento pode ser conhecido bem depois de ocorrer; prevalece o horário informado pelo banco
+        String horario = pixInfo.getString("horario");
+        if (horario != null) {
+            try {
+                pix.setHorarioPagamento(OffsetDateTime.parse(horario)
+                        .atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+            } catch (DateTimeParseException e) {
+                LOG.debug("Horário de pagamento inválido para " + pix.getTxid() + ": " + horario);
+            }
+        }
+    }
+
+    /**
+     * Cadastra (PUT /webhook/{chave}) no Banco do Brasil a URL que receberá as
+     * notificações de pagamento da chave informada
+     * 
+     * @param chave      Chave Pix
+     * @param webhookUrl URL de notificação
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    public HttpResponse<String> configurarWebhook(String chave, String webhookUrl) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        HttpRequest request = bbHttpClient.requisicao(urlWebhook(chave))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(new JsonObject().put("webhookUrl", webhookUrl).encode()))
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    /**
+     * Consulta (GET /webhook/{chave}) o webhook cadastrado para a chave
+     * 
+     * @param chave Chave Pix
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    public HttpResponse<String> consultarWebhook(String chave) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        HttpRequest request = bbHttpClient.requisicao(urlWebhook(chave))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    /**
+     * Remove (DELETE /webhook/{chave}) o webhook cadastrado para a chave
+     * 
+     * @param chave Chave Pix
+     * @return Resposta da API
+     * @throws Exception Se ocorrer algum erro na comunicação
+     */
+    public HttpResponse<String> removerWebhook(String chave) throws Exception {
+        String accessToken = tokenService.getAccessToken();
+        HttpRequest request = bbHttpClient.requisicao(urlWebhook(chave))
+                .header("Authorization", "Bearer " + accessToken)
+                .DELETE()
+                .build();
+
+        return bbHttpClient.enviar(request);
+    }
+
+    private String urlWebhook(String chave) {
+        return pixConfig.getPixBBWebhookUrl() + URLEncoder.encode(chave, StandardCharsets.UTF_8)
+                + "?gw-dev-app-key=" + pixConfig.getAppKey();
+    }
+
+    /**
+     * Aplica a resposta do banco à cobrança e grava o registro como concluído
+     * 
+     * @param pix      Cobrança registrada
+     * @param response Resposta da API
+     */
+    private void finalizarRegistro(Pix pix, JsonObject response) {
+        pix.setSituacaoRegistro("REGISTRADA");
+
+        if (pix instanceof PixComVencimento pixVencimento) {
+            atualizarDadosPixVencimento(pixVencimento, response);
+            persistirPixComVencimento(pixVencimento);
+        } else if (pix instanceof PixImediato pixImediato) {
+            atualizarDadosPix(pixImediato, response);
+            persistirPixImediato(pixImediato);
+        }
+    }
+
+    /**
+     * Marca o registro como FALHA quando o banco rejeitou a cobrança de forma
+     * definitiva. Timeouts, 429 e erros 5xx são ambíguos e mantêm a cobrança
+     * PENDENTE para nova tentativa.
+     * 
+     * @param pix        Cobrança rejeitada
+     * @param statusCode Código HTTP retornado pelo banco
+     */
+    private void registrarFalhaSeDefinitiva(Pix pix, int statusCode) {
+        if (!isFalhaDefinitiva(statusCode)) {
+            return;
+        }
 
-            // Atualizar dados do pix com base na resposta
-            atualizarDadosPix(pixImediato, jsonResponse);
+        marcarRegistroComoFalha(pix);
+    }
 
-            // Persistir o objeto no banco de dados
+    /**
+     * Grava a cobrança com registro em FALHA (rejeitada pelo banco)
+     * 
+     * @param pix Cobrança rejeitada
+     */
+    public void marcarRegistroComoFalha(Pix pix) {
+        pix.setSituacaoRegistro("FALHA");
+        if (pix instanceof PixComVencimento pixVencimento) {
+            persistirPixComVencimento(pixVencimento);
+        } else if (pix instanceof PixImediato pixImediato) {
             persistirPixImediato(pixImediato);
+        }
+    }
 
-            LOG.info("Cobrança Pix criada com sucesso: " + pixImediato.getTxid());
-            return jsonResponse;
+    /**
+     * Indica se o código HTTP representa uma rejeição definitiva (erros 4xx,
+     * exceto 408 e 429)
+     * 
+     * @param statusCode Código HTTP retornado pelo banco
+     * @return true se repetir a requisição não mudaria o resultado
+     */
+    static boolean isFalhaDefinitiva(int statusCode) {
+        return statusCode >= 400 && statusCode < 500 && statusCode != 408 && statusCode != 429;
+    }
+
+    /**
+     * Envia ao banco o registro de uma cobrança já gravada localmente como
+     * PENDENTE e finaliza o registro local conforme a resposta
+     * 
+     * @param pix Cobrança pendente
+     * @return true se registrada, false se rejeitada definitivamente pelo banco
+     * @throws Exception Se a falha for ambígua e a cobrança puder ser reenviada
+     */
+    public boolean registrarCobrancaNoBanco(Pix pix) throws Exception {
+        String urlBase = pix.isCobvTipo() ? pixConfig.getPixBBVencimentoUrl() : pixConfig.getPixBBImediatoUrl();
+        JsonObject json = pix instanceof PixComVencimento pixVencimento
+                ? criarJsonCobrancaVencimento(pixVencimento)
+                : criarJsonCobranca((PixImediato) pix);
+
+        HttpResponse<String> response = enviarCobranca(urlBase, pix.getTxid(), json);
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            finalizarRegistro(pix, new JsonObject(response.body()));
+            return true;
+        }
+
+        LOG.warn("Registro da cobrança " + pix.getTxid() + " falhou. Código: " + response.statusCode()
+                + ", Resposta: " + response.body());
+        if (isFalhaDefinitiva(response.statusCode())) {
+            registrarFalhaSeDefinitiva(pix, response.statusCode());
+            return false;
+        }
+
+        throw new RuntimeException("Falha no registro da cobrança Pix. Código: " +
+                response.statusCode() + ", Resposta: " + response.body());
+    }
+
+    /**
+     * Grava uma cobrança como PENDENTE junto com sua entrada na outbox, na mesma
+     * transação. O registro no banco é feito depois pelo OutboxProcessor.
+     * 
+     * @param pix Cobrança a ser registrada de forma assíncrona
+     */
+    @Transactional
+    public void enfileirarCobranca(Pix pix) {
+        LOG.info("Enfileirando registro assíncrono da cobrança: " + pix.getTxid());
+
+        pix.setSituacaoRegistro("PENDENTE");
+        if (pix instanceof PixComVencimento pixVencimento) {
+            pixComVencimentoRepository.persist(pixVencimento);
+        } else if (pix instanceof PixImediato pixImediato) {
+            pixImediatoRepository.persist(pixImediato);
+        }
+
+        pixOutboxRepository.persist(new PixOutbox(pix));
+    }
+
+    /**
+     * Grava um lote de cobranças como PENDENTE com suas entradas na outbox, em
+     * uma única transação. As cobranças são inseridas antes das entradas da
+     * outbox para que o Hibernate agrupe os INSERTs de cada tabela em lotes JDBC.
+     * 
+     * @param cobrancas Cobranças a serem registradas de forma assíncrona
+     */
+    @Transactional
+    public void enfileirarLote(List<Pix> cobrancas) {
+        LOG.info("Enfileirando lote de " + cobrancas.size() + " cobranças");
+
+        for (Pix pix : cobrancas) {
+            pix.setSituacaoRegistro("PENDENTE");
+            pixRepository.persist(pix);
+        }
+        for (Pix pix : cobrancas) {
+            pixOutboxRepository.persist(new PixOutbox(pix));
+        }
+    }
+
+    /**
+     * Monta uma cobrança a partir dos dados recebidos na API, validando os campos
+     * obrigatórios e gerando o TxID
+     * 
+     * @param pixData Dados da cobrança
+     * @return PixImediato ou PixComVencimento, conforme o tipoCob
+     * @throws IllegalArgumentException Se os dados forem inválidos
+     */
+    public Pix montarCobranca(PixCobrancaDTO pixData) {
+        if (pixData == null) {
+            throw new IllegalArgumentException("Dados da cobrança ausentes");
+        }
+
+        BigDecimal valor;
+        try {
+            valor = new BigDecimal(pixData.valor());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Valor inválido: " + pixData.valor());
+        }
+
+        if (pixData.chave() == null || valor.compareTo(BigDecimal.ZERO) <= 0 || pixData.nome() == null) {
+            throw new IllegalArgumentException("Chave Pix, valor e nome são obrigatórios");
+        }
+
+        String tipoCob = pixData.tipoCob();
+        Pix pix;
+        if ("cob".equals(tipoCob)) {
+            pix = new PixImediato(gerarTxid(tipoCob, pixData.banco()), pixData.chave(), valor, pixData.nome(),
+                    pixData.cpf(), pixData.cnpj(), pixData.expiracao(), pixData.banco());
+        } else if ("cobv".equals(tipoCob)) {
+            if (pixData.dataVencimento() == null) {
+                throw new IllegalArgumentException("Data de vencimento é obrigatória para cobrança com vencimento");
+            }
+            pix = new PixComVencimento(gerarTxid(tipoCob, pixData.banco()), pixData.chave(), valor, pixData.nome(),
+                    pixData.cpf(), pixData.cnpj(), pixData.dataVencimento(), pixData.validadeAposVencimento(),
+                    pixData.banco());
         } else {
-            LOG.error("Falha na criação da cobrança Pix. Código: " + response.statusCode() + ", Resposta: "
-                    + response.body());
-            throw new RuntimeException("Falha na criação da cobrança Pix. Código: " +
-                    response.statusCode() + ", Resposta: " + response.body());
+            throw new IllegalArgumentException("Tipo de cobrança inválido: " + tipoCob);
         }
+
+        if (pixData.solicitacaoPagador() != null && !pixData.solicitacaoPagador().isEmpty()) {
+            pix.setSolicitacaoPagador(pixData.solicitacaoPagador());
+        }
+
+        return pix;
+    }
+
+    /**
+     * Conclui o registro de uma cobrança que ficou PENDENTE (queda do processo ou
+     * falha ambígua na chamada ao banco). Consulta a cobrança no banco e, se ela não
+     * existir, reenvia o registro com o mesmo TxID.
+     * 
+     * @param pix Cobrança pendente
+     * @throws Exception Se ocorrer algum erro na comunicação com o banco
+     */
+    public void recuperarRegistroPendente(Pix pix) throws Exception {
+        String urlBase = pix.isCobvTipo() ? pixConfig.getPixBBVencimentoUrl() : pixConfig.getPixBBImediatoUrl();
+
+        HttpResponse<String> consulta = buscarCobrancaNoBanco(urlBase, pix.getTxid());
+        if (consulta.statusCode() >= 200 && consulta.statusCode() < 300) {
+            LOG.info("Cobrança pendente encontrada no banco, finalizando registro: " + pix.getTxid());
+            finalizarRegistro(pix, new JsonObject(consulta.body()));
+            return;
+        }
+
+        if (consulta.statusCode() != 404) {
+            LOG.warn("Não foi possível verificar a cobrança pendente " + pix.getTxid() + ". Código: "
+                    + consulta.statusCode());
+            return;
+        }
+
+        LOG.info("Cobrança pendente não existe no banco, reenviando registro: " + pix.getTxid());
+        registrarCobrancaNoBanco(pix);
     }
 
     /**
@@ -199,59 +843,44 @@ public class PixService {
     /**
      * Cria uma cobrança Pix com vencimento usando a API do Banco do Brasil
      * 
+     * Segue o mesmo fluxo de {@link #criarCobrancaPix(PixImediato)}: registro
+     * local PENDENTE, chamada remota fora de transação e finalização local.
+     * 
      * @param pixVencimento Objeto com os dados da cobrança
      * @return Resultado da operação com os detalhes da cobrança criada
-     * @throws Exception Se ocorrer algum erro na criação da cobrança
+     * @throws RegistroPendenteException Se o registro não puder ser confirmado;
+     *                                   a cobrança fica PENDENTE com o mesmo txid
+     * @throws Exception                 Se ocorrer algum erro na criação da
+     *                                   cobrança
      */
-    @Transactional
     public JsonObject criarCobrancaPixVencimento(PixComVencimento pixVencimento) throws Exception {
         LOG.info("Iniciando criação de cobrança Pix com vencimento, TxID: " + pixVencimento.getTxid());
 
-        // Obter token de acesso
-        String accessToken = tokenService.getAccessToken();
-        LOG.info("Access Token obtido com sucesso!");
-
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(20))
-                .build();
+        // Registrar a cobrança localmente como pendente
+        pixVencimento.setSituacaoRegistro("PENDENTE");
+        persistirPixComVencimento(pixVencimento);
 
         // Criar o JSON de cobrança PIX com vencimento
         JsonObject cobrancaJson = criarJsonCobrancaVencimento(pixVencimento);
         LOG.info("JSON da cobrança com vencimento: " + cobrancaJson.encode());
 
-        // Adicionar o parâmetro gw-dev-app-key como query parameter
-        String urlCompleta = pixConfig.getPixBBVencimentoUrl() + pixVencimento.getTxid() + "?gw-dev-app-key="
-                + pixConfig.getAppKey();
-        LOG.info("URL completa: " + urlCompleta);
-
-        // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + accessToken)
-                .header("Accept", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(cobrancaJson.encode()))
-                .build();
-
-        // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        // Registrar a cobrança no banco, sem transação aberta
+        HttpResponse<String> response = registrarComRetentativas(pixVencimento, pixConfig.getPixBBVencimentoUrl(),
+                cobrancaJson);
         LOG.info("Resposta da API: " + response.statusCode() + " - " + response.body());
 
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
-            // Processar resposta de sucesso e atualizar o objeto PixComVencimento
+            // Processar resposta de sucesso e finalizar o registro local
             JsonObject jsonResponse = new JsonObject(response.body());
-
-            // Atualizar dados do pix com base na resposta
-            atualizarDadosPixVencimento(pixVencimento, jsonResponse);
-
-            // Persistir o objeto no banco de dados
-            persistirPixComVencimento(pixVencimento);
+            finalizarRegistro(pixVencimento, jsonResponse);
 
             LOG.info("Cobrança Pix com vencimento criada com sucesso: " + pixVencimento.getTxid());
             return jsonResponse;
         } else {
+            registrarFalhaSeDefinitiva(pixVencimento, response.statusCode());
+            if (!isFalhaDefinitiva(response.statusCode())) {
+                throw new RegistroPendenteException(pixVencimento.getTxid(), "Código " + response.statusCode(), null);
+            }
             LOG.error(
                     "Falha na criação da cobrança Pix com vencimento. Código: " + response.statusCode() + ", Resposta: "
                             + response.body());
@@ -467,6 +1096,7 @@ public class PixService {
             LOG.debug("Atualizando cobrança Pix existente: " + pixImediato.getTxid());
             // Garantir que o ID do objeto a ser mesclado seja o mesmo do existente
             pixImediato.setId(pixExistente.getId());
+            notificarSeStatusMudou(pixExistente.getStatus(), pixImediato);
             pixImediatoRepository.getEntityManager().merge(pixImediato);
         }
     }
@@ -490,10 +1120,25 @@ public class PixService {
             LOG.debug("Atualizando cobrança Pix com vencimento existente: " + pixVencimento.getTxid());
             // Garantir que o ID do objeto a ser mesclado seja o mesmo do existente
             pixVencimento.setId(pixExistente.getId());
+            notificarSeStatusMudou(pixExistente.getStatus(), pixVencimento);
             pixComVencimentoRepository.getEntityManager().merge(pixVencimento);
         }
     }
 
+    /**
+     * Dispara StatusCobrancaAlterada se o status gravado difere do anterior
+     * (pagamento, cancelamento ou atualização vinda do banco)
+     * 
+     * @param statusAnterior Status atualmente gravado
+     * @param pix            Cobrança com o novo status
+     */
+    private void notificarSeStatusMudou(String statusAnterior, Pix pix) {
+        if (!Objects.equals(statusAnterior, pix.getStatus())) {
+            statusAlterado.fire(new StatusCobrancaAlterada(pix.getTxid(), pix.getChave(), statusAnterior,
+                    pix.getStatus()));
+        }
+    }
+
     /**
      * Gera um TxID de exatamente 35 caracteres, apenas letras e números.
      *
@@ -528,6 +1173,34 @@ public class PixService {
         return raw.length() > 35 ? raw.substring(0, 35) : String.format("%-35s", raw).replace(' ', '0');
     }
 
+    /**
+     * Consulta uma cobrança Pix de qualquer tipo pelo TxID no banco de dados,
+     * em uma única consulta
+     * 
+     * @param txid ID da transação
+     * @return PixImediato ou PixComVencimento se encontrado, null caso contrário
+     */
+    public Pix consultarPixRepository(String txid) {
+        try {
+            LOG.debug("Consultando cobrança Pix com TxID: " + txid);
+            return pixRepository.findByTxId(txid);
+        } catch (Exception e) {
+            LOG.error("Erro ao consultar cobrança Pix", e);
+            return null;
+        }
+    }
+
+    /**
+     * Lê o status gravado de uma cobrança, sem reaproveitar a cobrança já
+     * carregada nesta requisição
+     * 
+     * @param txid ID da transação
+     * @return Status atual ou null se a cobrança não for encontrada
+     */
+    public String consultarStatusGravado(String txid) {
+        return pixRepository.buscarStatus(txid);
+    }
+
     /**
      * Consulta uma cobrança Pix pelo TxID no meu banco de dados (via Repository)
      * 
@@ -617,6 +1290,167 @@ public class PixService {
         }
     }
 
+    /**
+     * Lista uma página de cobranças Pix, mais recentes primeiro
+     * 
+     * @param tipo   Tipo de cobrança (cob, cobv ou todos)
+     * @param cursor Cursor da página anterior, ou null para a primeira página
+     * @param limite Tamanho da página
+     * @return Página de cobranças e cursor da próxima página
+     */
+    public PaginaCobrancasDTO listarCobrancasPaginadas(String tipo, CursorPaginacao cursor, int limite) {
+        LOG.debug("Listando página de " + limite + " cobranças Pix do tipo " + tipo);
+
+        List<PixImediato> imediatas = "todos".equals(tipo) || "cob".equals(tipo)
+                ? pixImediatoRepository.listarRecentes(cursor, limite)
+                : List.of();
+        List<PixComVencimento> vencimento = "todos".equals(tipo) || "cobv".equals(tipo)
+                ? pixComVencimentoRepository.listarRecentes(cursor, limite)
+                : List.of();
+
+        return montarPagina(limite, imediatas, vencimento);
+    }
+
+    /**
+     * Lista uma página das cobranças que vencem (cobv) ou expiram (cob) no período
+     * 
+     * @param dataInicio Data inicial
+     * @param dataFim    Data final
+     * @param cursor     Cursor da página anterior, ou null para a primeira página
+     * @param limite     Tamanho da página
+     * @return Página de cobranças e cursor da próxima página
+     */
+    public PaginaCobrancasDTO listarCobrancasPorPeriodoPaginadas(LocalDate dataInicio, LocalDate dataFim,
+            CursorPaginacao cursor, int limite) {
+        return montarPagina(limite,
+                pixImediatoRepository.listarPorPeriodo(dataInicio, dataFim, cursor, limite),
+                pixComVencimentoRepository.listarPorPeriodo(dataInicio, dataFim, cursor, limite));
+    }
+
+    /**
+     * Lista uma página das cobranças com vencimento vencidas e não pagas
+     * 
+     * @param dataReferencia Data de referência para verificar o vencimento
+     * @param cursor         Cursor da página anterior, ou null para a primeira página
+     * @param limite         Tamanho da página
+     * @return Página de cobranças e cursor da próxima página
+     */
+    public PaginaCobrancasDTO listarCobrancasVencidasPaginadas(LocalDate dataReferencia, CursorPaginacao cursor,
+            int limite) {
+        return montarPagina(limite, List.of(),
+                pixComVencimentoRepository.listarVencidasNaoPagas(dataReferencia, cursor, limite));
+    }
+
+    /**
+     * Junta as páginas de cada tipo de cobrança mantendo a ordenação por
+     * criacao DESC, id DESC. Cada lista traz até limite + 1 registros a partir do
+     * mesmo cursor, então o excedente após a junção indica que há próxima página.
+     */
+    private static PaginaCobrancasDTO montarPagina(int limite, List<? extends Pix> imediatas,
+            List<? extends Pix> vencimento) {
+        List<Pix> todas = new ArrayList<>(imediatas.size() + vencimento.size());
+        todas.addAll(imediatas);
+        todas.addAll(vencimento);
+        todas.sort(ORDEM_MAIS_RECENTES);
+
+        if (todas.size() <= limite) {
+            return new PaginaCobrancasDTO(todas, null);
+        }
+
+        List<Pix> pagina = new ArrayList<>(todas.subList(0, limite));
+        return new PaginaCobrancasDTO(pagina, CursorPaginacao.de(pagina.get(pagina.size() - 1)));
+    }
+
+    /**
+     * Recebe, uma a uma, as cobranças percorridas por uma exportação
+     */
+    @FunctionalInterface
+    public interface EscritorCobranca {
+        void escrever(Pix pix) throws IOException;
+    }
+
+    /**
+     * Percorre todas as cobranças que vencem (cobv) ou expiram (cob) no período,
+     * entregando-as ao escritor sem manter o resultado em memória
+     * 
+     * @param dataInicio Data inicial
+     * @param dataFim    Data final
+     * @param escritor   Destino de cada cobrança
+     * @return Número de cobranças exportadas
+     * @throws IOException Se o escritor falhar
+     */
+    @Transactional
+    public long exportarCobrancasPorPeriodo(LocalDate dataInicio, LocalDate dataFim, EscritorCobranca escritor)
+            throws IOException {
+        try (Stream<PixImediato> imediatas = pixImediatoRepository.streamPorPeriodo(dataInicio, dataFim);
+                Stream<PixComVencimento> vencimento = pixComVencimentoRepository.streamPorPeriodo(dataInicio,
+                        dataFim)) {
+            return exportar(mesclarPorCriacao(imediatas.iterator(), vencimento.iterator()), escritor);
+        }
+    }
+
+    /**
+     * Percorre todas as cobranças com vencimento vencidas e não pagas, entregando-as
+     * ao escritor sem manter o resultado em memória
+     * 
+     * @param dataReferencia Data de referência para verificar o vencimento
+     * @param escritor       Destino de cada cobrança
+     * @return Número de cobranças exportadas
+     * @throws IOException Se o escritor falhar
+     */
+    @Transactional
+    public long exportarCobrancasVencidas(LocalDate dataReferencia, EscritorCobranca escritor) throws IOException {
+        try (Stream<PixComVencimento> vencidas = pixComVencimentoRepository.streamVencidasNaoPagas(dataReferencia)) {
+            return exportar(vencidas.iterator(), escritor);
+        }
+    }
+
+    private long exportar(Iterator<? extends Pix> cobrancas, EscritorCobranca escritor) throws IOException {
+        long total = 0;
+        while (cobrancas.hasNext()) {
+            Pix pix = cobrancas.next();
+            escritor.escrever(pix);
+            // Libera a entidade da sessão para que a memória não cresça com o resultado
+            pixRepository.getEntityManager().detach(pix);
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Intercala duas sequências já ordenadas por criacao DESC, id DESC, mantendo
+     * a ordenação e lendo apenas um elemento à frente de cada uma
+     */
+    private static Iterator<Pix> mesclarPorCriacao(Iterator<? extends Pix> primeira, Iterator<? extends Pix> segunda) {
+        return new Iterator<>() {
+            private Pix proximaPrimeira = primeira.hasNext() ? primeira.next() : null;
+            private Pix proximaSegunda = segunda.hasNext() ? segunda.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return proximaPrimeira != null || proximaSegunda != null;
+            }
+
+            @Override
+            public Pix next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Pix resultado;
+                if (proximaSegunda == null || (proximaPrimeira != null
+                        && ORDEM_MAIS_RECENTES.compare(proximaPrimeira, proximaSegunda) <= 0)) {
+                    resultado = proximaPrimeira;
+                    proximaPrimeira = primeira.hasNext() ? primeira.next() : null;
+                } else {
+                    resultado = proximaSegunda;
+                    proximaSegunda = segunda.hasNext() ? segunda.next() : null;
+                }
+                return resultado;
+            }
+        };
+    }
+
     /**
      * Lista as cobranças Pix vencidas e não pagas
      * 
@@ -639,165 +1473,78 @@ public class PixService {
     public byte[] gerarQrCodeImage(String pixCopiaECola) throws Exception {
         LOG.info("Gerando QR Code para Pix Copia e Cola");
 
-        // Validar se o texto Pix Copia e Cola foi fornecido
+        return gerarQrCode(pixCopiaECola, "png", 300, ErrorCorrectionLevel.M, 2);
+    }
+
+    /**
+     * Gera o QR Code no formato e tamanho solicitados
+     * 
+     * @param pixCopiaECola Texto Pix Copia e Cola para gerar o QR Code
+     * @param formato       png, svg ou matriz (JSON com os módulos)
+     * @param tamanho       Largura e altura da imagem em pixels (ignorado na matriz)
+     * @param correcao      Nível de correção de erros
+     * @param margem        Zona de silêncio em módulos
+     * @return Bytes da representação gerada
+     * @throws Exception Se ocorrer algum erro na geração
+     */
+    public byte[] gerarQrCode(String pixCopiaECola, String formato, int tamanho, ErrorCorrectionLevel correcao,
+            int margem) throws Exception {
         if (pixCopiaECola == null || pixCopiaECola.trim().isEmpty()) {
             throw new IllegalArgumentException("Texto Pix Copia e Cola não fornecido");
         }
 
-        int width = 300; // Largura do QR Code em pixels
-        int height = 300; // Altura do QR Code em pixels
-        String fileType = "png";
-
-        // Configuração para correção de erros do QR Code
-        HashMap<EncodeHintType, Object> hintMap = new HashMap<>();
-        hintMap.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M); // Nível médio de correção de erros
-        hintMap.put(EncodeHintType.MARGIN, 2); // Margem do QR Code
-        hintMap.put(EncodeHintType.CHARACTER_SET, "UTF-8"); // Codificação de caracteres
-
         try {
-            // Gerar a matriz de bits do QR Code
-            BitMatrix matrix = new MultiFormatWriter().encode(
-                    pixCopiaECola,
-                    BarcodeFormat.QR_CODE,
-                    width,
-                    height,
-                    hintMap);
-
-            // Converter a matriz em bytes de imagem
-            ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(matrix, fileType, pngOutputStream);
-
-            return pngOutputStream.toByteArray();
-
-        } catch (WriterException | IOException e) {
+            return switch (formato) {
+                case "png" -> qrCodeRenderer.renderizarPng(pixCopiaECola, tamanho, correcao, margem);
+                case "svg" -> qrCodeRenderer.renderizarSvg(pixCopiaECola, tamanho, correcao, margem);
+                case "matriz" -> qrCodeRenderer.renderizarMatriz(pixCopiaECola, correcao, margem);
+                default -> throw new IllegalArgumentException("Formato de QR Code não suportado: " + formato);
+            };
+        } catch (WriterException e) {
             LOG.error("Erro ao gerar QR Code: " + e.getMessage(), e);
             throw new Exception("Falha na geração do QR Code: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Gera o texto para o QR Code PIX (PIX Copia e Cola)
+     * Obtém o texto Pix Copia e Cola da cobrança. Se o banco ainda não o
+     * informou mas a cobrança já tem location, o BR Code dinâmico é montado
+     * localmente, sem nova consulta ao banco.
      * 
-     * @param pix Objeto Pix contendo os dados da cobrança
-     * @return String contendo o texto formatado para o QR Code PIX
+     * @param pix Cobrança
+     * @return Texto Pix Copia e Cola ou null se não houver dados para montá-lo
      */
-    // public String gerarTextoQrCodePix(Pix pix) {
-    // // Preencher os campos obrigatórios
-    // Integer chaveLength = pix.getChave().length();
-    // Integer merchantNameFieldSize = (pix.getRecebedorNome() != null) ?
-    // pix.getRecebedorNome().length() : 0;
-
-    // // Limitar o nome do recebedor a 25 caracteres
-    // String nomeRecebedor = (pix.getRecebedorNome() != null) ?
-    // pix.getRecebedorNome() : "";
-    // if (nomeRecebedor.length() > 25) {
-    // nomeRecebedor = nomeRecebedor.substring(0, 25);
-    // merchantNameFieldSize = 25;
-    // }
-
-    // // Formatar o tamanho do nome do recebedor (2 dígitos)
-    // String nomeRecebedorSizeStr = String.format("%02d", merchantNameFieldSize);
-
-    // // Cidade do recebedor (máximo 15 caracteres)
-    // String cidade = "BRASILIA"; // Valor padrão, substitua se disponível no
-    // objeto pix
-    // if (pix.getCidade() != null && !pix.getCidade().isEmpty()) {
-    // cidade = pix.getCidade();
-    // if (cidade.length() > 15) {
-    // cidade = cidade.substring(0, 15);
-    // }
-    // }
-    // String cidadeSizeStr = String.format("%02d", cidade.length());
-
-    // // Valor do pagamento
-    // String valorStr = pix.getValorOriginal().toString();
-    // String valorSizeStr = String.format("%02d", valorStr.length());
-
-    // // Gerar TxID
-    // String txId = pix.getTxid();
-
-    // // Tamanho do campo merchant account information
-    // Integer merchantAccountInfoSize = chaveLength + 8 + 14; // 8 para os
-    // subcampos e 14 é o tamanho de
-    // // "br.gov.bcb.pix"
-
-    // // Construir o payload
-    // StringBuilder payload = new StringBuilder();
-
-    // // Payload Format Indicator (ID: 00): obrigatório, valor fixo: 01
-    // payload.append("00").append("02").append("01");
-
-    // // Merchant Account Information (ID: 26): obrigatório para PIX
-    // payload.append("26")
-    // .append(String.format("%02d", merchantAccountInfoSize))
-    // .append("0014").append("br.gov.bcb.pix")
-    // .append("01").append(String.format("%02d", chaveLength))
-    // .append(pix.getChave());
-
-    // // Merchant Category Code (ID: 52): obrigatório, valor fixo: 0000
-    // payload.append("52").append("04").append("0000");
-
-    // // Transaction Currency (ID: 53): obrigatório, valor fixo para Real: 986
-    // payload.append("53").append("03").append("986");
-
-    // // Transaction Amount (ID: 54): obrigatório se valor fixo
-    // payload.append("54").append(valorSizeStr).append(valorStr);
-
-    // // Country Code (ID: 58): obrigatório, valor fixo: BR
-    // payload.append("58").append("02").append("BR");
-
-    // // Merchant Name (ID: 59): obrigatório
-    // payload.append("59").append(nomeRecebedorSizeStr).append(nomeRecebedor);
-
-    // // Merchant City (ID: 60): obrigatório
-    // payload.append("60").append(cidadeSizeStr).append(cidade);
-
-    // // Additional Data Field (ID: 62): opcional, usado para o TxID
-    // Integer txIdSize = txId.length();
-    // Integer additionalDataFieldSize = txIdSize + 4; // 4 para o subcampo
-
-    // payload.append("62")
-    // .append(String.format("%02d", additionalDataFieldSize))
-    // .append("05").append(String.format("%02d", txIdSize))
-    // .append(txId);
-
-    // // CRC16 (ID: 63): obrigatório, 4 caracteres
-    // payload.append("6304");
-
-    // // Calcular o CRC-16
-    // String payloadWithoutCrc = payload.toString();
-    // int crc = calcularCRC16(payloadWithoutCrc);
-
-    // // Adicionar o CRC-16 calculado
-    // String payloadFinal = payloadWithoutCrc + String.format("%04X", crc);
-
-    // return payloadFinal;
-    // }
+    public String obterPixCopiaECola(Pix pix) {
+        if (pix.getPixCopiaECola() != null && !pix.getPixCopiaECola().isEmpty()) {
+            return pix.getPixCopiaECola();
+        }
+
+        if (pix.getLocation() == null || pix.getLocation().isEmpty()) {
+            return null;
+        }
+
+        String nome = pix.getRecebedorNome() != null ? pix.getRecebedorNome() : pixConfig.getRecebedorNome();
+        String cidade = pix.getCidade() != null ? pix.getCidade() : pixConfig.getRecebedorCidade();
+        return brCodeBuilder.gerarDinamico(pix.getLocation(), nome, cidade);
+    }
 
     /**
-     * Calcula o CRC-16 (CCITT) para o texto do QR Code
+     * Gera o BR Code estático de uma chave, sem chamada ao banco, com o nome e
+     * a cidade do recebedor configurados
      * 
-     * @param data String para calcular o CRC
-     * @return valor do CRC-16
+     * @param chave     Chave Pix
+     * @param valor     Valor fixo ou null para o pagador informar
+     * @param txid      Identificador de até 25 caracteres ou null
+     * @param descricao Informação ao pagador ou null
+     * @return Texto Pix Copia e Cola
      */
-    // private int calcularCRC16(String data) {
-    // int crc = 0xFFFF; // Valor inicial do CRC16
-
-    // for (int i = 0; i < data.length(); i++) {
-    // char c = data.charAt(i);
-    // crc ^= (c << 8);
-
-    // for (int j = 0; j < 8; j++) {
-    // if ((crc & 0x8000) != 0) {
-    // crc = (crc << 1) ^ 0x1021;
-    // } else {
-    // crc = crc << 1;
-    // }
-    // }
-    // }
-
-    // return crc & 0xFFFF; // Garante que o resultado seja um valor de 16 bits
-    // }
+    public String gerarBrCodeEstatico(String chave, BigDecimal valor, String txid, String descricao) {
+        if (valor != null && valor.signum() <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        return brCodeBuilder.gerarEstatico(chave, valor, pixConfig.getRecebedorNome(),
+                pixConfig.getRecebedorCidade(), txid, descricao);
+    }
 
     /**
      * Consulta detalhes completos de uma cobrança Pix na API do banco
@@ -813,25 +1560,18 @@ public class PixService {
         // Obter token de acesso
         String accessToken = tokenService.getAccessToken();
 
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(20))
-                .build();
-
         // Adicionar o parâmetro gw-dev-app-key como query parameter
         String urlCompleta = pixConfig.getPixBBImediatoUrl() + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
 
         // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Accept", "application/json")
                 .GET()
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = bbHttpClient.enviar(request);
         LOG.debug("Status da consulta de detalhes: " + response.statusCode());
 
         // Processar a resposta
@@ -858,25 +1598,18 @@ public class PixService {
         // Obter token de acesso
         String accessToken = tokenService.getAccessToken();
 
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(20))
-                .build();
-
         // Adicionar o parâmetro gw-dev-app-key como query parameter
         String urlCompleta = pixConfig.getPixBBImediatoUrl() + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
 
         // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Accept", "application/json")
                 .GET()
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = bbHttpClient.enviar(request);
 
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
             JsonObject jsonResponse = new JsonObject(response.body());
@@ -972,25 +1705,18 @@ public class PixService {
         // Obter token de acesso
         String accessToken = tokenService.getAccessToken();
 
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(20))
-                .build();
-
         // Adicionar o parâmetro gw-dev-app-key como query parameter
         String urlCompleta = pixConfig.getPixBBVencimentoUrl() + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
 
         // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Accept", "application/json")
                 .GET()
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = bbHttpClient.enviar(request);
 
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
             JsonObject jsonResponse = new JsonObject(response.body());
@@ -1204,6 +1930,8 @@ public class PixService {
 
     /**
      * Atualiza ou cancela uma cobrança Pix com vencimento existente
+     * Não mantém transação aberta durante a chamada ao banco; a gravação local
+     * ocorre em uma transação curta após a resposta
      * 
      * @param txid          ID da transação
      * @param pixVencimento Objeto com os dados atualizados
@@ -1212,7 +1940,6 @@ public class PixService {
      * @return Resultado da operação
      * @throws Exception Se ocorrer algum erro na atualização
      */
-    @Transactional
     public JsonObject atualizarCobrancaVencimento(String txid, PixComVencimento pixVencimento, boolean cancelar)
             throws Exception {
         LOG.info("Atualizando cobrança Pix com vencimento, TxID: " + txid);
@@ -1231,12 +1958,6 @@ public class PixService {
         // Obter token de acesso
         String accessToken = tokenService.getAccessToken();
 
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(20))
-                .build();
-
         // Criar JSON para atualização ou cancelamento
         JsonObject requestJson;
 
@@ -1253,8 +1974,7 @@ public class PixService {
         String urlCompleta = pixConfig.getPixBBVencimentoUrl() + txid + "?gw-dev-app-key=" + pixConfig.getAppKey();
 
         // Construir a requisição HTTP (PATCH para atualizar parcialmente)
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(urlCompleta))
+        HttpRequest request = bbHttpClient.requisicao(urlCompleta)
                 .header("Content-Type", "application/json")
                 .header("Authorization", "Bearer " + accessToken)
                 .header("Accept", "application/json")
@@ -1262,7 +1982,7 @@ public class PixService {
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = bbHttpClient.enviar(request);
         LOG.info("Resposta da API: " + response.statusCode() + " - " + response.body());
 
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
@@ -1305,6 +2025,10 @@ public class PixService {
         json.put("dataVencimento", pix.getDataVencimento().toString());
         json.put("validadeAposVencimento", pix.getValidadeAposVencimento());
 
+        if (pix.getSituacaoRegistro() != null) {
+            json.put("situacaoRegistro", pix.getSituacaoRegistro());
+        }
+
         if (pix.getCpf() != null && !pix.getCpf().isEmpty()) {
             json.put("cpf", pix.getCpf());
         }
@@ -1395,6 +2119,9 @@ public class PixService {
         json.put("criacao", pix.getCriacao().toString());
 
         // Campos opcionais comuns
+        if (pix.getSituacaoRegistro() != null) {
+            json.put("situacaoRegistro", pix.getSituacaoRegistro());
+        }
         if (pix.getCpf() != null && !pix.getCpf().isEmpty()) {
             json.put("cpf", pix.getCpf());
         }
@@ -0,0 +1,194 @@
+package org.acme.service;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Repete o registro (PUT) de uma cobrança no Banco do Brasil com o mesmo txid
+ *
+ * Falhas de comunicação, 408 e 5xx são ambíguas: o banco pode ter criado a
+ * cobrança antes de a resposta se perder. Depois de uma falha ambígua a
+ * cobrança é consultada (GET) antes de cada novo envio: se já existe, a
+ * consulta é o resultado; só um 404 libera o reenvio. As esperas entre
+ * tentativas crescem exponencialmente com jitter completo, e as repetições
+ * consomem um orçamento compartilhado, reposto a cada primeira tentativa, para
+ * que uma degradação do banco não multiplique o tráfego.
+ */
+@ApplicationScoped
+public class PoliticaRetentativa {
+
+    private static final Logger LOG = Logger.getLogger(PoliticaRetentativa.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    // Fichas de repetição disponíveis, protegidas pelo monitor da instância
+    private double orcamento = -1;
+
+    /**
+     * Construtor padrão, usado pelo CDI
+     */
+    public PoliticaRetentativa() {
+    }
+
+    /**
+     * Construtor com a configuração informada, para uso fora do CDI
+     *
+     * @param pixConfig Configuração das tentativas, do backoff e do orçamento
+     */
+    public PoliticaRetentativa(PixConfig pixConfig) {
+        this.pixConfig = pixConfig;
+    }
+
+    /**
+     * Chamada ao banco repetível
+     */
+    @FunctionalInterface
+    public interface Chamada {
+        /**
+         * Executa a chamada
+         *
+         * @return Resposta do banco
+         * @throws Exception Se ocorrer algum erro na comunicação
+         */
+        HttpResponse<String> executar() throws Exception;
+    }
+
+    /**
+     * Envia a cobrança, repetindo falhas transitórias
+     *
+     * @param txid        ID da transação, para os logs e a exceção
+     * @param envio       PUT da cobrança
+     * @param verificacao GET da mesma cobrança
+     * @return Resposta de sucesso do PUT ou do GET, ou a rejeição definitiva do
+     *         banco (4xx)
+     * @throws RegistroPendenteException Se, esgotadas as tentativas, não for
+     *                                   possível saber se a cobrança foi criada
+     * @throws BBIndisponivelException   Se a primeira tentativa for recusada
+     *                                   localmente (nada chegou ao banco)
+     * @throws Exception                 Se ocorrer erro que não seja de
+     *                                   comunicação
+     */
+    public HttpResponse<String> executar(String txid, Chamada envio, Chamada verificacao) throws Exception {
+        depositar();
+        boolean ambiguo = false;
+        int maxTentativas = Math.max(1, pixConfig.getRetentativaMaxTentativas());
+
+        for (int tentativa = 1;; tentativa++) {
+            String falha;
+            try {
+                if (ambiguo) {
+                    HttpResponse<String> consulta = verificacao.executar();
+                    if (isSucesso(consulta)) {
+                        LOG.info("Cobrança " + txid + " já registrada no banco; reenvio dispensado");
+                        return consulta;
+                    }
+                    if (consulta.statusCode() != 404) {
+                        // Sem saber se a cobrança existe, o PUT não é repetido
+                        falha = "Consulta da cobrança retornou código " + consulta.statusCode();
+                        if (!aguardar(txid, tentativa, maxTentativas, falha)) {
+                            throw new RegistroPendenteException(txid, falha, null);
+                        }
+                        continue;
+                    }
+                }
+
+                HttpResponse<String> response = envio.executar();
+                if (isSucesso(response)) {
+                    return response;
+                }
+
+                if (!isRepetivel(response.statusCode())) {
+                    // Após falha ambígua, uma rejeição pode ser o banco recusando o txid já criado
+                    if (ambiguo) {
+                        HttpResponse<String> consulta = verificacao.executar();
+                        if (isSucesso(consulta)) {
+                            LOG.info("Cobrança " + txid + " já registrada no banco; rejeição do reenvio ignorada");
+                            return consulta;
+                        }
+                    }
+                    return response;
+                }
+
+                falha = "Código " + response.statusCode() + ", Resposta: " + response.body();
+            } catch (BBIndisponivelException e) {
+                if (!ambiguo) {
+                    throw e;
+                }
+                throw new RegistroPendenteException(txid, e.getMessage(), e);
+            } catch (IOException e) {
+                falha = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+
+            ambiguo = true;
+            if (!aguardar(txid, tentativa, maxTentativas, falha)) {
+                throw new RegistroPendenteException(txid, falha, null);
+            }
+        }
+    }
+
+    /**
+     * Indica se o código HTTP é uma falha transitória que pode ter criado a
+     * cobrança. 429 já é repetido pelo BBHttpClient.
+     *
+     * @param statusCode Código HTTP retornado pelo banco
+     * @return true se vale repetir com o mesmo txid
+     */
+    public static boolean isRepetivel(int statusCode) {
+        return statusCode == 408 || statusCode == 500 || statusCode == 502 || statusCode == 503
+                || statusCode == 504;
+    }
+
+    private static boolean isSucesso(HttpResponse<String> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    /**
+     * Aguarda o backoff da próxima tentativa, se houver tentativa e orçamento
+     *
+     * @return false se a cobrança deve ficar para a recuperação de pendentes
+     */
+    private boolean aguardar(String txid, int tentativa, int maxTentativas, String falha)
+            throws InterruptedException {
+        if (tentativa >= maxTentativas) {
+            LOG.warn("Registro da cobrança " + txid + " sem confirmação após " + tentativa + " tentativas: " + falha);
+            return false;
+        }
+        if (!sacar()) {
+            LOG.warn("Orçamento de repetições esgotado; registro da cobrança " + txid + " fica pendente: " + falha);
+            return false;
+        }
+
+        long teto = Math.min(pixConfig.getRetentativaBackoffMaximoMs(),
+                pixConfig.getRetentativaBackoffInicialMs() << Math.min(tentativa - 1, 20));
+        long espera = ThreadLocalRandom.current().nextLong(teto + 1);
+        LOG.warn("Registro da cobrança " + txid + " falhou (tentativa " + tentativa + "), nova tentativa em "
+                + espera + " ms: " + falha);
+        Thread.sleep(espera);
+        return true;
+    }
+
+    private synchronized void depositar() {
+        // Começa cheio; depois cada chamada repõe uma fração de repetição, até o máximo
+        double maximo = pixConfig.getRetentativaOrcamentoMaximo();
+        if (orcamento < 0) {
+            orcamento = maximo;
+        }
+        orcamento = Math.min(maximo, orcamento + pixConfig.getRetentativaOrcamentoPercentual() / 100d);
+    }
+
+    private synchronized boolean sacar() {
+        if (orcamento < 1) {
+            return false;
+        }
+        orcamento -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package org.acme.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+/**
+ * Cache em memória das imagens de QR Code já renderizadas, por txid e
+ * parâmetros de renderização
+ *
+ * Limitado pelo total de bytes das imagens (pix.qrcode.cache.max-bytes), com
+ * descarte das menos usadas. A validade de cada imagem é dada pelo ETag,
+ * derivado do Pix Copia e Cola e dos parâmetros: se o texto da cobrança mudar,
+ * a imagem guardada deixa de corresponder e é renderizada de novo. Cobranças
+ * pagas ou canceladas têm suas imagens removidas.
+ */
+@ApplicationScoped
+public class QrCodeCache {
+
+    private static final Logger LOG = Logger.getLogger(QrCodeCache.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    // Em ordem de acesso, para descartar primeiro as menos usadas
+    private final LinkedHashMap<String, ImagemQrCode> imagens = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytesEmCache;
+
+    /**
+     * Imagem renderizada e o ETag do conteúdo que a originou
+     */
+    public record ImagemQrCode(byte[] conteudo, String etag) {
+    }
+
+    /**
+     * Renderização executada quando a imagem não está em cache
+     */
+    @FunctionalInterface
+    public interface Renderizador {
+        byte[] renderizar() throws Exception;
+    }
+
+    /**
+     * Calcula o ETag forte de uma imagem de QR Code, sem renderizá-la
+     *
+     * @param pixCopiaECola Texto codificado no QR Code
+     * @param parametros    Parâmetros de renderização
+     * @return Valor do ETag (sem aspas)
+     */
+    public static String calcularEtag(String pixCopiaECola, String parametros) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(parametros.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '|');
+            byte[] hash = digest.digest(pixCopiaECola.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Obtém a imagem do cache ou a renderiza e guarda
+     *
+     * @param txid         ID da transação
+     * @param parametros   Parâmetros de renderização
+     * @param etag         ETag esperado, calculado por calcularEtag
+     * @param renderizador Renderização usada na ausência da imagem
+     * @return Imagem renderizada
+     * @throws Exception Se a renderização falhar
+     */
+    public ImagemQrCode obter(String txid, String parametros, String etag, Renderizador renderizador)
+            throws Exception {
+        String chave = txid + "|" + parametros;
+
+        synchronized (this) {
+            ImagemQrCode imagem = imagens.get(chave);
+            if (imagem != null && imagem.etag().equals(etag)) {
+                return imagem;
+            }
+        }
+
+        // Renderiza fora do bloqueio; duas requisições simultâneas podem renderizar a mesma imagem
+        ImagemQrCode imagem = new ImagemQrCode(renderizador.renderizar(), etag);
+        guardar(chave, imagem);
+        return imagem;
+    }
+
+    /**
+     * Remove do cache todas as imagens de uma cobrança
+     *
+     * @param txid ID da transação
+     */
+    public synchronized void invalidar(String txid) {
+        String prefixo = txid + "|";
+        Iterator<Map.Entry<String, ImagemQrCode>> iterador = imagens.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<String, ImagemQrCode> entrada = iterador.next();
+            if (entrada.getKey().startsWith(prefixo)) {
+                bytesEmCache -= entrada.getValue().conteudo().length;
+                iterador.remove();
+            }
+        }
+    }
+
+    /**
+     * Obtém o total de bytes das imagens em cache
+     *
+     * @return Bytes em cache
+     */
+    public synchronized long getBytesEmCache() {
+        return bytesEmCache;
+    }
+
+    /**
+     * Descarta as imagens de cobranças que deixaram de estar ativas (pagas,
+     * canceladas ou expiradas)
+     */
+    void aoAlterarStatus(@Observes(during = TransactionPhase.AFTER_SUCCESS) StatusCobrancaAlterada alteracao) {
+        if (!"ATIVA".equals(alteracao.status())) {
+            invalidar(alteracao.txid());
+        }
+    }
+
+    private synchronized void guardar(String chave, ImagemQrCode imagem) {
+        long limite = pixConfig.getQrCodeCacheMaxBytes();
+        if (imagem.conteudo().length > limite) {
+            return;
+        }
+
+        ImagemQrCode anterior = imagens.put(chave, imagem);
+        if (anterior != null) {
+            bytesEmCache -= anterior.conteudo().length;
+        }
+        bytesEmCache += imagem.conteudo().length;
+
+        Iterator<ImagemQrCode> iterador = imagens.values().iterator();
+        while (bytesEmCache > limite && iterador.hasNext()) {
+            bytesEmCache -= iterador.next().conteudo().length;
+            iterador.remove();
+        }
+
+        LOG.debug("QR Code em cache: " + chave + " (" + imagens.size() + " imagens, " + bytesEmCache + " bytes)");
+    }
+}
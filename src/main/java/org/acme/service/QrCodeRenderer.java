@@ -0,0 +1,265 @@
+package org.acme.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Renderiza QR Codes diretamente a partir da matriz de módulos do ZXing, sem
+ * BufferedImage nem ImageIO
+ *
+ * O PNG é escrito em escala de cinza de 1 bit por pixel: cada linha de módulos
+ * é montada uma única vez e repetida na compressão tantas vezes quanto o
+ * tamanho do módulo. O posicionamento (zona de silêncio, tamanho do módulo e
+ * centralização) é o mesmo do QRCodeWriter, de modo que a imagem é idêntica,
+ * pixel a pixel, à gerada por MatrixToImageWriter.
+ *
+ * Por thread, só o Deflater e seu buffer de saída são reaproveitados. O
+ * ByteArrayOutputStream do IDAT, as linhas de pixels e o array final do PNG
+ * continuam alocados a cada chamada. A comparação com MatrixToImageWriter está
+ * em QrCodeRendererBenchmark (JMH, com -prof gc para a alocação).
+ */
+@ApplicationScoped
+public class QrCodeRenderer {
+
+    private static final byte[] ASSINATURA_PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+    // Deflater e buffer de saída da compressão reaproveitados por thread
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal
+            .withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    /**
+     * Gera a imagem PNG (1 bit por pixel) do QR Code
+     *
+     * @param texto   Conteúdo a codificar
+     * @param tamanho Largura e altura mínimas da imagem em pixels
+     * @param nivel   Nível de correção de erros
+     * @param margem  Zona de silêncio em módulos
+     * @return Bytes do arquivo PNG
+     * @throws WriterException Se o conteúdo não couber em um QR Code
+     */
+    public byte[] renderizarPng(String texto, int tamanho, ErrorCorrectionLevel nivel, int margem)
+            throws WriterException {
+        ByteMatrix modulos = codificar(texto, nivel);
+        Layout layout = Layout.calcular(modulos, tamanho, margem);
+
+        int bytesPorLinha = (layout.largura() + 7) / 8;
+        // Byte inicial de cada linha: filtro PNG "None"
+        byte[] linhaBranca = new byte[1 + bytesPorLinha];
+        Arrays.fill(linhaBranca, 1, linhaBranca.length, (byte) 0xFF);
+        zerarBitsExcedentes(linhaBranca, layout.largura());
+        byte[] linha = new byte[linhaBranca.length];
+
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        ByteArrayOutputStream idat = new ByteArrayOutputStream(1024);
+
+        for (int y = 0; y < layout.topo(); y++) {
+            comprimir(deflater, linhaBranca, idat);
+        }
+        for (int moduloY = 0; moduloY < modulos.getHeight(); moduloY++) {
+            System.arraycopy(linhaBranca, 0, linha, 0, linha.length);
+            for (int moduloX = 0; moduloX < modulos.getWidth(); moduloX++) {
+                if (modulos.get(moduloX, moduloY) == 1) {
+                    int inicio = layout.esquerda() + moduloX * layout.escala();
+                    for (int x = inicio; x < inicio + layout.escala(); x++) {
+                        // Bit 0 é preto na escala de cinza de 1 bit
+                        linha[1 + (x >> 3)] &= (byte) ~(0x80 >> (x & 7));
+                    }
+                }
+            }
+            for (int repeticao = 0; repeticao < layout.escala(); repeticao++) {
+                comprimir(deflater, linha, idat);
+            }
+        }
+        int linhasRestantes = layout.altura() - layout.topo() - modulos.getHeight() * layout.escala();
+        for (int y = 0; y < linhasRestantes; y++) {
+            comprimir(deflater, linhaBranca, idat);
+        }
+        finalizar(deflater, idat);
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(idat.size() + 64);
+        png.writeBytes(ASSINATURA_PNG);
+
+        byte[] ihdr = new byte[13];
+        escreverInteiro(ihdr, 0, layout.largura());
+        escreverInteiro(ihdr, 4, layout.altura());
+        ihdr[8] = 1; // profundidade de 1 bit
+        ihdr[9] = 0; // escala de cinza
+        // compressão, filtro e entrelaçamento padrão (0)
+        escreverChunk(png, "IHDR", ihdr, ihdr.length);
+        escreverChunk(png, "IDAT", idat.toByteArray(), idat.size());
+        escreverChunk(png, "IEND", new byte[0], 0);
+
+        return png.toByteArray();
+    }
+
+    /**
+     * Gera a imagem SVG do QR Code, com um único path e coordenadas em módulos
+     *
+     * @param texto   Conteúdo a codificar
+     * @param tamanho Largura e altura da imagem em pixels
+     * @param nivel   Nível de correção de erros
+     * @param margem  Zona de silêncio em módulos
+     * @return Bytes do documento SVG (UTF-8)
+     * @throws WriterException Se o conteúdo não couber em um QR Code
+     */
+    public byte[] renderizarSvg(String texto, int tamanho, ErrorCorrectionLevel nivel, int margem)
+            throws WriterException {
+        ByteMatrix modulos = codificar(texto, nivel);
+        int lado = modulos.getWidth() + 2 * margem;
+
+        StringBuilder svg = new StringBuilder(4096);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(tamanho)
+                .append("\" height=\"").append(tamanho)
+                .append("\" viewBox=\"0 0 ").append(lado).append(' ').append(lado)
+                .append("\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+
+        // Cada sequência horizontal de módulos escuros vira um retângulo de altura 1
+        for (int y = 0; y < modulos.getHeight(); y++) {
+            int x = 0;
+            while (x < modulos.getWidth()) {
+                if (modulos.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int inicio = x;
+                while (x < modulos.getWidth() && modulos.get(x, y) == 1) {
+                    x++;
+                }
+                svg.append('M').append(inicio + margem).append(' ').append(y + margem)
+                        .append('h').append(x - inicio).append("v1h-").append(x - inicio).append('z');
+            }
+        }
+
+        svg.append("\"/></svg>");
+        return svg.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gera a matriz de módulos do QR Code em JSON, para clientes que desenham o
+     * código por conta própria. Cada linha é uma string de "0" (claro) e "1"
+     * (escuro), já incluindo a zona de silêncio.
+     *
+     * @param texto  Conteúdo a codificar
+     * @param nivel  Nível de correção de erros
+     * @param margem Zona de silêncio em módulos
+     * @return Bytes do JSON (UTF-8)
+     * @throws WriterException Se o conteúdo não couber em um QR Code
+     */
+    public byte[] renderizarMatriz(String texto, ErrorCorrectionLevel nivel, int margem) throws WriterException {
+        ByteMatrix modulos = codificar(texto, nivel);
+        int lado = modulos.getWidth() + 2 * margem;
+
+        StringBuilder json = new StringBuilder(lado * (lado + 3) + 64);
+        json.append("{\"tamanho\":").append(lado)
+                .append(",\"margem\":").append(margem)
+                .append(",\"correcao\":\"").append(nivel.name())
+                .append("\",\"modulos\":[");
+
+        for (int y = 0; y < lado; y++) {
+            json.append(y == 0 ? "\"" : ",\"");
+            for (int x = 0; x < lado; x++) {
+                int moduloX = x - margem;
+                int moduloY = y - margem;
+                boolean escuro = moduloX >= 0 && moduloY >= 0 && moduloX < modulos.getWidth()
+                        && moduloY < modulos.getHeight() && modulos.get(moduloX, moduloY) == 1;
+                json.append(escuro ? '1' : '0');
+            }
+            json.append('"');
+        }
+
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ByteMatrix codificar(String texto, ErrorCorrectionLevel nivel) throws WriterException {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        QRCode qrCode = Encoder.encode(texto, nivel, hints);
+        return qrCode.getMatrix();
+    }
+
+    /**
+     * Posição dos módulos na imagem, calculada como no QRCodeWriter do ZXing
+     */
+    private record Layout(int largura, int altura, int escala, int esquerda, int topo) {
+
+        static Layout calcular(ByteMatrix modulos, int tamanho, int margem) {
+            int larguraQr = modulos.getWidth() + margem * 2;
+            int alturaQr = modulos.getHeight() + margem * 2;
+            int largura = Math.max(tamanho, larguraQr);
+            int altura = Math.max(tamanho, alturaQr);
+            int escala = Math.min(largura / larguraQr, altura / alturaQr);
+            int esquerda = (largura - modulos.getWidth() * escala) / 2;
+            int topo = (altura - modulos.getHeight() * escala) / 2;
+            return new Layout(largura, altura, escala, esquerda, topo);
+        }
+    }
+
+    /**
+     * Os bits após o último pixel do último byte da linha ficam em 0, como
+     * recomenda a especificação PNG
+     */
+    private static void zerarBitsExcedentes(byte[] linha, int largura) {
+        int excedentes = linha.length * 8 - 8 - largura;
+        if (excedentes > 0) {
+            linha[linha.length - 1] &= (byte) (0xFF << excedentes);
+        }
+    }
+
+    private static void comprimir(Deflater deflater, byte[] linha, ByteArrayOutputStream saida) {
+        deflater.setInput(linha);
+        byte[] buffer = BUFFER.get();
+        // A linha só pode ser alterada depois de totalmente consumida
+        while (!deflater.needsInput()) {
+            saida.write(buffer, 0, deflater.deflate(buffer));
+        }
+    }
+
+    private static void finalizar(Deflater deflater, ByteArrayOutputStream saida) {
+        deflater.finish();
+        byte[] buffer = BUFFER.get();
+        while (!deflater.finished()) {
+            saida.write(buffer, 0, deflater.deflate(buffer));
+        }
+    }
+
+    private static void escreverChunk(ByteArrayOutputStream png, String tipo, byte[] dados, int tamanho) {
+        byte[] cabecalho = new byte[8];
+        escreverInteiro(cabecalho, 0, tamanho);
+        byte[] tipoBytes = tipo.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(tipoBytes, 0, cabecalho, 4, 4);
+        png.write(cabecalho, 0, 8);
+        png.write(dados, 0, tamanho);
+
+        CRC32 crc = new CRC32();
+        crc.update(tipoBytes);
+        crc.update(dados, 0, tamanho);
+        byte[] rodape = new byte[4];
+        escreverInteiro(rodape, 0, (int) crc.getValue());
+        png.write(rodape, 0, 4);
+    }
+
+    private static void escreverInteiro(byte[] destino, int posicao, int valor) {
+        destino[posicao] = (byte) (valor >>> 24);
+        destino[posicao + 1] = (byte) (valor >>> 16);
+        destino[posicao + 2] = (byte) (valor >>> 8);
+        destino[posicao + 3] = (byte) valor;
+    }
+}
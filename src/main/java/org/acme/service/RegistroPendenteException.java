@@ -0,0 +1,26 @@
+package org.acme.service;
+
+/**
+ * O registro da cobrança no banco não pôde ser confirmado: a cobrança fica
+ * PENDENTE com o mesmo txid e o RegistroPendenteScheduler conclui o registro
+ *
+ * Quem chamou não deve criar outra cobrança; basta acompanhar o txid.
+ */
+public class RegistroPendenteException extends RuntimeException {
+
+    private final String txid;
+
+    public RegistroPendenteException(String txid, String mensagem, Throwable causa) {
+        super("Registro da cobrança " + txid + " pendente de confirmação: " + mensagem, causa);
+        this.txid = txid;
+    }
+
+    /**
+     * Obtém o ID da transação da cobrança pendente
+     *
+     * @return TxID
+     */
+    public String getTxid() {
+        return txid;
+    }
+}
@@ -0,0 +1,69 @@
+package org.acme.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.config.PixConfig;
+import org.acme.model.Pix;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixImediatoRepository;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Conclui periodicamente o registro de cobranças que ficaram PENDENTE
+ *
+ * Uma cobrança fica pendente quando o processo cai entre a gravação local e a
+ * resposta do banco, ou quando a chamada ao banco falha de forma ambígua
+ * (timeout, 429, 5xx).
+ */
+@ApplicationScoped
+public class RegistroPendenteScheduler {
+
+    private static final Logger LOG = Logger.getLogger(RegistroPendenteScheduler.class);
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixConfig pixConfig;
+
+    /**
+     * Conclui o registro das cobranças PENDENTE mais antigas que a idade mínima
+     * e sem entrada ativa na outbox
+     */
+    @Scheduled(every = "{pix.registro.recuperacao.intervalo}", identity = "recuperacao-registro-pendente",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void recuperarPendentes() {
+        LocalDateTime limite = LocalDateTime.now().minusSeconds(pixConfig.getRegistroRecuperacaoIdadeMinimaSegundos());
+        int lote = pixConfig.getRegistroRecuperacaoLote();
+
+        List<Pix> pendentes = new ArrayList<>();
+        pendentes.addAll(pixImediatoRepository.listarRegistroPendente(limite, lote));
+        pendentes.addAll(pixComVencimentoRepository.listarRegistroPendente(limite, lote));
+
+        if (pendentes.isEmpty()) {
+            return;
+        }
+
+        LOG.info("Recuperando " + pendentes.size() + " cobranças com registro pendente");
+
+        for (Pix pix : pendentes) {
+            try {
+                pixService.recuperarRegistroPendente(pix);
+            } catch (Exception e) {
+                LOG.warn("Falha ao recuperar cobrança pendente " + pix.getTxid() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.acme.service;
+
+/**
+ * Evento CDI disparado quando o status de uma cobrança muda. Observadores
+ * transacionais o recebem somente após a confirmação da transação que gravou a
+ * mudança.
+ *
+ * @param txid           ID da transação
+ * @param chave          Chave Pix do recebedor
+ * @param statusAnterior Status antes da mudança
+ * @param status         Novo status
+ */
+public record StatusCobrancaAlterada(String txid, String chave, String statusAnterior, String status) {
+}
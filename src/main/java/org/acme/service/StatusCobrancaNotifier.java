@@ -0,0 +1,219 @@
+package org.acme.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.config.PixConfig;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Mantém as conexões SSE abertas por cobrança (txid) ou por recebedor (chave)
+ * e lhes envia as mudanças de status detectadas pela conciliação e pelo webhook
+ *
+ * Os eventos são locais à instância: cada instância notifica as conexões que
+ * ela mesma mantém, a partir das mudanças que ela grava. Como o cliente recebe
+ * o status atual ao se conectar, uma reconexão em outra instância não perde a
+ * transição.
+ */
+@ApplicationScoped
+public class StatusCobrancaNotifier {
+
+    private static final Logger LOG = Logger.getLogger(StatusCobrancaNotifier.class);
+
+    @Inject
+    PixConfig pixConfig;
+
+    private final Map<String, Set<Inscricao>> inscricoes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger conexoes = new AtomicInteger();
+
+    /**
+     * Construtor padrão, usado pelo CDI
+     */
+    public StatusCobrancaNotifier() {
+    }
+
+    /**
+     * Construtor com a configuração informada, para uso fora do CDI
+     *
+     * @param pixConfig Configuração do limite de conexões SSE
+     */
+    public StatusCobrancaNotifier(PixConfig pixConfig) {
+        this.pixConfig = pixConfig;
+    }
+
+    /**
+     * Conexão SSE aberta, com a fábrica de eventos do runtime que a criou
+     */
+    private record Inscricao(SseEventSink sink, Sse sse) {
+    }
+
+    /**
+     * Registra uma conexão interessada nas mudanças de status de uma cobrança
+     *
+     * @param txid ID da transação
+     * @param sink Conexão SSE
+     * @param sse  Fábrica de eventos SSE
+     * @return false se o limite de conexões da instância foi atingido
+     */
+    public boolean inscreverCobranca(String txid, SseEventSink sink, Sse sse) {
+        return inscrever("txid:" + txid, sink, sse);
+    }
+
+    /**
+     * Registra uma conexão interessada nas mudanças de status de todas as
+     * cobranças de uma chave
+     *
+     * @param chave Chave Pix do recebedor
+     * @param sink  Conexão SSE
+     * @param sse   Fábrica de eventos SSE
+     * @return false se o limite de conexões da instância foi atingido
+     */
+    public boolean inscreverChave(String chave, SseEventSink sink, Sse sse) {
+        return inscrever("chave:" + chave, sink, sse);
+    }
+
+    /**
+     * Remove a inscrição de uma conexão nas mudanças de status de uma cobrança
+     *
+     * @param txid ID da transação
+     * @param sink Conexão SSE
+     * @param sse  Fábrica de eventos SSE informada na inscrição
+     */
+    public void cancelarCobranca(String txid, SseEventSink sink, Sse sse) {
+        remover("txid:" + txid, new Inscricao(sink, sse));
+    }
+
+    /**
+     * Envia um evento de status a uma única conexão
+     *
+     * @param sink  Conexão SSE
+     * @param sse   Fábrica de eventos SSE
+     * @param dados Conteúdo do evento
+     */
+    public void enviar(SseEventSink sink, Sse sse, JsonObject dados) {
+        if (!sink.isClosed()) {
+            sink.send(evento(sse, dados));
+        }
+    }
+
+    /**
+     * Obtém o número de conexões SSE abertas nesta instância
+     *
+     * @return Conexões abertas
+     */
+    public int getConexoesAbertas() {
+        return conexoes.get();
+    }
+
+    /**
+     * Repassa a mudança de status às conexões da cobrança e da chave, depois da
+     * confirmação da transação que a gravou
+     *
+     * @param alteracao Mudança de status gravada
+     */
+    public void aoAlterarStatus(@Observes(during = TransactionPhase.AFTER_SUCCESS) StatusCobrancaAlterada alteracao) {
+        JsonObject dados = new JsonObject()
+                .put("txid", alteracao.txid())
+                .put("statusAnterior", alteracao.statusAnterior())
+                .put("status", alteracao.status())
+                .put("horario", LocalDateTime.now().toString());
+
+        // Só a cobrança ativa ainda pode mudar de status; as conexões dela são encerradas
+        publicar("txid:" + alteracao.txid(), dados, !"ATIVA".equals(alteracao.status()));
+        if (alteracao.chave() != null) {
+            publicar("chave:" + alteracao.chave(), dados, false);
+        }
+    }
+
+    /**
+     * Envia um comentário periódico a todas as conexões, mantendo-as abertas em
+     * proxies e descartando as que o cliente já fechou
+     */
+    @Scheduled(every = "{pix.sse.intervalo-heartbeat}", identity = "heartbeat-sse",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void manterConexoes() {
+        for (Map.Entry<String, Set<Inscricao>> entrada : inscricoes.entrySet()) {
+            for (Inscricao inscricao : entrada.getValue()) {
+                if (inscricao.sink().isClosed()) {
+                    remover(entrada.getKey(), inscricao);
+                    continue;
+                }
+                inscricao.sink().send(inscricao.sse().newEventBuilder().comment("").build())
+                        .whenComplete((ignorado, erro) -> {
+                            if (erro != null) {
+                                remover(entrada.getKey(), inscricao);
+                            }
+                        });
+            }
+        }
+    }
+
+    private boolean inscrever(String topico, SseEventSink sink, Sse sse) {
+        if (conexoes.incrementAndGet() > pixConfig.getSseMaxConexoes()) {
+            conexoes.decrementAndGet();
+            return false;
+        }
+
+        inscricoes.compute(topico, (t, inscritos) -> {
+            Set<Inscricao> conjunto = inscritos != null ? inscritos : ConcurrentHashMap.newKeySet();
+            conjunto.add(new Inscricao(sink, sse));
+            return conjunto;
+        });
+        return true;
+    }
+
+    private void publicar(String topico, JsonObject dados, boolean encerrar) {
+        Set<Inscricao> inscritos = inscricoes.get(topico);
+        if (inscritos == null) {
+            return;
+        }
+
+        for (Inscricao inscricao : inscritos) {
+            if (inscricao.sink().isClosed()) {
+                remover(topico, inscricao);
+                continue;
+            }
+
+            inscricao.sink().send(evento(inscricao.sse(), dados)).whenComplete((ignorado, erro) -> {
+                if (erro != null) {
+                    LOG.debug("Falha ao enviar evento SSE de " + topico + ": " + erro.getMessage());
+                    remover(topico, inscricao);
+                } else if (encerrar) {
+                    inscricao.sink().close();
+                    remover(topico, inscricao);
+                }
+            });
+        }
+    }
+
+    private void remover(String topico, Inscricao inscricao) {
+        Set<Inscricao> inscritos = inscricoes.get(topico);
+        if (inscritos != null && inscritos.remove(inscricao)) {
+            conexoes.decrementAndGet();
+            // Atômico com a inscrição, para não descartar um conjunto que acabou de receber uma conexão
+            inscricoes.computeIfPresent(topico, (t, conjunto) -> conjunto.isEmpty() ? null : conjunto);
+        }
+    }
+
+    private static OutboundSseEvent evento(Sse sse, JsonObject dados) {
+        return sse.newEventBuilder()
+                .name("status")
+                .id(dados.getString("txid") + ":" + dados.getString("status"))
+                .data(dados.encode())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package org.acme.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.acme.config.PixConfig;
+import org.acme.model.TokenBB;
+import org.jboss.logging.Logger;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Tarefas agendadas de manutenção do token de acesso do Banco do Brasil
+ *
+ * Renova o token antes da expiração para que nenhuma requisição de usuário
+ * precise aguardar a chamada ao OAuth, e remove periodicamente os tokens
+ * expirados do banco de dados.
+ */
+@ApplicationScoped
+public class TokenRenovacaoScheduler {
+
+    private static final Logger LOG = Logger.getLogger(TokenRenovacaoScheduler.class);
+
+    @Inject
+    TokenService tokenService;
+
+    @Inject
+    PixConfig pixConfig;
+
+    /**
+     * Renova o token quando ele estiver próximo da expiração
+     */
+    @Scheduled(every = "{pix.token.renovacao.intervalo}", identity = "renovacao-token",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void renovarTokenAntecipadamente() {
+        Duration antecedencia = calcularAntecedencia();
+
+        try {
+            // Após um reinício, carrega o token persistido antes de decidir
+            if (tokenService.expiraEm(antecedencia)) {
+                tokenService.getAccessToken();
+            }
+        } catch (Exception e) {
+            LOG.warn("Não foi possível carregar o token atual: " + e.getMessage());
+        }
+
+        if (!tokenService.expiraEm(antecedencia)) {
+            return;
+        }
+
+        LOG.info("Token expira em menos de " + antecedencia.toSeconds() + " segundos. Renovando antecipadamente...");
+
+        int maxTentativas = Math.max(1, pixConfig.getTokenRenovacaoMaxTentativas());
+        long espera = pixConfig.getTokenRenovacaoBackoffInicialMs();
+
+        for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+            try {
+                tokenService.renovarToken();
+                LOG.info("Token renovado antecipadamente na tentativa " + tentativa);
+                return;
+            } catch (Exception e) {
+                LOG.warn("Falha na renovação antecipada do token (tentativa " + tentativa + " de "
+                        + maxTentativas + "): " + e.getMessage());
+            }
+
+            if (tentativa < maxTentativas) {
+                try {
+                    Thread.sleep(espera + ThreadLocalRandom.current().nextLong(espera / 2 + 1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                espera *= 2;
+            }
+        }
+
+        LOG.error("Não foi possível renovar o token antecipadamente após " + maxTentativas + " tentativas");
+    }
+
+    /**
+     * Remove periodicamente os tokens expirados do banco de dados
+     */
+    @Scheduled(every = "{pix.token.limpeza.intervalo}", identity = "limpeza-tokens")
+    void limparTokensExpirados() {
+        tokenService.limparTokensExpirados();
+    }
+
+    /**
+     * Calcula a antecedência de renovação com uma variação aleatória, para que
+     * várias instâncias não renovem o token no mesmo instante
+     *
+     * @return Antecedência antes da expiração
+     */
+    private Duration calcularAntecedencia() {
+        int jitter = Math.max(0, pixConfig.getTokenRenovacaoJitterSegundos());
+        long segundos = pixConfig.getTokenRenovacaoAntecedenciaSegundos()
+                + ThreadLocalRandom.current().nextLong(jitter + 1L);
+
+        // Tokens de vida curta são renovados quando restam dois terços da validade, evitando
+        // renovações sucessivas quando a antecedência supera a própria validade
+        TokenBB token = tokenService.getTokenInfo();
+        if (token != null && token.getCreatedAt() != null && token.getExpiresAt() != null) {
+            long vida = Duration.between(token.getCreatedAt(), token.getExpiresAt()).toSeconds();
+            segundos = Math.min(segundos, vida * 2 / 3);
+        }
+
+        return Duration.ofSeconds(segundos);
+    }
+}
@@ -1,13 +1,14 @@
 package org.acme.service;
 
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.acme.config.PixConfig;
 import org.acme.model.TokenBB;
@@ -34,29 +35,35 @@ public class TokenService {
     @Inject
     PixConfig pixConfig;
 
+    @Inject
+    BBHttpClient bbHttpClient;
+
+    // Margem de segurança antes da expiração para considerar o token inválido
+    private static final int MARGEM_SEGURANCA_MINUTOS = 5;
+
+    // Token em memória; evita uma consulta ao banco a cada chamada à API
+    private volatile TokenBB tokenEmCache;
+
+    // Renovação em andamento; garante uma única chamada ao OAuth por vez
+    private final AtomicReference<CompletableFuture<String>> renovacaoEmAndamento = new AtomicReference<>();
+
     /**
      * Obtém um token de acesso válido
-     * Primeiro verifica se existe um token válido no banco de dados
-     * Se não existir ou estiver expirado, solicita um novo token
+     * Primeiro verifica o token em memória; se não existir ou estiver expirado,
+     * uma única renovação é executada e as demais chamadas aguardam o resultado.
+     * O token persistido no banco é usado apenas após um reinício da aplicação.
      * 
      * @return Token de acesso válido
      * @throws Exception Se não for possível obter um token
      */
-    @Transactional
     public String getAccessToken() throws Exception {
+        TokenBB token = tokenEmCache;
+        if (token != null && !isTokenExpired(token)) {
+            return token.getAccessToken();
+        }
+
         try {
-            // Buscar token válido diretamente usando o repositório
-            // Adiciona uma margem de segurança de 5 minutos
-            LocalDateTime timeWithMargin = LocalDateTime.now().plusMinutes(5);
-            TokenBB token = tokenRepository.findValidToken(timeWithMargin);
-            
-            if (token != null) {
-                LOG.debug("Utilizando token existente válido até: " + token.getExpiresAt());
-                return token.getAccessToken();
-            } else {
-                LOG.info("Nenhum token válido encontrado. Solicitando novo token...");
-                return requestNewToken();
-            }
+            return renovar(false);
         } catch (Exception e) {
             LOG.error("Erro ao obter token de acesso", e);
             throw e;
@@ -69,10 +76,9 @@ public class TokenService {
      * @return Novo token de acesso
      * @throws Exception Se não for possível obter um novo token
      */
-    @Transactional
     public String renovarToken() throws Exception {
         LOG.info("Forçando renovação de token de acesso");
-        return requestNewToken();
+        return renovar(true);
     }
     
     /**
@@ -81,6 +87,11 @@ public class TokenService {
      * @return O objeto TokenBB atual ou null se não existir
      */
     public TokenBB getTokenInfo() {
+        TokenBB token = tokenEmCache;
+        if (token != null) {
+            return token;
+        }
+
         try {
             return tokenRepository.findMostRecentToken();
         } catch (Exception e) {
@@ -97,7 +108,101 @@ public class TokenService {
      */
     public boolean isTokenExpired(TokenBB token) {
         // Adicionando margem de segurança de 5 minutos
-        return tokenRepository.isTokenExpired(token, LocalDateTime.now().plusMinutes(5));
+        return tokenRepository.isTokenExpired(token, LocalDateTime.now().plusMinutes(MARGEM_SEGURANCA_MINUTOS));
+    }
+
+    /**
+     * Verifica se o token em memória expira dentro do prazo informado
+     * 
+     * @param antecedencia Prazo antes da expiração
+     * @return true se não houver token em memória ou se ele expirar dentro do prazo
+     */
+    public boolean expiraEm(Duration antecedencia) {
+        TokenBB token = tokenEmCache;
+        return tokenRepository.isTokenExpired(token, LocalDateTime.now().plus(antecedencia));
+    }
+
+    /**
+     * Executa a renovação do token em regime de voo único: apenas a primeira
+     * chamada solicita o token; as concorrentes aguardam o mesmo resultado
+     * 
+     * @param forcar true para ignorar o token em memória e o persistido
+     * @return Token de acesso válido
+     * @throws Exception Se não for possível obter o token
+     */
+    private String renovar(boolean forcar) throws Exception {
+        while (true) {
+            CompletableFuture<String> existente = renovacaoEmAndamento.get();
+            if (existente != null) {
+                return aguardar(existente);
+            }
+
+            CompletableFuture<String> renovacao = new CompletableFuture<>();
+            if (!renovacaoEmAndamento.compareAndSet(null, renovacao)) {
+                continue;
+            }
+
+            try {
+                String accessToken = obterTokenValido(forcar);
+                renovacao.complete(accessToken);
+                return accessToken;
+            } catch (Exception e) {
+                renovacao.completeExceptionally(e);
+                throw e;
+            } finally {
+                renovacaoEmAndamento.compareAndSet(renovacao, null);
+            }
+        }
+    }
+
+    /**
+     * Obtém um token válido, na ordem: memória, banco de dados e OAuth do banco
+     * 
+     * @param forcar true para sempre solicitar um novo token
+     * @return Token de acesso válido
+     * @throws Exception Se não for possível obter o token
+     */
+    private String obterTokenValido(boolean forcar) throws Exception {
+        if (!forcar) {
+            // Outra thread pode ter concluído a renovação enquanto aguardávamos
+            TokenBB token = tokenEmCache;
+            if (token != null && !isTokenExpired(token)) {
+                return token.getAccessToken();
+            }
+
+            // Após um reinício, reaproveita o token persistido se ainda for válido
+            token = buscarTokenPersistido();
+            if (token != null) {
+                LOG.debug("Utilizando token persistido válido até: " + token.getExpiresAt());
+                tokenEmCache = token;
+                return token.getAccessToken();
+            }
+
+            LOG.info("Nenhum token válido encontrado. Solicitando novo token...");
+        }
+
+        return requestNewToken();
+    }
+
+    /**
+     * Busca no banco de dados um token válido, considerando a margem de segurança
+     * 
+     * @return Token válido ou null se não houver
+     */
+    @Transactional
+    public TokenBB buscarTokenPersistido() {
+        return tokenRepository.findValidToken(LocalDateTime.now().plusMinutes(MARGEM_SEGURANCA_MINUTOS));
+    }
+
+    private static String aguardar(CompletableFuture<String> renovacao) throws Exception {
+        try {
+            return renovacao.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception causa) {
+                throw causa;
+            }
+            throw e;
+        }
     }
 
     /**
@@ -106,14 +211,7 @@ public class TokenService {
      * @return O token de acesso obtido
      * @throws Exception Se não for possível obter o token
      */
-    @Transactional
     protected String requestNewToken() throws Exception {
-        // Criar o cliente HTTP
-        HttpClient client = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-
         // Preparar o corpo da requisição
         String requestBody = "grant_type=client_credentials";
 
@@ -122,8 +220,7 @@ public class TokenService {
         String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
 
         // Construir a requisição HTTP
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(pixConfig.getTokenUrl()))
+        HttpRequest request = bbHttpClient.requisicao(pixConfig.getTokenUrl())
                 .header("Content-Type", "application/x-www-form-urlencoded")
                 .header("Authorization", "Basic " + encodedAuth)
                 .header("User-Agent", "Mozilla/5.0")
@@ -132,7 +229,7 @@ public class TokenService {
                 .build();
 
         // Enviar a requisição e obter a resposta
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = bbHttpClient.enviar(request);
 
         // Processar a resposta
         if (response.statusCode() == 200) {
@@ -144,11 +241,18 @@ public class TokenService {
             
             LOG.info("Token obtido com sucesso. Válido por " + expiresIn + " segundos");
             
-            // Salvar o token no banco de dados
-            TokenBB novoToken = saveToken(accessToken, expiresIn);
-            
-            // Limpar tokens antigos do banco de dados
-            limparTokensAntigos(novoToken);
+            TokenBB novoToken = new TokenBB();
+            novoToken.setAccessToken(accessToken);
+            novoToken.setCreatedAt(LocalDateTime.now());
+            novoToken.setExpiresAt(LocalDateTime.now().plusSeconds(expiresIn));
+            tokenEmCache = novoToken;
+
+            // O banco de dados é só o fallback entre reinícios: uma falha ao gravar não descarta o token válido
+            try {
+                salvarNovoToken(novoToken);
+            } catch (Exception e) {
+                LOG.error("Erro ao salvar o token no banco de dados; token mantido apenas em memória", e);
+            }
             
             return accessToken;
         } else {
@@ -158,20 +262,18 @@ public class TokenService {
     }
     
     /**
-     * Salva um novo token no banco de dados
+     * Salva um novo token no banco de dados e remove os anteriores
      * 
-     * @param accessToken Token de acesso
-     * @param expiresIn Tempo de expiração em segundos
-     * @return O objeto TokenBB criado e salvo
+     * @param token Token obtido do banco
+     * @return O objeto TokenBB salvo
      */
-    private TokenBB saveToken(String accessToken, int expiresIn) {
-        TokenBB token = new TokenBB();
-        token.setAccessToken(accessToken);
-        token.setCreatedAt(LocalDateTime.now());
-        token.setExpiresAt(LocalDateTime.now().plusSeconds(expiresIn));
-        
+    @Transactional
+    public TokenBB salvarNovoToken(TokenBB token) {
         tokenRepository.saveToken(token);
         LOG.debug("Token salvo no banco de dados. Expira em: " + token.getExpiresAt());
+
+        // Limpar tokens antigos do banco de dados
+        limparTokensAntigos(token);
         
         return token;
     }
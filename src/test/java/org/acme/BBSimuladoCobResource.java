@@ -0,0 +1,169 @@
+package org.acme;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Substituto local da API de cobranças imediatas do Banco do Brasil usado nos
+ * testes: registra (PUT), consulta (GET) e lista por período as cobranças,
+ * como o banco faria. Os testes podem programar falhas para os próximos
+ * registros de um txid, inclusive a de uma cobrança criada cuja resposta se
+ * perdeu, e alterar a situação de uma cobrança do lado do banco.
+ */
+@Path("/bb-simulado/cob")
+@Produces(MediaType.APPLICATION_JSON)
+public class BBSimuladoCobResource {
+
+    private static final Map<String, JsonObject> COBRANCAS = new ConcurrentHashMap<>();
+
+    private static final Map<String, AtomicInteger> REGISTROS = new ConcurrentHashMap<>();
+
+    private static final Map<String, Deque<JsonObject>> FALHAS = new ConcurrentHashMap<>();
+
+    /**
+     * Programa a resposta do próximo registro do txid: {"status": 503, "criar":
+     * true} devolve 503 depois de criar a cobrança, como uma resposta perdida.
+     * Cada chamada programa uma falha a mais.
+     */
+    @PUT
+    @Path("/{txid}/falhas")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response programarFalha(@PathParam("txid") String txid, String corpo) {
+        FALHAS.computeIfAbsent(txid, t -> new ConcurrentLinkedDeque<>()).add(new JsonObject(corpo));
+        return Response.noContent().build();
+    }
+
+    /**
+     * Altera a cobrança do lado do banco, como um pagamento ou uma remoção
+     * feitos fora da aplicação
+     */
+    @PUT
+    @Path("/{txid}/situacao")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response alterarSituacao(@PathParam("txid") String txid, String corpo) {
+        JsonObject cobranca = COBRANCAS.get(txid);
+        if (cobranca == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        cobranca.mergeIn(new JsonObject(corpo));
+        cobranca.put("revisao", cobranca.getInteger("revisao") + 1);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Quantidade de registros (PUT) recebidos para o txid
+     */
+    @GET
+    @Path("/{txid}/registros")
+    public Response contarRegistros(@PathParam("txid") String txid) {
+        AtomicInteger registros = REGISTROS.get(txid);
+        return Response.ok(new JsonObject().put("registros", registros != null ? registros.get() : 0).encode())
+                .build();
+    }
+
+    @PUT
+    @Path("/{txid}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response registrar(@PathParam("txid") String txid, String corpo) {
+        REGISTROS.computeIfAbsent(txid, t -> new AtomicInteger()).incrementAndGet();
+
+        Deque<JsonObject> falhas = FALHAS.get(txid);
+        JsonObject falha = falhas != null ? falhas.poll() : null;
+        if (falha != null && !falha.getBoolean("criar", false)) {
+            return erro(falha.getInteger("status"), "Falha programada no banco simulado");
+        }
+
+        if (COBRANCAS.containsKey(txid)) {
+            return erro(400, "Já existe uma cobrança com o txid informado");
+        }
+
+        JsonObject cobranca = new JsonObject(corpo)
+                .put("txid", txid)
+                .put("status", "ATIVA")
+                .put("revisao", 0)
+                .put("location", "qrcodepix-h.bb.com.br/pix/v2/cob/" + txid)
+                .put("pixCopiaECola", "00020101021226870014br.gov.bcb.pix2563qrcodepix-h.bb.com.br/pix/v2/cob/"
+                        + txid);
+        if (!cobranca.containsKey("calendario")) {
+            cobranca.put("calendario", new JsonObject());
+        }
+        cobranca.getJsonObject("calendario").put("criacao", OffsetDateTime.now().toString());
+        COBRANCAS.put(txid, cobranca);
+
+        if (falha != null) {
+            return erro(falha.getInteger("status"), "Resposta perdida no banco simulado");
+        }
+        return Response.status(Response.Status.CREATED).entity(cobranca.encode()).build();
+    }
+
+    @GET
+    @Path("/{txid}")
+    public Response consultar(@PathParam("txid") String txid) {
+        JsonObject cobranca = COBRANCAS.get(txid);
+        if (cobranca == null) {
+            return erro(404, "Cobrança não encontrada");
+        }
+        return Response.ok(cobranca.encode()).build();
+    }
+
+    /**
+     * Lista as cobranças criadas no período, paginadas como na API do banco
+     */
+    @GET
+    public Response listar(@QueryParam("inicio") String inicio, @QueryParam("fim") String fim,
+            @QueryParam("paginacao.paginaAtual") int paginaAtual,
+            @QueryParam("paginacao.itensPorPagina") int itensPorPagina) {
+        OffsetDateTime de = OffsetDateTime.parse(inicio);
+        OffsetDateTime ate = OffsetDateTime.parse(fim);
+
+        List<JsonObject> periodo = new ArrayList<>();
+        for (JsonObject cobranca : COBRANCAS.values()) {
+            OffsetDateTime criacao = OffsetDateTime.parse(cobranca.getJsonObject("calendario").getString("criacao"));
+            if (!criacao.isBefore(de) && !criacao.isAfter(ate)) {
+                periodo.add(cobranca);
+            }
+        }
+
+        int porPagina = Math.max(1, itensPorPagina);
+        int paginas = Math.max(1, (periodo.size() + porPagina - 1) / porPagina);
+        JsonArray cobs = new JsonArray();
+        for (int i = paginaAtual * porPagina; i < Math.min(periodo.size(), (paginaAtual + 1) * porPagina); i++) {
+            cobs.add(periodo.get(i));
+        }
+
+        return Response.ok(new JsonObject()
+                .put("parametros", new JsonObject()
+                        .put("inicio", inicio)
+                        .put("fim", fim)
+                        .put("paginacao", new JsonObject()
+                                .put("paginaAtual", paginaAtual)
+                                .put("itensPorPagina", porPagina)
+                                .put("quantidadeDePaginas", paginas)
+                                .put("quantidadeTotalDeItens", periodo.size())))
+                .put("cobs", cobs)
+                .encode())
+                .build();
+    }
+
+    private static Response erro(int status, String detalhe) {
+        return Response.status(status).entity(new JsonObject().put("detail", detalhe).encode()).build();
+    }
+}
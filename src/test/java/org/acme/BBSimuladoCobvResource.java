@@ -0,0 +1,70 @@
+package org.acme;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Substituto local da consulta de cobranças com vencimento do Banco do Brasil
+ * usado nos testes: toda cobrança consultada existe, ativa, com location e
+ * Pix Copia e Cola derivados do txid, salvo as alterações feitas pelos testes
+ * do lado do banco, e a listagem por período não traz alterações
+ */
+@Path("/bb-simulado/cobv")
+@Produces(MediaType.APPLICATION_JSON)
+public class BBSimuladoCobvResource {
+
+    private static final Map<String, JsonObject> ALTERACOES = new ConcurrentHashMap<>();
+
+    /**
+     * Listagem por período: nenhuma cobrança com vencimento alterada no banco
+     */
+    @GET
+    public Response listar() {
+        return Response.ok(new JsonObject()
+                .put("parametros", new JsonObject()
+                        .put("paginacao", new JsonObject().put("paginaAtual", 0).put("quantidadeDePaginas", 1)))
+                .put("cobsv", new JsonArray())
+                .encode())
+                .build();
+    }
+
+    /**
+     * Altera a cobrança do lado do banco, como um pagamento feito fora da
+     * aplicação; as consultas seguintes devolvem os campos informados
+     */
+    @PUT
+    @Path("/{txid}/situacao")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response alterarSituacao(@PathParam("txid") String txid, String corpo) {
+        ALTERACOES.merge(txid, new JsonObject(corpo), (anterior, nova) -> anterior.copy().mergeIn(nova));
+        return Response.noContent().build();
+    }
+
+    @GET
+    @Path("/{txid}")
+    public Response consultar(@PathParam("txid") String txid) {
+        JsonObject cobranca = new JsonObject()
+                .put("txid", txid)
+                .put("status", "ATIVA")
+                .put("revisao", 0)
+                .put("location", "qrcodepix-h.bb.com.br/pix/v2/cobv/" + txid)
+                .put("pixCopiaECola", "00020101021226870014br.gov.bcb.pix2565qrcodepix-h.bb.com.br/pix/v2/cobv/"
+                        + txid);
+        JsonObject alteracao = ALTERACOES.get(txid);
+        if (alteracao != null) {
+            cobranca.mergeIn(alteracao).put("revisao", 1);
+        }
+        return Response.ok(cobranca.encode()).build();
+    }
+}
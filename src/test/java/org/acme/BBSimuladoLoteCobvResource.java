@@ -0,0 +1,74 @@
+package org.acme;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Substituto local da API lotecobv do Banco do Brasil usado nos testes:
+ * responde ao envio do lote com o código programado e à consulta com o
+ * resultado programado para o lote, como o banco faria ao concluir o
+ * processamento
+ */
+@Path("/bb-simulado/lotecobv")
+@Produces(MediaType.APPLICATION_JSON)
+public class BBSimuladoLoteCobvResource {
+
+    private static final Map<Long, String> RESULTADOS = new ConcurrentHashMap<>();
+
+    private static volatile int statusEnvio = 202;
+
+    /**
+     * Define o código HTTP devolvido aos próximos envios de lote
+     */
+    @PUT
+    @Path("/status-envio")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response definirStatusEnvio(String corpo) {
+        statusEnvio = new JsonObject(corpo).getInteger("status");
+        return Response.noContent().build();
+    }
+
+    /**
+     * Define o resultado devolvido pela consulta do lote
+     */
+    @PUT
+    @Path("/{id}/resultado")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response definirResultado(@PathParam("id") Long id, String corpo) {
+        RESULTADOS.put(id, corpo);
+        return Response.noContent().build();
+    }
+
+    @PUT
+    @Path("/{id}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response enviar(@PathParam("id") Long id, String corpo) {
+        int status = statusEnvio;
+        if (status >= 400) {
+            return Response.status(status)
+                    .entity(new JsonObject().put("detail", "Lote recusado pelo banco simulado").encode())
+                    .build();
+        }
+        return Response.status(status).entity(new JsonObject().put("id", id).encode()).build();
+    }
+
+    @GET
+    @Path("/{id}")
+    public Response consultar(@PathParam("id") Long id) {
+        String resultado = RESULTADOS.get(id);
+        if (resultado == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(resultado).build();
+    }
+}
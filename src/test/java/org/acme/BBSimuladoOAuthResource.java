@@ -0,0 +1,44 @@
+package org.acme;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Substituto local do OAuth do Banco do Brasil usado nos testes: emite um
+ * token novo a cada pedido client_credentials com autenticação Basic, para
+ * que nenhum teste chame o ambiente de homologação do banco
+ */
+@Path("/bb-simulado/oauth")
+@Produces(MediaType.APPLICATION_JSON)
+public class BBSimuladoOAuthResource {
+
+    private static final AtomicInteger EMITIDOS = new AtomicInteger();
+
+    @POST
+    @Path("/token")
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    public Response emitir(@HeaderParam("Authorization") String autorizacao, String corpo) {
+        if (autorizacao == null || !autorizacao.startsWith("Basic ")) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        if (!"grant_type=client_credentials".equals(corpo)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new JsonObject().put("error", "unsupported_grant_type").encode())
+                    .build();
+        }
+        return Response.ok(new JsonObject()
+                .put("access_token", "token-simulado-" + EMITIDOS.incrementAndGet())
+                .put("token_type", "Bearer")
+                .put("expires_in", 600)
+                .encode())
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package org.acme;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.KeyStore;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Substituto local da API de webhook do Banco do Brasil usado nos testes:
+ * guarda a URL cadastrada por chave e dispara notificações para ela, como o
+ * banco faria ao receber um pagamento. As notificações saem por TLS mútuo,
+ * com o certificado de cliente do banco emitido pela AC de teste.
+ */
+@Path("/bb-simulado/webhook")
+@Produces(MediaType.APPLICATION_JSON)
+public class BBSimuladoResource {
+
+    private static final Map<String, String> WEBHOOKS = new ConcurrentHashMap<>();
+
+    private static final char[] SENHA = "senha-teste".toCharArray();
+
+    private static final HttpClient CLIENTE = HttpClient.newBuilder().sslContext(contextoTls()).build();
+
+    @PUT
+    @Path("/{chave}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response cadastrar(@PathParam("chave") String chave, String corpo) {
+        WEBHOOKS.put(chave, new JsonObject(corpo).getString("webhookUrl"));
+        return Response.ok(new JsonObject().put("webhookUrl", WEBHOOKS.get(chave)).encode()).build();
+    }
+
+    @GET
+    @Path("/{chave}")
+    public Response consultar(@PathParam("chave") String chave) {
+        String webhookUrl = WEBHOOKS.get(chave);
+        if (webhookUrl == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(new JsonObject().put("webhookUrl", webhookUrl).put("chave", chave).encode()).build();
+    }
+
+    @DELETE
+    @Path("/{chave}")
+    public Response remover(@PathParam("chave") String chave) {
+        return WEBHOOKS.remove(chave) != null
+                ? Response.noContent().build()
+                : Response.status(Response.Status.NOT_FOUND).build();
+    }
+
+    /**
+     * Envia ao webhook cadastrado para a chave uma notificação com os pagamentos
+     * informados e devolve a resposta recebida
+     */
+    @POST
+    @Path("/{chave}/disparar")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response disparar(@PathParam("chave") String chave, String pagamentos) throws Exception {
+        String webhookUrl = WEBHOOKS.get(chave);
+        if (webhookUrl == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        // Como o banco, acrescenta "/pix" à URL cadastrada
+        HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl + "/pix"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        new JsonObject().put("pix", new JsonArray(pagamentos)).encode()))
+                .build();
+
+        HttpResponse<String> response = CLIENTE.send(request, HttpResponse.BodyHandlers.ofString());
+        return Response.status(response.statusCode()).entity(response.body()).build();
+    }
+
+    private static SSLContext contextoTls() {
+        try {
+            KeyManagerFactory chaves = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            chaves.init(carregar("tls/banco-cliente.p12"), SENHA);
+
+            TrustManagerFactory confiaveis = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            confiaveis.init(carregar("tls/ac-teste.p12"));
+
+            SSLContext contexto = SSLContext.getInstance("TLS");
+            contexto.init(chaves.getKeyManagers(), confiaveis.getTrustManagers(), null);
+            return contexto;
+        } catch (Exception e) {
+            throw new IllegalStateException("Certificados de teste indisponíveis", e);
+        }
+    }
+
+    private static KeyStore carregar(String recurso) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream entrada = BBSimuladoResource.class.getClassLoader().getResourceAsStream(recurso)) {
+            keyStore.load(entrada, SENHA);
+        }
+        return keyStore;
+    }
+}
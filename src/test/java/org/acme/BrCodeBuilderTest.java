@@ -0,0 +1,63 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.acme.service.BrCodeBuilder;
+import org.junit.jupiter.api.Test;
+
+class BrCodeBuilderTest {
+
+    private final BrCodeBuilder builder = new BrCodeBuilder();
+
+    @Test
+    void testCrc16() {
+        assertEquals(0x29B1, BrCodeBuilder.calcularCrc16("123456789"));
+    }
+
+    @Test
+    void testEstaticoIgualAoExemploDoManual() {
+        String brCode = builder.gerarEstatico("123e4567-e12b-12d1-a456-426655440000", null, "Fulano de Tal",
+                "BRASILIA", null, null);
+
+        assertEquals("00020126580014br.gov.bcb.pix0136123e4567-e12b-12d1-a456-426655440000"
+                + "5204000053039865802BR5913Fulano de Tal6008BRASILIA62070503***63041D3D", brCode);
+    }
+
+    @Test
+    void testEstaticoComValorENomeAcentuado() {
+        String brCode = builder.gerarEstatico("fulano@example.com", new BigDecimal("10.5"), "José da Conceição",
+                "São Paulo", "PEDIDO123", "Pedido 123");
+
+        assertTrue(brCode.contains("540510.50"));
+        assertTrue(brCode.contains("5917Jose da Conceicao"));
+        assertTrue(brCode.contains("6009Sao Paulo"));
+        assertTrue(brCode.contains("62130509PEDIDO123"));
+        assertCrcValido(brCode);
+    }
+
+    @Test
+    void testDinamico() {
+        String brCode = builder.gerarDinamico("https://qrcodepix-h.bb.com.br/pix/v2/cobv/abc123", "Fulano de Tal",
+                "BRASILIA");
+
+        assertTrue(brCode.startsWith("0002010102122662"));
+        assertTrue(brCode.contains("2540qrcodepix-h.bb.com.br/pix/v2/cobv/abc123"));
+        assertCrcValido(brCode);
+    }
+
+    @Test
+    void testTxidInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.gerarEstatico("chave", null, "Nome", "Cidade", "txid-com-hifen", null));
+    }
+
+    private static void assertCrcValido(String brCode) {
+        String semCrc = brCode.substring(0, brCode.length() - 4);
+        assertEquals(String.format("%04X", BrCodeBuilder.calcularCrc16(semCrc)),
+                brCode.substring(brCode.length() - 4));
+    }
+}
@@ -0,0 +1,114 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.acme.model.PixImediato;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.service.ConciliacaoScheduler;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * A conciliação não é agendada nos testes (pix.conciliacao.intervalo=off); cada
+ * teste a aciona diretamente contra a API de cobranças simulada
+ */
+@QuarkusTest
+class ConciliacaoSchedulerTest {
+
+    @Inject
+    ConciliacaoScheduler conciliacaoScheduler;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Test
+    void testPagamentoListadoPeloBancoEConciliado() {
+        String txid = criarCobrancaRegistrada();
+        String endToEndId = "E" + UUID.randomUUID().toString().replace("-", "");
+
+        alterarNoBanco(txid, new JsonObject()
+                .put("status", "CONCLUIDA")
+                .put("pix", new JsonArray().add(new JsonObject()
+                        .put("endToEndId", endToEndId)
+                        .put("valor", "15.00")
+                        .put("horario", "2026-01-10T12:00:00-03:00"))));
+
+        conciliacaoScheduler.conciliar();
+
+        PixImediato pix = buscar(txid);
+        assertEquals("CONCLUIDA", pix.getStatus());
+        assertTrue(pix.isPaga());
+        assertEquals(endToEndId, pix.getEndToEndId());
+        assertEquals(0, new BigDecimal("15.00").compareTo(pix.getValorPago()));
+        assertEquals(1, pix.getRevisao());
+    }
+
+    @Test
+    void testRemocaoNoBancoEConciliadaSemPagamento() {
+        String txid = criarCobrancaRegistrada();
+
+        alterarNoBanco(txid, new JsonObject().put("status", "REMOVIDA_PELO_USUARIO_RECEBEDOR"));
+
+        conciliacaoScheduler.conciliar();
+
+        PixImediato pix = buscar(txid);
+        assertEquals("REMOVIDA_PELO_USUARIO_RECEBEDOR", pix.getStatus());
+        assertFalse(pix.isPaga());
+    }
+
+    @Test
+    void testCobrancaSemAlteracaoNoBancoPermaneceAtiva() {
+        String txid = criarCobrancaRegistrada();
+
+        conciliacaoScheduler.conciliar();
+
+        PixImediato pix = buscar(txid);
+        assertEquals("ATIVA", pix.getStatus());
+        assertFalse(pix.isPaga());
+        assertEquals(0, pix.getRevisao());
+    }
+
+    /**
+     * Cria a cobrança local ATIVA e a registra na API simulada, como o banco a
+     * listaria
+     */
+    private String criarCobrancaRegistrada() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> pixImediatoRepository.persist(
+                new PixImediato(txid, "conciliacao@acme.org", new BigDecimal("15.00"), "Fulano de Tal",
+                        "12345678909", null, 3600)));
+
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject()
+                        .put("calendario", new JsonObject().put("expiracao", 3600))
+                        .put("valor", new JsonObject().put("original", "15.00"))
+                        .put("chave", "conciliacao@acme.org")
+                        .encode())
+                .when().put("/bb-simulado/cob/" + txid)
+                .then().statusCode(201);
+        return txid;
+    }
+
+    private void alterarNoBanco(String txid, JsonObject alteracao) {
+        given().contentType(ContentType.JSON)
+                .body(alteracao.encode())
+                .when().put("/bb-simulado/cob/" + txid + "/situacao")
+                .then().statusCode(204);
+    }
+
+    private PixImediato buscar(String txid) {
+        return QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(txid));
+    }
+}
@@ -0,0 +1,143 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.acme.model.PixComVencimento;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.service.ConsultaStatusCoalescida;
+import org.acme.service.StatusCobrancaAlterada;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class ConsultaStatusCoalescidaTest {
+
+    @Inject
+    ConsultaStatusCoalescida consultaStatusCoalescida;
+
+    @Inject
+    Event<StatusCobrancaAlterada> statusAlterado;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Test
+    void testConsultasSimultaneasCompartilhamUmaChamada() throws Exception {
+        String txid = "coalescida" + System.nanoTime();
+        AtomicInteger chamadas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<JsonObject>> respostas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                respostas.add(executor.submit(() -> consultaStatusCoalescida.obter(txid, () -> {
+                    chamadas.incrementAndGet();
+                    liberar.await(5, TimeUnit.SECONDS);
+                    return new JsonObject().put("txid", txid).put("status", "ATIVA");
+                })));
+            }
+
+            // Dá tempo para todas as consultas chegarem antes de a chamada terminar
+            Thread.sleep(200);
+            liberar.countDown();
+
+            for (Future<JsonObject> resposta : respostas) {
+                assertEquals("ATIVA", resposta.get(5, TimeUnit.SECONDS).getString("status"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, chamadas.get());
+    }
+
+    @Test
+    void testResultadoRecenteEReaproveitadoAteAlteracaoDeStatus() throws Exception {
+        String txid = "coalescida" + System.nanoTime();
+        AtomicInteger chamadas = new AtomicInteger();
+        ConsultaStatusCoalescida.Consulta consulta = () -> new JsonObject().put("chamada", chamadas.incrementAndGet());
+
+        JsonObject primeira = consultaStatusCoalescida.obter(txid, consulta);
+        JsonObject segunda = consultaStatusCoalescida.obter(txid, consulta);
+        assertEquals(1, segunda.getInteger("chamada"));
+        // Cada consulta recebe sua própria cópia
+        segunda.put("alterado", true);
+        assertNull(consultaStatusCoalescida.obter(txid, consulta).getValue("alterado"));
+        assertNull(primeira.getValue("alterado"));
+
+        statusAlterado.fire(new StatusCobrancaAlterada(txid, "chave@exemplo.com", "ATIVA", "CONCLUIDA"));
+
+        assertEquals(2, consultaStatusCoalescida.obter(txid, consulta).getInteger("chamada"));
+        assertEquals(2, chamadas.get());
+    }
+
+    @Test
+    void testErroNaoEGuardado() throws Exception {
+        String txid = "coalescida" + System.nanoTime();
+        IOException falha = new IOException("timeout");
+
+        IOException e = assertThrows(IOException.class, () -> consultaStatusCoalescida.obter(txid, () -> {
+            throw falha;
+        }));
+        assertSame(falha, e);
+
+        JsonObject status = consultaStatusCoalescida.obter(txid, () -> new JsonObject().put("status", "ATIVA"));
+        assertEquals("ATIVA", status.getString("status"));
+        assertTrue(consultaStatusCoalescida.getMetricas().chamadas() >= 2);
+    }
+
+    @Test
+    void testStatusDeCobrancaComVencimentoRefleteAConsultaAoBanco() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> pixComVencimentoRepository.persist(new PixComVencimento(txid,
+                "chave@exemplo.com", new BigDecimal("25.00"), "Fulano de Tal", "12345678909", null,
+                LocalDate.now().plusDays(5), "001")));
+
+        // Paga do lado do banco depois de a cobrança ter sido carregada como ATIVA
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject()
+                        .put("status", "CONCLUIDA")
+                        .put("pix", new JsonArray().add(new JsonObject()
+                                .put("endToEndId", "E" + txid)
+                                .put("valor", "25.00")
+                                .put("horario", "2026-01-10T12:00:00-03:00")))
+                        .encode())
+                .when().put("/bb-simulado/cobv/" + txid + "/situacao")
+                .then().statusCode(204);
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get("/pix/cobranca/{txid}/status", txid)
+                .then().statusCode(200)
+                .body("status", is("CONCLUIDA"))
+                .body("pago", is(true))
+                .body("endToEndId", is("E" + txid))
+                .body("valorPago", is("25.00"));
+    }
+}
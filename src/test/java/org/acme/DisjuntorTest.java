@@ -0,0 +1,63 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.acme.service.BBIndisponivelException;
+import org.acme.service.Disjuntor;
+import org.junit.jupiter.api.Test;
+
+class DisjuntorTest {
+
+    @Test
+    void testAbreAoAtingirTaxaDeFalhas() throws Exception {
+        Disjuntor disjuntor = new Disjuntor("cob", 10, 4, 50, 30, 1, 4, 0);
+
+        for (int i = 0; i < 4; i++) {
+            boolean teste = disjuntor.adquirir();
+            disjuntor.liberar(teste, i % 2 == 0);
+        }
+
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.getMetricas().estado());
+        BBIndisponivelException e = assertThrows(BBIndisponivelException.class, disjuntor::adquirir);
+        assertEquals("cob", e.getEndpoint());
+        assertTrue(e.getRetryAfterSegundos() > 0);
+        assertEquals(1, disjuntor.getMetricas().rejeitadas());
+    }
+
+    @Test
+    void testMeioAbertoFechaAposTesteComSucesso() throws Exception {
+        Disjuntor disjuntor = new Disjuntor("cobv", 2, 2, 50, 0, 1, 4, 0);
+
+        for (int i = 0; i < 2; i++) {
+            disjuntor.liberar(disjuntor.adquirir(), false);
+        }
+        assertEquals(Disjuntor.Estado.ABERTO, disjuntor.getMetricas().estado());
+
+        // Tempo aberto zero: a próxima chamada já é de teste
+        boolean teste = disjuntor.adquirir();
+        assertTrue(teste);
+        assertEquals(Disjuntor.Estado.MEIO_ABERTO, disjuntor.getMetricas().estado());
+        // Só uma chamada de teste por vez
+        assertThrows(BBIndisponivelException.class, disjuntor::adquirir);
+
+        disjuntor.liberar(teste, true);
+        assertEquals(Disjuntor.Estado.FECHADO, disjuntor.getMetricas().estado());
+        assertFalse(disjuntor.adquirir());
+    }
+
+    @Test
+    void testRecusaSemVagas() throws Exception {
+        Disjuntor disjuntor = new Disjuntor("oauth", 10, 10, 50, 30, 1, 1, 0);
+
+        boolean teste = disjuntor.adquirir();
+        assertThrows(BBIndisponivelException.class, disjuntor::adquirir);
+        assertEquals(1, disjuntor.getMetricas().emUso());
+
+        disjuntor.liberar(teste, true);
+        disjuntor.liberar(disjuntor.adquirir(), true);
+        assertEquals(Disjuntor.Estado.FECHADO, disjuntor.getMetricas().estado());
+    }
+}
@@ -0,0 +1,148 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.model.PixIdempotencia;
+import org.acme.repository.PixIdempotenciaRepository;
+import org.acme.service.IdempotenciaService;
+import org.acme.service.IdempotenciaService.RespostaArmazenada;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class IdempotenciaTest {
+
+    @Inject
+    IdempotenciaService idempotenciaService;
+
+    @Inject
+    PixIdempotenciaRepository pixIdempotenciaRepository;
+
+    private static JsonObject cobranca(String valor) {
+        return new JsonObject()
+                .put("chave", "idempotencia@exemplo.com")
+                .put("valor", valor)
+                .put("nome", "Fulano de Tal")
+                .put("cpf", "12345678909")
+                .put("expiracao", 3600)
+                .put("banco", "001")
+                .put("tipoCob", "cob");
+    }
+
+    @Test
+    void testRepeticaoDevolveAMesmaCobranca() {
+        String chave = "teste-" + System.nanoTime();
+
+        String txid = given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", chave)
+                .body(cobranca("10.00").encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(202)
+                .header("Idempotent-Replayed", nullValue())
+                .extract().path("txid");
+
+        String txidRepetido = given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", chave)
+                .body(cobranca("10.00").encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(202)
+                .header("Idempotent-Replayed", is("true"))
+                .extract().path("txid");
+
+        assertEquals(txid, txidRepetido);
+    }
+
+    @Test
+    void testMesmaChaveComOutroConteudo() {
+        String chave = "teste-" + System.nanoTime();
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", chave)
+                .body(cobranca("10.00").encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(202);
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", chave)
+                .body(cobranca("20.00").encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(422);
+    }
+
+    @Test
+    void testCriacaoSemCredenciaisERecusada() {
+        given().contentType(ContentType.JSON)
+                .header("Idempotency-Key", "teste-" + System.nanoTime())
+                .body(cobranca("10.00").encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(401);
+    }
+
+    @Test
+    void testReservaEmAndamentoNaoERetomadaPorOutraInstancia() throws Exception {
+        String chave = "teste-" + System.nanoTime();
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // Registro síncrono lento, ainda em andamento nesta instância
+        CompletableFuture<RespostaArmazenada> resultado = CompletableFuture.supplyAsync(
+                () -> idempotenciaService.executar(chave, "hash", () -> {
+                    try {
+                        liberar.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new RespostaArmazenada(201, "{}", null, false);
+                }));
+
+        try {
+            PixIdempotencia reserva = aguardarReserva(chave);
+            LocalDateTime criacaoOriginal = reserva.getCriacao();
+            Thread.sleep(20);
+
+            idempotenciaService.renovarReservas();
+
+            // Outra instância considera abandonadas as reservas anteriores à criação original
+            LocalDateTime agora = LocalDateTime.now();
+            assertFalse(QuarkusTransaction.requiringNew().call(() -> pixIdempotenciaRepository.reservar(chave,
+                    "hash", agora, agora.plusHours(1), criacaoOriginal.plusNanos(1000))));
+            assertTrue(QuarkusTransaction.requiringNew().call(() -> pixIdempotenciaRepository.findById(chave))
+                    .getCriacao().isAfter(criacaoOriginal));
+        } finally {
+            liberar.countDown();
+        }
+
+        assertEquals(201, resultado.get(10, TimeUnit.SECONDS).status());
+    }
+
+    private PixIdempotencia aguardarReserva(String chave) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            PixIdempotencia reserva = QuarkusTransaction.requiringNew()
+                    .call(() -> pixIdempotenciaRepository.findById(chave));
+            if (reserva != null) {
+                return reserva;
+            }
+            Thread.sleep(100);
+        }
+        return fail("Reserva não criada para " + chave);
+    }
+}
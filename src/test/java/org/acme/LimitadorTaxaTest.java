@@ -0,0 +1,101 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.service.BBIndisponivelException;
+import org.acme.service.LimitadorTaxa;
+import org.junit.jupiter.api.Test;
+
+class LimitadorTaxaTest {
+
+    @Test
+    void testRajadaSemEsperaEDepoisRecusa() throws Exception {
+        LimitadorTaxa limitador = new LimitadorTaxa("cob", 1, 1, 10, 3, 0.5, 1, 0);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limitador.adquirir();
+        }
+        assertTrue(System.nanoTime() - inicio < 500_000_000L);
+
+        // Sem espera permitida, a quarta chamada excede a cota
+        assertThrows(BBIndisponivelException.class, limitador::adquirir);
+        assertEquals(1, limitador.getMetricas().rejeitadas());
+    }
+
+    @Test
+    void testAimd() {
+        LimitadorTaxa limitador = new LimitadorTaxa("cobv", 20, 1, 100, 20, 0.5, 1, 0);
+
+        limitador.registrarLimite(0);
+        assertEquals(10, limitador.getMetricas().taxa(), 0.001);
+        assertEquals(1, limitador.getMetricas().limites());
+
+        limitador.registrarSucesso();
+        assertEquals(10.1, limitador.getMetricas().taxa(), 0.001);
+    }
+
+    @Test
+    void testRetryAfterSuspendeEnvio() {
+        LimitadorTaxa limitador = new LimitadorTaxa("oauth", 20, 1, 100, 20, 0.5, 1, 1000);
+
+        limitador.registrarLimite(30);
+
+        BBIndisponivelException e = assertThrows(BBIndisponivelException.class, limitador::adquirir);
+        assertTrue(e.getRetryAfterSegundos() >= 29);
+    }
+
+    @Test
+    void testChamadasEmFilaSaoEspacadasAPartirDoFimDoBloqueio() throws Exception {
+        LimitadorTaxa limitador = new LimitadorTaxa("cob", 20, 1, 100, 20, 0.5, 1, 5000);
+
+        // Depois do 429 a taxa cai para 10 req/s: uma chamada a cada 100 ms
+        long inicio = System.nanoTime();
+        limitador.registrarLimite(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Long> liberadas = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<?>> chamadas = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                chamadas.add(executor.submit(() -> {
+                    limitador.adquirir();
+                    liberadas.add(System.nanoTime() - inicio);
+                    return null;
+                }));
+            }
+            for (Future<?> chamada : chamadas) {
+                chamada.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Collections.sort(liberadas);
+        assertTrue(liberadas.get(0) >= TimeUnit.SECONDS.toNanos(1));
+        for (int i = 1; i < liberadas.size(); i++) {
+            assertTrue(liberadas.get(i) - liberadas.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(80));
+        }
+    }
+
+    @Test
+    void testMetricasDoMesmoEndpointSaoSomadas() {
+        LimitadorTaxa.Metricas primeira = new LimitadorTaxa.Metricas(10, 2, 1);
+        LimitadorTaxa.Metricas segunda = new LimitadorTaxa.Metricas(5.5, 1, 0);
+
+        LimitadorTaxa.Metricas soma = primeira.somar(segunda);
+        assertEquals(15.5, soma.taxa(), 0.001);
+        assertEquals(3, soma.limites());
+        assertEquals(1, soma.rejeitadas());
+    }
+}
@@ -0,0 +1,292 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.model.PixComVencimento;
+import org.acme.model.PixLoteCobv;
+import org.acme.model.PixOutbox;
+import org.acme.model.TokenBB;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixLoteCobvRepository;
+import org.acme.repository.PixOutboxRepository;
+import org.acme.repository.TokenRepository;
+import org.acme.service.LoteCobvProcessor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Máquina de estados do envio em lote (lotecobv) contra a API simulada em
+ * /bb-simulado/lotecobv, acionando diretamente as etapas agendadas
+ */
+@QuarkusTest
+class LoteCobvProcessorTest {
+
+    private static final String CHAVE = "lote@exemplo.com";
+
+    @Inject
+    LoteCobvProcessor loteCobvProcessor;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixOutboxRepository pixOutboxRepository;
+
+    @Inject
+    PixLoteCobvRepository pixLoteCobvRepository;
+
+    @Inject
+    TokenRepository tokenRepository;
+
+    private static long sequencia = System.nanoTime();
+
+    @BeforeEach
+    void prepararToken() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            LocalDateTime agora = LocalDateTime.now();
+            tokenRepository.persist(new TokenBB("token-teste", agora, agora.plusHours(1)));
+        });
+        definirStatusEnvio(202);
+    }
+
+    @Test
+    void testMontarLoteIgnoraEntradasBloqueadasPorOutraInstancia() throws Exception {
+        String bloqueada = criarCobranca();
+        String livre = criarCobranca();
+        Long idBloqueada = entrada(bloqueada).getId();
+
+        CountDownLatch bloqueou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Thread outraInstancia = new Thread(() -> QuarkusTransaction.requiringNew().run(() -> {
+            pixOutboxRepository.findById(idBloqueada, LockModeType.PESSIMISTIC_WRITE);
+            bloqueou.countDown();
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        outraInstancia.start();
+
+        LoteCobvProcessor.LoteMontado lote;
+        try {
+            assertTrue(bloqueou.await(10, TimeUnit.SECONDS));
+            lote = loteCobvProcessor.montarLote();
+        } finally {
+            liberar.countDown();
+            outraInstancia.join(10_000);
+        }
+
+        assertNotNull(lote);
+        List<String> enviados = txids(lote.corpo().getJsonArray("cobsv"));
+        assertTrue(enviados.contains(livre));
+        assertTrue(!enviados.contains(bloqueada));
+
+        PixOutbox entradaLivre = entrada(livre);
+        assertEquals("EM_LOTE", entradaLivre.getSituacao());
+        assertEquals(lote.id(), entradaLivre.getIdLoteCobv());
+        assertEquals("PENDENTE", entrada(bloqueada).getSituacao());
+
+        encerrar(bloqueada, livre);
+    }
+
+    @Test
+    void testConsultaAplicaCriadaENegada() throws Exception {
+        String criada = criarCobranca();
+        String negada = criarCobranca();
+        String emProcessamento = criarCobranca();
+        Long idLote = criarLoteEnviado(criada, negada, emProcessamento);
+
+        definirResultado(idLote, new JsonArray()
+                .add(new JsonObject().put("txid", criada).put("status", "CRIADA"))
+                .add(new JsonObject().put("txid", negada).put("status", "NEGADA")
+                        .put("problema", new JsonObject().put("detail", "Chave Pix inválida")))
+                .add(new JsonObject().put("txid", emProcessamento).put("status", "EM_PROCESSAMENTO")));
+
+        loteCobvProcessor.consultarLote(idLote);
+
+        // CRIADA: a cobrança é consultada no banco para completar location e pixCopiaECola
+        PixComVencimento pixCriada = cobranca(criada);
+        assertEquals("REGISTRADA", pixCriada.getSituacaoRegistro());
+        assertTrue(pixCriada.getPixCopiaECola().endsWith(criada));
+        assertEquals("CONCLUIDA", entrada(criada).getSituacao());
+
+        // NEGADA: registro em FALHA, com o problema informado pelo banco
+        assertEquals("FALHA", cobranca(negada).getSituacaoRegistro());
+        PixOutbox entradaNegada = entrada(negada);
+        assertEquals("FALHA", entradaNegada.getSituacao());
+        assertTrue(entradaNegada.getUltimoErro().contains("Chave Pix inválida"));
+
+        // Ainda em processamento: o lote continua aguardando a próxima consulta
+        assertEquals("PENDENTE", cobranca(emProcessamento).getSituacaoRegistro());
+        assertEquals("EM_LOTE", entrada(emProcessamento).getSituacao());
+        PixLoteCobv lote = lote(idLote);
+        assertEquals("ENVIADO", lote.getSituacao());
+        assertNotNull(lote.getConsultadoEm());
+
+        definirResultado(idLote, new JsonArray()
+                .add(new JsonObject().put("txid", criada).put("status", "CRIADA"))
+                .add(new JsonObject().put("txid", negada).put("status", "NEGADA"))
+                .add(new JsonObject().put("txid", emProcessamento).put("status", "CRIADA")));
+
+        loteCobvProcessor.consultarLote(idLote);
+
+        assertEquals("REGISTRADA", cobranca(emProcessamento).getSituacaoRegistro());
+        assertEquals("CONCLUIDA", entrada(emProcessamento).getSituacao());
+        assertEquals("CONCLUIDO", lote(idLote).getSituacao());
+    }
+
+    @Test
+    void testLoteDesconhecidoPeloBancoVoltaParaAFila() throws Exception {
+        String txid = criarCobranca();
+        Long idLote = criarLoteEnviado(txid);
+        LocalDateTime antes = LocalDateTime.now();
+
+        // Nenhum resultado programado: a consulta retorna 404
+        loteCobvProcessor.consultarLote(idLote);
+
+        PixLoteCobv lote = lote(idLote);
+        assertEquals("FALHA", lote.getSituacao());
+        assertEquals("Lote não encontrado no banco", lote.getUltimoErro());
+
+        PixOutbox entrada = entrada(txid);
+        assertEquals("PENDENTE", entrada.getSituacao());
+        assertNull(entrada.getIdLoteCobv());
+        assertEquals(1, entrada.getTentativas());
+        assertTrue(entrada.getProximaTentativa().isAfter(antes));
+        assertEquals("PENDENTE", cobranca(txid).getSituacaoRegistro());
+
+        encerrar(txid);
+    }
+
+    @Test
+    void testEnvioRejeitadoLiberaOLote() {
+        String txid = criarCobranca();
+        definirStatusEnvio(400);
+
+        loteCobvProcessor.enviarLote();
+
+        PixOutbox entrada = entrada(txid);
+        assertEquals("PENDENTE", entrada.getSituacao());
+        assertNull(entrada.getIdLoteCobv());
+        assertEquals(1, entrada.getTentativas());
+        assertTrue(entrada.getUltimoErro().contains("Código: 400"));
+
+        encerrar(txid);
+    }
+
+    @Test
+    void testEnvioAmbiguoEResolvidoPelaConsulta() throws Exception {
+        String txid = criarCobranca();
+        definirStatusEnvio(503);
+
+        loteCobvProcessor.enviarLote();
+
+        // Sem saber se o banco recebeu o lote, as entradas continuam nele
+        PixOutbox entrada = entrada(txid);
+        assertEquals("EM_LOTE", entrada.getSituacao());
+        Long idLote = entrada.getIdLoteCobv();
+        assertNotNull(idLote);
+        assertEquals("ENVIADO", lote(idLote).getSituacao());
+
+        definirResultado(idLote, new JsonArray().add(new JsonObject().put("txid", txid).put("status", "CRIADA")));
+
+        loteCobvProcessor.consultarLote(idLote);
+
+        assertEquals("REGISTRADA", cobranca(txid).getSituacaoRegistro());
+        assertEquals("CONCLUIDA", entrada(txid).getSituacao());
+        assertEquals("CONCLUIDO", lote(idLote).getSituacao());
+    }
+
+    private String criarCobranca() {
+        String txid = String.format("LOTE%031d", ++sequencia);
+        QuarkusTransaction.requiringNew().run(() -> {
+            PixComVencimento pix = new PixComVencimento(txid, CHAVE, new BigDecimal("25.00"), "Fulano de Tal",
+                    "12345678909", null, LocalDate.now().plusDays(10), "001");
+            pix.setSituacaoRegistro("PENDENTE");
+            pixComVencimentoRepository.persist(pix);
+            pixOutboxRepository.persist(new PixOutbox(pix));
+        });
+        return txid;
+    }
+
+    private Long criarLoteEnviado(String... txids) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            PixLoteCobv lote = new PixLoteCobv(txids.length);
+            pixLoteCobvRepository.persist(lote);
+            for (String txid : txids) {
+                PixOutbox entrada = pixOutboxRepository.findAtivaByTxId(txid);
+                entrada.setSituacao("EM_LOTE");
+                entrada.setIdLoteCobv(lote.getId());
+            }
+            return lote.getId();
+        });
+    }
+
+    /**
+     * Encerra as entradas que o teste deixou na fila, para não entrarem nos
+     * lotes dos demais testes
+     */
+    private void encerrar(String... txids) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (String txid : txids) {
+                pixOutboxRepository.update("situacao = 'CONCLUIDA' where txid = ?1", txid);
+            }
+        });
+    }
+
+    private PixComVencimento cobranca(String txid) {
+        return QuarkusTransaction.requiringNew().call(() -> pixComVencimentoRepository.findByTxId(txid));
+    }
+
+    private PixOutbox entrada(String txid) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> pixOutboxRepository.find("txid", txid).firstResult());
+    }
+
+    private PixLoteCobv lote(Long idLote) {
+        return QuarkusTransaction.requiringNew().call(() -> pixLoteCobvRepository.findById(idLote));
+    }
+
+    private static List<String> txids(JsonArray cobsv) {
+        List<String> txids = new ArrayList<>();
+        for (int i = 0; i < cobsv.size(); i++) {
+            txids.add(cobsv.getJsonObject(i).getString("txid"));
+        }
+        return txids;
+    }
+
+    private static void definirStatusEnvio(int status) {
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject().put("status", status).encode())
+                .when().put("/bb-simulado/lotecobv/status-envio")
+                .then().statusCode(204);
+    }
+
+    private static void definirResultado(Long idLote, JsonArray cobsv) {
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject().put("id", idLote).put("cobsv", cobsv).encode())
+                .when().put("/bb-simulado/lotecobv/{id}/resultado", idLote)
+                .then().statusCode(204);
+    }
+}
@@ -0,0 +1,204 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.acme.model.Pix;
+import org.acme.model.PixImediato;
+import org.acme.model.PixOutbox;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.repository.PixOutboxRepository;
+import org.acme.service.OutboxProcessor;
+import org.acme.service.PixService;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * A outbox não é agendada nos testes (pix.outbox.intervalo=off); cada teste
+ * aciona o ciclo diretamente contra a API de cobranças simulada. As entradas
+ * criadas aqui têm próxima tentativa no passado distante para serem as
+ * primeiras da fila.
+ */
+@QuarkusTest
+class OutboxProcessorTest {
+
+    private static final LocalDateTime PASSADO = LocalDateTime.of(1990, 1, 1, 0, 0);
+
+    @Inject
+    OutboxProcessor outboxProcessor;
+
+    @Inject
+    PixOutboxRepository pixOutboxRepository;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixService pixService;
+
+    @Test
+    void testEntradaReservadaPorOutraTransacaoEIgnorada() throws Exception {
+        Long primeira = criarEntrada(PASSADO, "PENDENTE", null);
+        Long segunda = criarEntrada(PASSADO.plusMinutes(1), "PENDENTE", null);
+        CountDownLatch reservada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        // Outra instância reserva a primeira entrada da fila e mantém a transação aberta
+        CompletableFuture<List<Long>> outraInstancia = CompletableFuture.supplyAsync(
+                () -> QuarkusTransaction.requiringNew().call(() -> {
+                    List<Long> ids = ids(pixOutboxRepository.buscarProntasParaEnvio(LocalDateTime.now(),
+                            LocalDateTime.now().minusMinutes(5), 1, true));
+                    reservada.countDown();
+                    liberar.await(10, TimeUnit.SECONDS);
+                    return ids;
+                }));
+
+        try {
+            assertTrue(reservada.await(10, TimeUnit.SECONDS));
+            List<Long> ids = QuarkusTransaction.requiringNew().call(() -> ids(pixOutboxRepository
+                    .buscarProntasParaEnvio(LocalDateTime.now(), LocalDateTime.now().minusMinutes(5), 2, true)));
+
+            // Sem esperar pelo bloqueio, a entrada já reservada é pulada
+            assertFalse(ids.contains(primeira));
+            assertTrue(ids.contains(segunda));
+        } finally {
+            liberar.countDown();
+        }
+        assertEquals(List.of(primeira), outraInstancia.get(10, TimeUnit.SECONDS));
+
+        remover(primeira, segunda);
+    }
+
+    @Test
+    void testEntradaEmProcessamentoAbandonadaERetomada() {
+        Long abandonada = criarEntrada(PASSADO, "PROCESSANDO", LocalDateTime.now().minusMinutes(6));
+        Long emAndamento = criarEntrada(PASSADO, "PROCESSANDO", LocalDateTime.now().minusMinutes(1));
+
+        List<Long> ids = QuarkusTransaction.requiringNew().call(() -> ids(pixOutboxRepository
+                .buscarProntasParaEnvio(LocalDateTime.now(), LocalDateTime.now().minusMinutes(5), 50, true)));
+
+        assertTrue(ids.contains(abandonada));
+        assertFalse(ids.contains(emAndamento));
+
+        remover(abandonada, emAndamento);
+    }
+
+    @Test
+    void testCicloRegistraACobrancaNoBanco() {
+        String txid = criarCobrancaPendente();
+
+        outboxProcessor.processar();
+
+        PixOutbox entrada = aguardarEntrada(txid, e -> "CONCLUIDA".equals(e.getSituacao()));
+        assertEquals(0, entrada.getTentativas());
+        Pix pix = QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(txid));
+        assertEquals("REGISTRADA", pix.getSituacaoRegistro());
+        given().when().get("/bb-simulado/cob/{txid}/registros", txid)
+                .then().statusCode(200).body("registros", is(1));
+    }
+
+    @Test
+    void testFalhaAmbiguaEReagendadaComBackoff() {
+        String txid = criarCobrancaPendente();
+        programarFalha(txid, 503);
+
+        outboxProcessor.processar();
+
+        PixOutbox entrada = aguardarEntrada(txid, e -> e.getTentativas() == 1);
+        assertEquals("PENDENTE", entrada.getSituacao());
+        // backoff-inicial-segundos=2, com até 50% de variação
+        assertTrue(entrada.getProximaTentativa().isAfter(LocalDateTime.now().plusSeconds(1)));
+        assertTrue(entrada.getUltimoErro().contains("503"), entrada.getUltimoErro());
+        assertEquals("PENDENTE", QuarkusTransaction.requiringNew()
+                .call(() -> pixImediatoRepository.findByTxId(txid)).getSituacaoRegistro());
+    }
+
+    @Test
+    void testTentativasEsgotadasEncerramAEntradaComoFalha() {
+        String txid = criarCobrancaPendente();
+        QuarkusTransaction.requiringNew().run(() -> pixOutboxRepository.update("tentativas = 9 WHERE txid = ?1", txid));
+        programarFalha(txid, 503);
+
+        outboxProcessor.processar();
+
+        PixOutbox entrada = aguardarEntrada(txid, e -> "FALHA".equals(e.getSituacao()));
+        assertEquals(10, entrada.getTentativas());
+        // A cobrança segue PENDENTE para a recuperação, que consulta o banco antes de reenviar
+        assertEquals("PENDENTE", QuarkusTransaction.requiringNew()
+                .call(() -> pixImediatoRepository.findByTxId(txid)).getSituacaoRegistro());
+    }
+
+    /**
+     * Grava uma cobrança PENDENTE com sua entrada na outbox, como o registro
+     * assíncrono, no início da fila
+     */
+    private String criarCobrancaPendente() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        pixService.enfileirarCobranca(new PixImediato(txid, "outbox@acme.org", new BigDecimal("10.00"),
+                "Fulano de Tal", "12345678909", null, 3600));
+        QuarkusTransaction.requiringNew()
+                .run(() -> pixOutboxRepository.update("proximaTentativa = ?1 WHERE txid = ?2", PASSADO, txid));
+        return txid;
+    }
+
+    private Long criarEntrada(LocalDateTime proximaTentativa, String situacao, LocalDateTime reservadoEm) {
+        PixOutbox entrada = new PixOutbox(new PixImediato(UUID.randomUUID().toString().replace("-", ""),
+                "outbox@acme.org", new BigDecimal("10.00"), "Fulano de Tal", "12345678909", null, 3600));
+        entrada.setProximaTentativa(proximaTentativa);
+        entrada.setSituacao(situacao);
+        entrada.setReservadoEm(reservadoEm);
+        QuarkusTransaction.requiringNew().run(() -> pixOutboxRepository.persist(entrada));
+        return entrada.getId();
+    }
+
+    private void remover(Long... ids) {
+        QuarkusTransaction.requiringNew().run(() -> pixOutboxRepository.delete("id IN ?1", List.of(ids)));
+    }
+
+    private static List<Long> ids(List<PixOutbox> entradas) {
+        return entradas.stream().map(PixOutbox::getId).toList();
+    }
+
+    private static void programarFalha(String txid, int status) {
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject().put("status", status).encode())
+                .when().put("/bb-simulado/cob/{txid}/falhas", txid)
+                .then().statusCode(204);
+    }
+
+    private PixOutbox aguardarEntrada(String txid, Predicate<PixOutbox> condicao) {
+        // O envio é feito pelo executor da outbox, fora da thread do teste
+        for (int i = 0; i < 100; i++) {
+            PixOutbox entrada = QuarkusTransaction.requiringNew()
+                    .call(() -> pixOutboxRepository.find("txid", txid).firstResult());
+            if (entrada != null && condicao.test(entrada)) {
+                return entrada;
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return fail("Entrada da outbox " + txid + " não chegou à situação esperada");
+    }
+}
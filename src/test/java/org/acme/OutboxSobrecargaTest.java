@@ -0,0 +1,80 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import org.acme.model.PixImediato;
+import org.acme.service.OutboxProcessor;
+import org.acme.service.PixService;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * Com a outbox limitada a uma entrada pendente, uma única cobrança na fila já
+ * faz o registro assíncrono e o lote recusarem novas cobranças
+ */
+@QuarkusTest
+@TestProfile(OutboxSobrecargaTest.FilaPequena.class)
+class OutboxSobrecargaTest {
+
+    public static class FilaPequena implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("pix.outbox.max-pendentes", "1");
+        }
+    }
+
+    @Inject
+    OutboxProcessor outboxProcessor;
+
+    @Inject
+    PixService pixService;
+
+    private static JsonObject cobranca() {
+        return new JsonObject()
+                .put("chave", "sobrecarga@acme.org")
+                .put("valor", "10.00")
+                .put("nome", "Fulano de Tal")
+                .put("cpf", "12345678909")
+                .put("expiracao", 3600)
+                .put("banco", "001")
+                .put("tipoCob", "cob");
+    }
+
+    @Test
+    void testFilaCheiaRecusaRegistroAssincronoELote() {
+        pixService.enfileirarCobranca(new PixImediato(UUID.randomUUID().toString().replace("-", ""),
+                "sobrecarga@acme.org", new BigDecimal("10.00"), "Fulano de Tal", "12345678909", null, 3600));
+
+        // O número de pendentes é observado a cada ciclo da outbox
+        outboxProcessor.processar();
+        assertTrue(outboxProcessor.isSobrecarregado());
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(cobranca().encode())
+                .when().post("/pix/cobranca?assincrono=true")
+                .then().statusCode(503)
+                .header("Retry-After", "30")
+                .body("erro", is("Fila de registro de cobranças cheia, tente novamente"));
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(new JsonArray().add(cobranca()).encode())
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(503)
+                .header("Retry-After", "30");
+    }
+}
@@ -0,0 +1,149 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.acme.model.PixComVencimento;
+import org.acme.model.PixImediato;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixImediatoRepository;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.path.json.JsonPath;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * Exportação NDJSON (formato=ndjson) das listagens por período e de vencidas,
+ * comparada à listagem paginada das mesmas cobranças
+ */
+@QuarkusTest
+class PixExportacaoNdjsonTest {
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Test
+    void testPeriodoIntercalaImediatasEComVencimentoPorCriacao() {
+        // Período sem outras cobranças, para que a exportação traga só as criadas aqui
+        LocalDateTime agora = LocalDateTime.now();
+        String imediataRecente = criarImediata(LocalDateTime.of(2041, 5, 10, 12, 0), agora.minusHours(1));
+        String comVencimento = criarComVencimento(LocalDate.of(2041, 5, 15), agora.minusHours(2));
+        String imediataAntiga = criarImediata(LocalDateTime.of(2041, 5, 20, 12, 0), agora.minusHours(3));
+        criarComVencimento(LocalDate.of(2041, 6, 15), agora.minusHours(4));
+
+        List<JsonObject> linhas = exportar("/pix/cobrancas-vencimento/periodo?dataInicio=2041-05-01"
+                + "&dataFim=2041-05-31&formato=ndjson");
+
+        assertEquals(List.of(imediataRecente, comVencimento, imediataAntiga), txids(linhas));
+        assertNull(linhas.get(0).getString("tipoCob"));
+        assertEquals("cobv", linhas.get(1).getString("tipoCob"));
+        assertEquals("2041-05-15", linhas.get(1).getString("dataVencimento"));
+
+        // A listagem paginada traz as mesmas cobranças, na mesma ordem
+        JsonPath primeira = listar("/pix/cobrancas-vencimento/periodo?dataInicio=2041-05-01&dataFim=2041-05-31"
+                + "&limite=2");
+        JsonPath segunda = listar("/pix/cobrancas-vencimento/periodo?dataInicio=2041-05-01&dataFim=2041-05-31"
+                + "&limite=2&cursor=" + primeira.getString("proximoCursor"));
+        List<String> paginadas = new ArrayList<>(primeira.getList("cobrancas.txid"));
+        paginadas.addAll(segunda.getList("cobrancas.txid"));
+        assertEquals(txids(linhas), paginadas);
+        assertNull(segunda.getString("proximoCursor"));
+    }
+
+    @Test
+    void testVencidasExportaSoAsAtivasComVencimentoPassado() {
+        String vencida = criarComVencimento(LocalDate.now().minusDays(5), LocalDateTime.now().minusDays(6));
+        String paga = criarComVencimento(LocalDate.now().minusDays(5), LocalDateTime.now().minusDays(6));
+        QuarkusTransaction.requiringNew().run(() -> pixComVencimentoRepository
+                .update("status = 'CONCLUIDA' WHERE txid = ?1", paga));
+        String aVencer = criarComVencimento(LocalDate.now().plusDays(5), LocalDateTime.now().minusDays(1));
+
+        List<JsonObject> linhas = exportar("/pix/cobrancas-vencimento/vencidas?formato=ndjson");
+        List<String> txids = txids(linhas);
+
+        assertTrue(txids.contains(vencida));
+        assertFalse(txids.contains(paga));
+        assertFalse(txids.contains(aVencer));
+        for (JsonObject linha : linhas) {
+            assertEquals("ATIVA", linha.getString("status"));
+            assertTrue(LocalDate.parse(linha.getString("dataVencimento")).isBefore(LocalDate.now()));
+        }
+
+        JsonPath pagina = listar("/pix/cobrancas-vencimento/vencidas?limite=500");
+        assertEquals(pagina.getList("cobrancas.txid"), txids);
+    }
+
+    @Test
+    void testPeriodoSemCobrancasExportaCorpoVazio() {
+        List<JsonObject> linhas = exportar("/pix/cobrancas-vencimento/periodo?dataInicio=2042-01-01"
+                + "&dataFim=2042-01-31&formato=ndjson");
+
+        assertTrue(linhas.isEmpty());
+    }
+
+    private String criarImediata(LocalDateTime expiraEm, LocalDateTime criacao) {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> {
+            pixImediatoRepository.persist(new PixImediato(txid, "exportacao@acme.org", new BigDecimal("30.00"),
+                    "Fulano de Tal", "12345678909", null, 3600));
+            pixImediatoRepository.update("expiraEm = ?1, criacao = ?2 WHERE txid = ?3", expiraEm, criacao, txid);
+        });
+        return txid;
+    }
+
+    private String criarComVencimento(LocalDate dataVencimento, LocalDateTime criacao) {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> {
+            pixComVencimentoRepository.persist(new PixComVencimento(txid, "exportacao@acme.org",
+                    new BigDecimal("30.00"), "Fulano de Tal", "12345678909", null, dataVencimento, 0, "001"));
+            pixComVencimentoRepository.update("criacao = ?1 WHERE txid = ?2", criacao, txid);
+        });
+        return txid;
+    }
+
+    private static List<JsonObject> exportar(String url) {
+        String corpo = given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get(url)
+                .then().statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .extract().asString();
+
+        // Uma cobrança JSON por linha, cada linha terminada por \n
+        List<JsonObject> linhas = new ArrayList<>();
+        if (!corpo.isEmpty()) {
+            assertTrue(corpo.endsWith("\n"));
+            for (String linha : corpo.split("\n")) {
+                linhas.add(new JsonObject(linha));
+            }
+        }
+        return linhas;
+    }
+
+    private static JsonPath listar(String url) {
+        return given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get(url)
+                .then().statusCode(200)
+                .extract().jsonPath();
+    }
+
+    private static List<String> txids(List<JsonObject> linhas) {
+        return linhas.stream().map(linha -> linha.getString("txid")).toList();
+    }
+}
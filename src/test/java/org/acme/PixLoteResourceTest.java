@@ -0,0 +1,169 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.acme.model.Pix;
+import org.acme.repository.PixRepository;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * Nos testes o lote aceita até 5 cobranças, gravadas em transações de 2
+ * (pix.lote.max-itens e pix.lote.itens-por-transacao)
+ */
+@QuarkusTest
+class PixLoteResourceTest {
+
+    @Inject
+    PixRepository pixRepository;
+
+    private static JsonObject cobranca(String nome) {
+        return new JsonObject()
+                .put("chave", "lote@acme.org")
+                .put("valor", "12.34")
+                .put("nome", nome)
+                .put("cpf", "12345678909")
+                .put("expiracao", 3600)
+                .put("banco", "001")
+                .put("tipoCob", "cob");
+    }
+
+    @Test
+    void testArrayJsonAceitaValidasERejeitaInvalidas() {
+        JsonArray lote = new JsonArray()
+                .add(cobranca("Fulano de Tal"))
+                .add(cobranca("Fulano de Tal").put("valor", "abc"))
+                .add(cobranca("Fulano de Tal").put("tipoCob", "cobv").put("dataVencimento", "2030-01-10"));
+
+        JsonPath resposta = given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(lote.encode())
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(202)
+                .body("total", is(3))
+                .body("aceitas", is(2))
+                .body("rejeitadas", is(1))
+                .body("resultados[0].situacao", is("ACEITA"))
+                .body("resultados[0].tipoCob", is("cob"))
+                .body("resultados[1].situacao", is("REJEITADA"))
+                .body("resultados[1].erro", startsWith("Valor inválido"))
+                .body("resultados[2].situacao", is("ACEITA"))
+                .body("resultados[2].tipoCob", is("cobv"))
+                .extract().jsonPath();
+
+        // As aceitas ficam gravadas, com o tipo informado; o registro no banco segue pela outbox
+        for (int i : new int[] { 0, 2 }) {
+            String txid = resposta.getString("resultados[" + i + "].txid");
+            Pix pix = QuarkusTransaction.requiringNew().call(() -> pixRepository.findByTxId(txid));
+            assertNotNull(pix);
+            assertEquals(i == 2, pix.isCobvTipo());
+        }
+    }
+
+    @Test
+    void testArrayJsonAcimaDoLimiteERecusado() {
+        JsonArray lote = new JsonArray();
+        for (int i = 0; i < 6; i++) {
+            lote.add(cobranca("Fulano de Tal"));
+        }
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(lote.encode())
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(400)
+                .body("erro", is("Lote excede o limite de 5 cobranças"));
+    }
+
+    @Test
+    void testFalhaAoGravarRejeitaSoAParteDaTransacao() {
+        // O nome longo demais só falha no INSERT, derrubando a transação dos itens 2 e 3
+        JsonArray lote = new JsonArray()
+                .add(cobranca("Primeira"))
+                .add(cobranca("Segunda"))
+                .add(cobranca("Terceira"))
+                .add(cobranca("X".repeat(300)))
+                .add(cobranca("Quinta"));
+
+        JsonPath resposta = given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(lote.encode())
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(202)
+                .body("aceitas", is(3))
+                .body("rejeitadas", is(2))
+                .extract().jsonPath();
+
+        List<String> situacoes = resposta.getList("resultados.situacao");
+        assertEquals(List.of("ACEITA", "ACEITA", "REJEITADA", "REJEITADA", "ACEITA"), situacoes);
+        assertEquals("Erro ao gravar a cobrança", resposta.getString("resultados[2].erro"));
+
+        String txidRejeitado = resposta.getString("resultados[2].txid");
+        assertNull(QuarkusTransaction.requiringNew().call(() -> pixRepository.findByTxId(txidRejeitado)));
+    }
+
+    @Test
+    void testNdjsonIgnoraLinhasEmBrancoERejeitaJsonInvalido() {
+        String corpo = cobranca("Fulano de Tal").encode() + "\n"
+                + "\n"
+                + "{não é json\n"
+                + cobranca("Beltrano").encode() + "\n";
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType("application/x-ndjson")
+                .body(corpo.getBytes(StandardCharsets.UTF_8))
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(202)
+                .body("total", is(3))
+                .body("aceitas", is(2))
+                .body("rejeitadas", is(1))
+                .body("resultados[0].txid", notNullValue())
+                .body("resultados[1].situacao", is("REJEITADA"))
+                .body("resultados[1].erro", startsWith("JSON inválido"))
+                .body("resultados[2].situacao", is("ACEITA"))
+                .body("erro", is((String) null));
+    }
+
+    @Test
+    void testNdjsonAcimaDoLimiteGravaAsPrimeirasEInterrompe() {
+        StringBuilder corpo = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            corpo.append(cobranca("Fulano " + i).encode()).append('\n');
+        }
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType("application/x-ndjson")
+                .body(corpo.toString().getBytes(StandardCharsets.UTF_8))
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(202)
+                .body("total", is(5))
+                .body("aceitas", is(5))
+                .body("erro", is("Lote excede o limite de 5 cobranças"));
+    }
+
+    @Test
+    void testNdjsonVazioERecusado() {
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType("application/x-ndjson")
+                .body("\n\n".getBytes(StandardCharsets.UTF_8))
+                .when().post("/pix/lote/cobrancas")
+                .then().statusCode(400)
+                .body("erro", is("Lote vazio"));
+    }
+}
@@ -0,0 +1,91 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.acme.model.PixComVencimento;
+import org.acme.model.PixImediato;
+import org.acme.repository.PixComVencimentoRepository;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.service.PixService;
+import org.acme.service.QrCodeCache;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class PixQrCodeTest {
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixComVencimentoRepository pixComVencimentoRepository;
+
+    @Inject
+    PixService pixService;
+
+    @Inject
+    QrCodeCache qrCodeCache;
+
+    @Test
+    void testQrCodeDeCobrancaPagaSaiDoCacheERespondeGone() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> {
+            PixImediato pix = new PixImediato(txid, "qrcode@acme.org", new BigDecimal("10.00"), "Fulano de Tal",
+                    "12345678909", null, 600);
+            pix.setPixCopiaECola("00020101021226870014br.gov.bcb.pix2563qrcodepix-h.bb.com.br/pix/v2/cob/" + txid);
+            pixImediatoRepository.persist(pix);
+        });
+
+        long antes = qrCodeCache.getBytesEmCache();
+        String cacheControl = given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get("/pix/cobranca/{txid}/qrcode", txid)
+                .then().statusCode(200)
+                .extract().header("Cache-Control");
+        long tamanhoImagem = qrCodeCache.getBytesEmCache() - antes;
+        assertTrue(tamanhoImagem > 0);
+
+        // Privado e limitado à validade restante da cobrança (600 s), não ao máximo configurado
+        assertTrue(cacheControl.startsWith("private, max-age="), cacheControl);
+        long maxAge = Long.parseLong(cacheControl.substring("private, max-age=".length()));
+        assertTrue(maxAge > 0 && maxAge <= 600, cacheControl);
+
+        pixService.aplicarPagamentosWebhook(new JsonArray().add(new JsonObject()
+                .put("endToEndId", "E" + txid)
+                .put("txid", txid)
+                .put("valor", "10.00")));
+
+        assertEquals(antes, qrCodeCache.getBytesEmCache());
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get("/pix/cobranca/{txid}/qrcode", txid)
+                .then().statusCode(410)
+                .body("status", is("CONCLUIDA"));
+    }
+
+    @Test
+    void testQrCodeDeCobrancaComVencimentoForaDaValidadeRespondeGone() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> {
+            PixComVencimento pix = new PixComVencimento(txid, "qrcode@acme.org", new BigDecimal("10.00"),
+                    "Fulano de Tal", "12345678909", null, LocalDate.now().minusDays(10), 2, "001");
+            pix.setPixCopiaECola("00020101021226870014br.gov.bcb.pix2563qrcodepix-h.bb.com.br/pix/v2/cobv/" + txid);
+            pixComVencimentoRepository.persist(pix);
+        });
+
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .when().get("/pix/cobranca/{txid}/qrcode", txid)
+                .then().statusCode(410)
+                .body("status", is("ATIVA"));
+    }
+}
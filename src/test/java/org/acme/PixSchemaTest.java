@@ -0,0 +1,48 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@QuarkusTest
+class PixSchemaTest {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIndicesDaTabelaPix() {
+        List<Object[]> linhas = entityManager
+                .createNativeQuery("SELECT indexname, indexdef FROM pg_indexes WHERE tablename = 'pix'")
+                .getResultList();
+        Map<String, String> indices = linhas.stream()
+                .collect(Collectors.toMap(l -> (String) l[0], l -> (String) l[1]));
+
+        assertTrue(indices.getOrDefault("uk_pix_txid", "").contains("UNIQUE"), "txid deve ser único");
+        assertTrue(indices.getOrDefault("uk_pix_txid", "").contains("(txid)"));
+        assertTrue(indices.getOrDefault("idx_pix_status_vencimento", "").contains("(status, datavencimento)"));
+        assertTrue(indices.getOrDefault("idx_pix_vencimento", "").contains("(datavencimento)"));
+        assertTrue(indices.getOrDefault("idx_pix_tipo_criacao", "").contains("(tipo_pix, criacao, id)"));
+        assertTrue(indices.getOrDefault("idx_pix_situacao_registro_criacao", "")
+                .contains("(situacaoregistro, criacao)"));
+        assertTrue(indices.getOrDefault("idx_pix_end_to_end_id", "").contains("(endtoendid)"));
+    }
+
+    @Test
+    void testSequenciaDosIdentificadores() {
+        Object incremento = entityManager
+                .createNativeQuery("SELECT increment_by FROM pg_sequences WHERE sequencename = 'default_entity_seq'")
+                .getSingleResult();
+        assertEquals(100L, ((Number) incremento).longValue());
+    }
+}
@@ -0,0 +1,137 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.net.URL;
+import java.time.LocalDateTime;
+
+import org.acme.model.Pix;
+import org.acme.model.PixImediato;
+import org.acme.model.TokenBB;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.repository.TokenRepository;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class PixWebhookTest {
+
+    private static final String CHAVE = "webhook@exemplo.com";
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    TokenRepository tokenRepository;
+
+    // O banco notifica por TLS mútuo
+    @TestHTTPResource(value = "/pix/webhook", tls = true)
+    URL webhookUrl;
+
+    @Test
+    void testPagamentoRecebidoPeloWebhookUmaUnicaVez() {
+        String txid = "WEBHOOKTESTE" + System.nanoTime();
+        String endToEndId = "E00000000202610171200" + txid.substring(txid.length() - 11);
+
+        criarCobranca(txid, "ATIVA");
+        cadastrarWebhook();
+
+        String pagamentos = new JsonArray()
+                .add(new JsonObject()
+                        .put("endToEndId", endToEndId)
+                        .put("txid", txid)
+                        .put("valor", "10.00")
+                        .put("horario", "2026-10-17T12:00:00.000Z"))
+                .encode();
+
+        given().contentType(ContentType.JSON).body(pagamentos)
+                .when().post("/bb-simulado/webhook/{chave}/disparar", CHAVE)
+                .then().statusCode(200).body("aplicados", is(1));
+
+        // O banco reenvia notificações; a repetição não altera o pagamento
+        given().contentType(ContentType.JSON).body(pagamentos)
+                .when().post("/bb-simulado/webhook/{chave}/disparar", CHAVE)
+                .then().statusCode(200).body("aplicados", is(0));
+
+        Pix pix = QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(txid));
+        assertTrue(pix.isPaga());
+        assertEquals(endToEndId, pix.getEndToEndId());
+        assertEquals(0, new BigDecimal("10.00").compareTo(pix.getValorPago()));
+    }
+
+    @Test
+    void testNotificacaoSemCertificadoDoBancoERecusada() {
+        String txid = "WEBHOOKSEMCERT" + System.nanoTime();
+        criarCobranca(txid, "ATIVA");
+
+        // Chamada direta, sem TLS mútuo: qualquer um que conheça o txid poderia tentar
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject().put("pix", new JsonArray().add(new JsonObject()
+                        .put("endToEndId", "E00000000202610171200FALSO0000001")
+                        .put("txid", txid)
+                        .put("valor", "10.00"))).encode())
+                .when().post("/pix/webhook/pix")
+                .then().statusCode(401);
+
+        Pix pix = QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(txid));
+        assertFalse(pix.isPaga());
+    }
+
+    @Test
+    void testPagamentoComValorDiferenteOuCobrancaInativaEIgnorado() {
+        String ativa = "WEBHOOKVALOR" + System.nanoTime();
+        String removida = "WEBHOOKREMOVIDA" + System.nanoTime();
+        criarCobranca(ativa, "ATIVA");
+        criarCobranca(removida, "REMOVIDA_PELO_USUARIO_RECEBEDOR");
+        cadastrarWebhook();
+
+        String pagamentos = new JsonArray()
+                .add(new JsonObject()
+                        .put("endToEndId", "E00000000202610171200" + ativa.substring(ativa.length() - 11))
+                        .put("txid", ativa)
+                        .put("valor", "0.01"))
+                .add(new JsonObject()
+                        .put("endToEndId", "E00000000202610171200" + removida.substring(removida.length() - 11))
+                        .put("txid", removida)
+                        .put("valor", "10.00"))
+                .encode();
+
+        given().contentType(ContentType.JSON).body(pagamentos)
+                .when().post("/bb-simulado/webhook/{chave}/disparar", CHAVE)
+                .then().statusCode(200).body("aplicados", is(0));
+
+        assertFalse(QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(ativa)).isPaga());
+        assertFalse(QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(removida)).isPaga());
+    }
+
+    private void criarCobranca(String txid, String status) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            LocalDateTime agora = LocalDateTime.now();
+            tokenRepository.persist(new TokenBB("token-teste", agora, agora.plusHours(1)));
+            PixImediato pix = new PixImediato(txid, CHAVE, new BigDecimal("10.00"), "Fulano de Tal",
+                    "12345678909", null, 3600);
+            pix.setStatus(status);
+            pixImediatoRepository.persist(pix);
+        });
+    }
+
+    private void cadastrarWebhook() {
+        given().auth().preemptive().basic("pix", "senha-teste")
+                .contentType(ContentType.JSON)
+                .body(new JsonObject().put("webhookUrl", webhookUrl.toString()).encode())
+                .when().put("/pix/webhook/registro/{chave}", CHAVE)
+                .then().statusCode(200);
+    }
+}
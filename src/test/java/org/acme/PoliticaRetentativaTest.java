@@ -0,0 +1,281 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.net.ssl.SSLSession;
+
+import org.acme.config.PixConfig;
+import org.acme.service.BBIndisponivelException;
+import org.acme.service.PoliticaRetentativa;
+import org.acme.service.RegistroPendenteException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Classificação das falhas, consulta antes do reenvio, tentativas e orçamento
+ * da política de repetição, com PUT e GET roteirizados
+ */
+class PoliticaRetentativaTest {
+
+    private static final String TXID = "RETENTATIVA0000000000000000000001";
+
+    // Ordem das chamadas feitas pela política
+    private final List<String> chamadas = new ArrayList<>();
+
+    private static PoliticaRetentativa politica(int maxTentativas, int orcamentoMaximo, int orcamentoPercentual) {
+        return new PoliticaRetentativa(new PixConfig() {
+            @Override
+            public int getRetentativaMaxTentativas() {
+                return maxTentativas;
+            }
+
+            @Override
+            public long getRetentativaBackoffInicialMs() {
+                return 1;
+            }
+
+            @Override
+            public long getRetentativaBackoffMaximoMs() {
+                return 1;
+            }
+
+            @Override
+            public int getRetentativaOrcamentoMaximo() {
+                return orcamentoMaximo;
+            }
+
+            @Override
+            public int getRetentativaOrcamentoPercentual() {
+                return orcamentoPercentual;
+            }
+        });
+    }
+
+    private static PoliticaRetentativa politica() {
+        return politica(5, 10, 10);
+    }
+
+    @Test
+    void testClassificacaoDasFalhas() {
+        for (int ambiguo : new int[] { 408, 500, 502, 503, 504 }) {
+            assertTrue(PoliticaRetentativa.isRepetivel(ambiguo), "Código " + ambiguo);
+        }
+        // Rejeições do banco, 429 (repetido pelo BBHttpClient) e 501 são definitivos
+        for (int definitivo : new int[] { 400, 401, 403, 404, 409, 422, 429, 501 }) {
+            assertFalse(PoliticaRetentativa.isRepetivel(definitivo), "Código " + definitivo);
+        }
+    }
+
+    @Test
+    void testSucessoNaPrimeiraTentativaNaoConsulta() throws Exception {
+        Roteiro envio = new Roteiro("PUT").responder(201);
+        Roteiro verificacao = new Roteiro("GET");
+
+        assertEquals(201, politica().executar(TXID, envio, verificacao).statusCode());
+        assertEquals(List.of("PUT"), chamadas);
+    }
+
+    @Test
+    void testRejeicaoDefinitivaNaoERepetida() throws Exception {
+        Roteiro envio = new Roteiro("PUT").responder(400);
+        Roteiro verificacao = new Roteiro("GET");
+
+        assertEquals(400, politica().executar(TXID, envio, verificacao).statusCode());
+        assertEquals(List.of("PUT"), chamadas);
+    }
+
+    @Test
+    void testFalhaAmbiguaConsultaAntesDeCadaReenvio() throws Exception {
+        Roteiro envio = new Roteiro("PUT").responder(503).falhar(new IOException("timeout")).responder(201);
+        Roteiro verificacao = new Roteiro("GET").responder(404).responder(404);
+
+        assertEquals(201, politica().executar(TXID, envio, verificacao).statusCode());
+        assertEquals(List.of("PUT", "GET", "PUT", "GET", "PUT"), chamadas);
+    }
+
+    @Test
+    void testCobrancaEncontradaNaConsultaDispensaReenvio() throws Exception {
+        Roteiro envio = new Roteiro("PUT").falhar(new IOException("conexão encerrada"));
+        Roteiro verificacao = new Roteiro("GET").responder(200);
+
+        HttpResponse<String> resposta = politica().executar(TXID, envio, verificacao);
+
+        assertEquals(200, resposta.statusCode());
+        assertEquals("GET", resposta.body());
+        assertEquals(List.of("PUT", "GET"), chamadas);
+    }
+
+    @Test
+    void testReenvioSoDepoisDeNaoEncontrada() throws Exception {
+        // Uma consulta que não responde 404 não diz se a cobrança existe: consulta de novo
+        Roteiro envio = new Roteiro("PUT").responder(502).responder(201);
+        Roteiro verificacao = new Roteiro("GET").responder(500).responder(404);
+
+        assertEquals(201, politica().executar(TXID, envio, verificacao).statusCode());
+        assertEquals(List.of("PUT", "GET", "GET", "PUT"), chamadas);
+    }
+
+    @Test
+    void testRejeicaoDoReenvioComCobrancaExistenteEJaCriada() throws Exception {
+        Roteiro envio = new Roteiro("PUT").responder(504).responder(409);
+        Roteiro verificacao = new Roteiro("GET").responder(404).responder(200);
+
+        HttpResponse<String> resposta = politica().executar(TXID, envio, verificacao);
+
+        assertEquals(200, resposta.statusCode());
+        assertEquals(List.of("PUT", "GET", "PUT", "GET"), chamadas);
+    }
+
+    @Test
+    void testRejeicaoDoReenvioSemCobrancaEDevolvida() throws Exception {
+        Roteiro envio = new Roteiro("PUT").responder(504).responder(400);
+        Roteiro verificacao = new Roteiro("GET").responder(404).responder(404);
+
+        assertEquals(400, politica().executar(TXID, envio, verificacao).statusCode());
+        assertEquals(List.of("PUT", "GET", "PUT", "GET"), chamadas);
+    }
+
+    @Test
+    void testTentativasEsgotadasFicaPendente() {
+        Roteiro envio = new Roteiro("PUT").responder(503).responder(503).responder(503);
+        Roteiro verificacao = new Roteiro("GET").responder(404).responder(404);
+
+        RegistroPendenteException e = assertThrows(RegistroPendenteException.class,
+                () -> politica(3, 10, 10).executar(TXID, envio, verificacao));
+
+        assertEquals(TXID, e.getTxid());
+        assertEquals(List.of("PUT", "GET", "PUT", "GET", "PUT"), chamadas);
+    }
+
+    @Test
+    void testOrcamentoCompartilhadoLimitaRepeticoes() {
+        // Uma única repetição no orçamento, sem reposição
+        PoliticaRetentativa politica = politica(5, 1, 0);
+
+        Roteiro envio = new Roteiro("PUT").responder(503).responder(503);
+        Roteiro verificacao = new Roteiro("GET").responder(404);
+        assertThrows(RegistroPendenteException.class, () -> politica.executar(TXID, envio, verificacao));
+        assertEquals(List.of("PUT", "GET", "PUT"), chamadas);
+
+        // O orçamento esgotado vale para as próximas cobranças
+        chamadas.clear();
+        Roteiro outroEnvio = new Roteiro("PUT").responder(503);
+        assertThrows(RegistroPendenteException.class,
+                () -> politica.executar(TXID, outroEnvio, new Roteiro("GET")));
+        assertEquals(List.of("PUT"), chamadas);
+    }
+
+    @Test
+    void testIndisponivelNaPrimeiraTentativaERelancada() {
+        BBIndisponivelException indisponivel = new BBIndisponivelException("cob", "Circuito aberto", 30);
+        Roteiro envio = new Roteiro("PUT").falhar(indisponivel);
+        Roteiro verificacao = new Roteiro("GET");
+
+        // Nada chegou ao banco: quem chamou marca a cobrança como FALHA
+        BBIndisponivelException e = assertThrows(BBIndisponivelException.class,
+                () -> politica().executar(TXID, envio, verificacao));
+
+        assertSame(indisponivel, e);
+        assertEquals(List.of("PUT"), chamadas);
+    }
+
+    @Test
+    void testIndisponivelDepoisDeFalhaAmbiguaFicaPendente() {
+        BBIndisponivelException indisponivel = new BBIndisponivelException("cob", "Circuito aberto", 30);
+        Roteiro envio = new Roteiro("PUT").responder(503);
+        Roteiro verificacao = new Roteiro("GET").falhar(indisponivel);
+
+        // O primeiro PUT pode ter criado a cobrança: ela fica PENDENTE
+        RegistroPendenteException e = assertThrows(RegistroPendenteException.class,
+                () -> politica().executar(TXID, envio, verificacao));
+
+        assertEquals(TXID, e.getTxid());
+        assertSame(indisponivel, e.getCause());
+        assertEquals(List.of("PUT", "GET"), chamadas);
+    }
+
+    /**
+     * Chamada que devolve, em ordem, as respostas e falhas programadas
+     */
+    private class Roteiro implements PoliticaRetentativa.Chamada {
+
+        private final String nome;
+        private final Deque<Object> passos = new ArrayDeque<>();
+
+        Roteiro(String nome) {
+            this.nome = nome;
+        }
+
+        Roteiro responder(int statusCode) {
+            passos.add(new Resposta(statusCode, nome));
+            return this;
+        }
+
+        Roteiro falhar(Exception falha) {
+            passos.add(falha);
+            return this;
+        }
+
+        @Override
+        public HttpResponse<String> executar() throws Exception {
+            chamadas.add(nome);
+            Object passo = passos.poll();
+            if (passo == null) {
+                throw new AssertionError(nome + " não esperado na chamada " + chamadas.size());
+            }
+            if (passo instanceof Exception falha) {
+                throw falha;
+            }
+            return (Resposta) passo;
+        }
+    }
+
+    private record Resposta(int statusCode, String body) implements HttpResponse<String> {
+
+        @Override
+        public HttpRequest request() {
+            return null;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (nome, valor) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URI.create("https://api.bb.com.br/pix/v2/cob/" + TXID);
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.acme;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.service.QrCodeRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * Compara a geração do PNG do QR Code pelo QrCodeRenderer com a geração
+ * anterior (MultiFormatWriter + MatrixToImageWriter), em tempo de CPU e
+ * alocação por operação. Ambos partem do texto Pix Copia e Cola, com os mesmos
+ * parâmetros do endpoint de QR Code.
+ *
+ * Não roda com os testes. Para executar, com o profiler de GC (métrica
+ * gc.alloc.rate.norm, em bytes por operação):
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     org.openjdk.jmh.Main QrCodeRendererBenchmark -prof gc
+ * </pre>
+ *
+ * ou pelo método main desta classe, que já inclui o profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QrCodeRendererBenchmark {
+
+    private static final String PIX_COPIA_E_COLA = "00020101021226870014br.gov.bcb.pix2565qrcodepix-h.bb.com.br/pix/v2/"
+            + "cobv/5e2c1a8b4f9d4c3e8a7b6c5d4e3f2a1b5204000053039865802BR5925FULANO DE TAL6008BRASILIA62070503***6304ABCD";
+
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(
+            EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+            EncodeHintType.MARGIN, 2,
+            EncodeHintType.CHARACTER_SET, "UTF-8");
+
+    @Param({ "150", "300", "600" })
+    public int tamanho;
+
+    private final QrCodeRenderer renderer = new QrCodeRenderer();
+
+    @Benchmark
+    public byte[] renderizarPng() throws WriterException {
+        return renderer.renderizarPng(PIX_COPIA_E_COLA, tamanho, ErrorCorrectionLevel.M, 2);
+    }
+
+    @Benchmark
+    public byte[] matrixToImageWriter() throws WriterException, IOException {
+        BitMatrix matriz = new MultiFormatWriter().encode(PIX_COPIA_E_COLA, BarcodeFormat.QR_CODE, tamanho, tamanho,
+                HINTS);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(matriz, "png", png);
+        return png.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QrCodeRendererBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
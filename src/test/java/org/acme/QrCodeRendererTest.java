@@ -0,0 +1,83 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import org.acme.service.QrCodeRenderer;
+import org.junit.jupiter.api.Test;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+class QrCodeRendererTest {
+
+    private static final String PIX_COPIA_E_COLA = "00020101021226870014br.gov.bcb.pix2565qrcodepix-h.bb.com.br/pix/v2/"
+            + "cobv/5e2c1a8b4f9d4c3e8a7b6c5d4e3f2a1b5204000053039865802BR5925FULANO DE TAL6008BRASILIA62070503***6304ABCD";
+
+    private final QrCodeRenderer renderer = new QrCodeRenderer();
+
+    @Test
+    void testPngIdenticoAoMatrixToImageWriter() throws Exception {
+        for (int tamanho : new int[] { 150, 300, 333 }) {
+            BitMatrix matriz = new MultiFormatWriter().encode(PIX_COPIA_E_COLA, BarcodeFormat.QR_CODE, tamanho, tamanho,
+                    Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+                            EncodeHintType.MARGIN, 2,
+                            EncodeHintType.CHARACTER_SET, "UTF-8"));
+            ByteArrayOutputStream esperado = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matriz, "png", esperado);
+
+            BufferedImage referencia = ImageIO.read(new ByteArrayInputStream(esperado.toByteArray()));
+            BufferedImage gerada = ImageIO.read(new ByteArrayInputStream(
+                    renderer.renderizarPng(PIX_COPIA_E_COLA, tamanho, ErrorCorrectionLevel.M, 2)));
+
+            assertEquals(referencia.getWidth(), gerada.getWidth());
+            assertEquals(referencia.getHeight(), gerada.getHeight());
+            for (int y = 0; y < referencia.getHeight(); y++) {
+                for (int x = 0; x < referencia.getWidth(); x++) {
+                    assertEquals(referencia.getRGB(x, y), gerada.getRGB(x, y),
+                            "Pixel divergente em (" + x + ", " + y + ") com tamanho " + tamanho);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSvg() throws Exception {
+        String svg = new String(renderer.renderizarSvg(PIX_COPIA_E_COLA, 300, ErrorCorrectionLevel.M, 2),
+                StandardCharsets.UTF_8);
+
+        assertTrue(svg.startsWith("<svg "));
+        assertTrue(svg.contains("width=\"300\""));
+        assertTrue(svg.contains("<path fill=\"#000\" d=\"M"));
+        assertTrue(svg.endsWith("</svg>"));
+    }
+
+    @Test
+    void testMatrizInclusiveMargem() throws Exception {
+        JsonObject matriz = new JsonObject(new String(
+                renderer.renderizarMatriz(PIX_COPIA_E_COLA, ErrorCorrectionLevel.H, 4), StandardCharsets.UTF_8));
+
+        int lado = matriz.getInteger("tamanho");
+        JsonArray modulos = matriz.getJsonArray("modulos");
+        assertEquals(lado, modulos.size());
+        assertEquals("H", matriz.getString("correcao"));
+        assertEquals("0".repeat(lado), modulos.getString(0));
+        // Padrão de localização do canto superior esquerdo começa logo após a margem
+        assertEquals("1111111", modulos.getString(4).substring(4, 11));
+    }
+}
@@ -0,0 +1,124 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.acme.model.PixImediato;
+import org.acme.repository.PixImediatoRepository;
+import org.acme.service.PixService;
+import org.acme.service.RegistroPendenteScheduler;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.vertx.core.json.JsonObject;
+import jakarta.inject.Inject;
+
+/**
+ * A recuperação não é agendada nos testes (pix.registro.recuperacao.intervalo=off);
+ * cada teste a aciona diretamente contra a API de cobranças simulada. As
+ * cobranças criadas aqui são gravadas PENDENTE com criação anterior à idade
+ * mínima.
+ */
+@QuarkusTest
+class RegistroPendenteSchedulerTest {
+
+    @Inject
+    RegistroPendenteScheduler registroPendenteScheduler;
+
+    @Inject
+    PixImediatoRepository pixImediatoRepository;
+
+    @Inject
+    PixService pixService;
+
+    @Test
+    void testCobrancaAusenteNoBancoEReenviada() {
+        String txid = criarCobrancaPendente();
+
+        registroPendenteScheduler.recuperarPendentes();
+
+        PixImediato pix = buscar(txid);
+        assertEquals("REGISTRADA", pix.getSituacaoRegistro());
+        assertTrue(pix.getPixCopiaECola().endsWith(txid));
+        assertEquals(1, registros(txid));
+    }
+
+    @Test
+    void testCobrancaCriadaComRespostaPerdidaEFinalizadaSemReenvio() {
+        String txid = criarCobrancaPendente();
+
+        // O banco criou a cobrança, mas a resposta do registro não chegou à aplicação
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject().put("status", 503).put("criar", true).encode())
+                .when().put("/bb-simulado/cob/{txid}/falhas", txid)
+                .then().statusCode(204);
+        given().contentType(ContentType.JSON)
+                .body(new JsonObject()
+                        .put("calendario", new JsonObject().put("expiracao", 3600))
+                        .put("valor", new JsonObject().put("original", "20.00"))
+                        .put("chave", "recuperacao@acme.org")
+                        .encode())
+                .when().put("/bb-simulado/cob/{txid}", txid)
+                .then().statusCode(503);
+
+        registroPendenteScheduler.recuperarPendentes();
+
+        PixImediato pix = buscar(txid);
+        assertEquals("REGISTRADA", pix.getSituacaoRegistro());
+        assertTrue(pix.getPixCopiaECola().endsWith(txid));
+        // A consulta encontrou a cobrança: nenhum PUT além do que teve a resposta perdida
+        assertEquals(1, registros(txid));
+    }
+
+    @Test
+    void testCobrancaComEntradaAtivaNaOutboxNaoERecuperada() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        pixService.enfileirarCobranca(new PixImediato(txid, "recuperacao@acme.org", new BigDecimal("20.00"),
+                "Fulano de Tal", "12345678909", null, 3600));
+        envelhecer(txid);
+
+        registroPendenteScheduler.recuperarPendentes();
+
+        assertEquals("PENDENTE", buscar(txid).getSituacaoRegistro());
+        assertEquals(0, registros(txid));
+    }
+
+    /**
+     * Grava uma cobrança PENDENTE sem entrada na outbox, como a de um registro
+     * síncrono interrompido
+     */
+    private String criarCobrancaPendente() {
+        String txid = UUID.randomUUID().toString().replace("-", "");
+        QuarkusTransaction.requiringNew().run(() -> {
+            PixImediato pix = new PixImediato(txid, "recuperacao@acme.org", new BigDecimal("20.00"), "Fulano de Tal",
+                    "12345678909", null, 3600);
+            pix.setSituacaoRegistro("PENDENTE");
+            pixImediatoRepository.persist(pix);
+        });
+        envelhecer(txid);
+        return txid;
+    }
+
+    private void envelhecer(String txid) {
+        // pix.registro.recuperacao.idade-minima-segundos=120
+        QuarkusTransaction.requiringNew().run(() -> pixImediatoRepository
+                .update("criacao = ?1 WHERE txid = ?2", LocalDateTime.now().minusMinutes(10), txid));
+    }
+
+    private PixImediato buscar(String txid) {
+        return QuarkusTransaction.requiringNew().call(() -> pixImediatoRepository.findByTxId(txid));
+    }
+
+    private static int registros(String txid) {
+        return given().when().get("/bb-simulado/cob/{txid}/registros", txid)
+                .then().statusCode(200)
+                .extract().path("registros");
+    }
+}
@@ -0,0 +1,196 @@
+package org.acme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.acme.config.PixConfig;
+import org.acme.service.StatusCobrancaAlterada;
+import org.acme.service.StatusCobrancaNotifier;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Inscrições, eventos, heartbeat e limite de conexões do notifier, com
+ * conexões SSE em memória
+ */
+class StatusCobrancaNotifierTest {
+
+    private static final String CHAVE = "sse@exemplo.com";
+
+    // Campos de cada evento construído pela fábrica
+    private static final Map<OutboundSseEvent, Map<String, Object>> CAMPOS = Collections
+            .synchronizedMap(new IdentityHashMap<>());
+
+    private final FabricaSse sse = new FabricaSse();
+
+    private static StatusCobrancaNotifier notifier(int maxConexoes) {
+        return new StatusCobrancaNotifier(new PixConfig() {
+            @Override
+            public int getSseMaxConexoes() {
+                return maxConexoes;
+            }
+        });
+    }
+
+    @Test
+    void testStatusFinalEncerraConexaoDaCobrancaEMantemADaChave() {
+        StatusCobrancaNotifier notifier = notifier(10);
+        ConexaoSse cobranca = new ConexaoSse();
+        ConexaoSse chave = new ConexaoSse();
+        assertTrue(notifier.inscreverCobranca("TXIDSSE1", cobranca, sse));
+        assertTrue(notifier.inscreverChave(CHAVE, chave, sse));
+
+        notifier.aoAlterarStatus(new StatusCobrancaAlterada("TXIDSSE1", CHAVE, "ATIVA", "CONCLUIDA"));
+
+        for (ConexaoSse conexao : List.of(cobranca, chave)) {
+            assertEquals(1, conexao.eventos.size());
+            Map<String, Object> evento = conexao.eventos.get(0);
+            assertEquals("status", evento.get("name"));
+            assertEquals("TXIDSSE1:CONCLUIDA", evento.get("id"));
+            JsonObject dados = new JsonObject((String) evento.get("data"));
+            assertEquals("ATIVA", dados.getString("statusAnterior"));
+            assertEquals("CONCLUIDA", dados.getString("status"));
+        }
+        assertTrue(cobranca.fechada);
+        assertFalse(chave.fechada);
+        assertEquals(1, notifier.getConexoesAbertas());
+    }
+
+    @Test
+    void testMudancaDeOutraCobrancaNaoEEnviada() {
+        StatusCobrancaNotifier notifier = notifier(10);
+        ConexaoSse conexao = new ConexaoSse();
+        notifier.inscreverCobranca("TXIDSSE1", conexao, sse);
+
+        notifier.aoAlterarStatus(new StatusCobrancaAlterada("TXIDSSE2", "outra@exemplo.com", "ATIVA", "CONCLUIDA"));
+
+        assertTrue(conexao.eventos.isEmpty());
+        assertFalse(conexao.fechada);
+    }
+
+    @Test
+    void testLimiteDeConexoesLiberadoQuandoClienteFecha() {
+        StatusCobrancaNotifier notifier = notifier(2);
+        ConexaoSse primeira = new ConexaoSse();
+        assertTrue(notifier.inscreverCobranca("TXIDSSE1", primeira, sse));
+        assertTrue(notifier.inscreverChave(CHAVE, new ConexaoSse(), sse));
+        assertFalse(notifier.inscreverCobranca("TXIDSSE2", new ConexaoSse(), sse));
+        assertEquals(2, notifier.getConexoesAbertas());
+
+        // O heartbeat descarta a conexão fechada pelo cliente e libera a vaga
+        primeira.close();
+        notifier.manterConexoes();
+
+        assertEquals(1, notifier.getConexoesAbertas());
+        assertTrue(notifier.inscreverCobranca("TXIDSSE2", new ConexaoSse(), sse));
+    }
+
+    @Test
+    void testHeartbeatEnviaComentarioERemoveConexoesComFalha() {
+        StatusCobrancaNotifier notifier = notifier(10);
+        ConexaoSse ativa = new ConexaoSse();
+        ConexaoSse comFalha = new ConexaoSse();
+        comFalha.falhar = true;
+        notifier.inscreverCobranca("TXIDSSE1", ativa, sse);
+        notifier.inscreverCobranca("TXIDSSE1", comFalha, sse);
+
+        notifier.manterConexoes();
+
+        assertEquals(1, ativa.eventos.size());
+        assertEquals("", ativa.eventos.get(0).get("comment"));
+        assertEquals(1, notifier.getConexoesAbertas());
+    }
+
+    @Test
+    void testCancelarInscricaoLiberaAVaga() {
+        StatusCobrancaNotifier notifier = notifier(1);
+        ConexaoSse conexao = new ConexaoSse();
+        assertTrue(notifier.inscreverCobranca("TXIDSSE1", conexao, sse));
+
+        notifier.cancelarCobranca("TXIDSSE1", conexao, sse);
+
+        assertEquals(0, notifier.getConexoesAbertas());
+        notifier.aoAlterarStatus(new StatusCobrancaAlterada("TXIDSSE1", CHAVE, "ATIVA", "CONCLUIDA"));
+        assertTrue(conexao.eventos.isEmpty());
+    }
+
+    /**
+     * Conexão SSE que guarda os eventos enviados
+     */
+    private static class ConexaoSse implements SseEventSink {
+
+        final List<Map<String, Object>> eventos = new ArrayList<>();
+        boolean fechada;
+        boolean falhar;
+
+        @Override
+        public boolean isClosed() {
+            return fechada;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent evento) {
+            if (falhar) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Conexão interrompida"));
+            }
+            eventos.add(CAMPOS.get(evento));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            fechada = true;
+        }
+    }
+
+    /**
+     * Fábrica de eventos que guarda em CAMPOS o que foi informado no builder
+     */
+    private static class FabricaSse implements Sse {
+
+        @Override
+        public OutboundSseEvent.Builder newEventBuilder() {
+            Map<String, Object> campos = new HashMap<>();
+            return (OutboundSseEvent.Builder) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { OutboundSseEvent.Builder.class }, (builder, metodo, argumentos) -> {
+                        if (metodo.getName().equals("build")) {
+                            OutboundSseEvent evento = (OutboundSseEvent) Proxy.newProxyInstance(
+                                    getClass().getClassLoader(), new Class<?>[] { OutboundSseEvent.class },
+                                    (proxy, metodoEvento, argumentosEvento) -> {
+                                        throw new UnsupportedOperationException(metodoEvento.getName());
+                                    });
+                            CAMPOS.put(evento, campos);
+                            return evento;
+                        }
+                        campos.put(metodo.getName(), argumentos[argumentos.length - 1]);
+                        return builder;
+                    });
+        }
+
+        @Override
+        public OutboundSseEvent newEvent(String name, String data) {
+            return newEventBuilder().name(name).data(data).build();
+        }
+
+        @Override
+        public SseBroadcaster newBroadcaster() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
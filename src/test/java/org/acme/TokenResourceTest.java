@@ -0,0 +1,33 @@
+package org.acme;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.acme.service.TokenService;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class TokenResourceTest {
+
+    @Inject
+    TokenService tokenService;
+
+    @Test
+    void testRenovacaoObtemTokenDoOAuthSimulado() throws Exception {
+        String token = given().contentType(ContentType.JSON)
+                .when().post("/token/renovar")
+                .then().statusCode(200)
+                .body("renovado", is(true))
+                .body("token", startsWith("token-simulado-"))
+                .extract().path("token");
+
+        // O token renovado passa a ser usado pelas chamadas ao banco
+        assertEquals(token, tokenService.getAccessToken());
+    }
+}